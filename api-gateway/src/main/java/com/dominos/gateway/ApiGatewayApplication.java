@@ -1,5 +1,6 @@
 package com.dominos.gateway;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.gateway.route.RouteLocator;
@@ -22,10 +23,13 @@ public class ApiGatewayApplication {
     }
     
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder,
+                                           @Value("${services.user-service.uri:http://localhost:8081}") String userServiceUri) {
         return builder.routes()
             .route("health-check", r -> r.path("/api/health")
                 .uri("http://localhost:8080/health"))
+            .route("user-service", r -> r.path("/api/users/**", "/api/stores/**", "/api/shifts/**")
+                .uri(userServiceUri))
             .build();
     }
 }
\ No newline at end of file
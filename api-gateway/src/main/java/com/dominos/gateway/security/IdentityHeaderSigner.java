@@ -0,0 +1,39 @@
+package com.dominos.gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+@Component
+public class IdentityHeaderSigner {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    private final SecretKeySpec key;
+    
+    public IdentityHeaderSigner(@Value("${gateway.identity.secret}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+    
+    // Must stay in sync with TrustedHeaderAuthenticationFilter in user-service; the request target is
+    // signed so captured headers cannot be replayed against another endpoint within the skew window
+    public String sign(String method, String path, String query, String userId, String userType, String storeId,
+                       String tokenId, long issuedAt, String permissions, long timestamp) {
+        String payload = method + "\n" + path + "\n" + (query != null ? query : "") + "\n" + userId + "\n" + userType + "\n" + (storeId != null ? storeId : "") + "\n"
+            + (tokenId != null ? tokenId : "") + "\n" + issuedAt + "\n"
+            + (permissions != null ? permissions : "") + "\n" + timestamp;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign identity headers", e);
+        }
+    }
+}
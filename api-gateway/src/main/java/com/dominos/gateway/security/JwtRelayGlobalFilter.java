@@ -0,0 +1,112 @@
+package com.dominos.gateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+@Component
+public class JwtRelayGlobalFilter implements GlobalFilter, Ordered {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtRelayGlobalFilter.class);
+    
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_TYPE_HEADER = "X-User-Type";
+    public static final String STORE_ID_HEADER = "X-Store-Id";
+    public static final String TOKEN_ID_HEADER = "X-Token-Id";
+    public static final String TOKEN_ISSUED_AT_HEADER = "X-Token-Issued-At";
+    public static final String PERMISSIONS_HEADER = "X-User-Permissions";
+    public static final String TIMESTAMP_HEADER = "X-Identity-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Identity-Signature";
+    
+    private static final List<String> IDENTITY_HEADERS = List.of(
+        USER_ID_HEADER, USER_TYPE_HEADER, STORE_ID_HEADER, TOKEN_ID_HEADER, TOKEN_ISSUED_AT_HEADER,
+        PERMISSIONS_HEADER, TIMESTAMP_HEADER, SIGNATURE_HEADER
+    );
+    
+    private final JwtParser jwtParser;
+    private final IdentityHeaderSigner signer;
+    
+    public JwtRelayGlobalFilter(@Value("${jwt.secret}") String secretKey, IdentityHeaderSigner signer) {
+        this.jwtParser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secretKey.getBytes()))
+                .build();
+        this.signer = signer;
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        
+        // Never let clients assert their own identity
+        ServerHttpRequest.Builder request = exchange.getRequest().mutate()
+                .headers(headers -> IDENTITY_HEADERS.forEach(headers::remove));
+        
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange.mutate().request(request.build()).build());
+        }
+        
+        Claims claims;
+        try {
+            claims = jwtParser.parseSignedClaims(authHeader.substring(7)).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected token at gateway: {}", e.getMessage());
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        
+        String userId = claims.getSubject();
+        String userType = claims.get("userType", String.class);
+        String storeId = claims.get("storeId", String.class);
+        String tokenId = claims.getId();
+        long issuedAt = claims.getIssuedAt().getTime();
+        String permissions = claims.get("perm", String.class);
+        long timestamp = System.currentTimeMillis();
+        // Routes forward the path unchanged, so the service sees the same target that was signed here
+        URI uri = exchange.getRequest().getURI();
+        String signature = signer.sign(exchange.getRequest().getMethod().name(), uri.getRawPath(), uri.getRawQuery(),
+            userId, userType, storeId, tokenId, issuedAt, permissions, timestamp);
+        
+        request.headers(headers -> {
+            headers.set(USER_ID_HEADER, userId);
+            headers.set(USER_TYPE_HEADER, userType);
+            if (storeId != null) {
+                headers.set(STORE_ID_HEADER, storeId);
+            }
+            // Lets services enforce token revocation without seeing the JWT
+            if (tokenId != null) {
+                headers.set(TOKEN_ID_HEADER, tokenId);
+            }
+            headers.set(TOKEN_ISSUED_AT_HEADER, Long.toString(issuedAt));
+            // Forwarded verbatim; services decode and check the permission version
+            if (permissions != null) {
+                headers.set(PERMISSIONS_HEADER, permissions);
+            }
+            headers.set(TIMESTAMP_HEADER, Long.toString(timestamp));
+            headers.set(SIGNATURE_HEADER, signature);
+        });
+        
+        return chain.filter(exchange.mutate().request(request.build()).build());
+    }
+    
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dominos.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtRelayGlobalFilterTest {
+    
+    private static final String JWT_SECRET = "test-jwt-secret-key-that-is-long-enough-for-hmac-sha-256";
+    private static final String IDENTITY_SECRET = "test-identity-secret";
+    
+    private IdentityHeaderSigner signer;
+    private JwtRelayGlobalFilter filter;
+    private AtomicReference<ServerHttpRequest> forwarded;
+    private GatewayFilterChain chain;
+    
+    @BeforeEach
+    void setUp() {
+        signer = new IdentityHeaderSigner(IDENTITY_SECRET);
+        filter = new JwtRelayGlobalFilter(JWT_SECRET, signer);
+        forwarded = new AtomicReference<>();
+        chain = exchange -> {
+            forwarded.set(exchange.getRequest());
+            return Mono.empty();
+        };
+    }
+    
+    @Test
+    void filter_ShouldStripSpoofedIdentityHeadersWithoutToken() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/u1")
+            .header(JwtRelayGlobalFilter.USER_ID_HEADER, "admin")
+            .header(JwtRelayGlobalFilter.USER_TYPE_HEADER, "ADMIN")
+            .header(JwtRelayGlobalFilter.TIMESTAMP_HEADER, "1")
+            .header(JwtRelayGlobalFilter.SIGNATURE_HEADER, "forged"));
+        
+        // Act
+        filter.filter(exchange, chain).block();
+        
+        // Assert
+        HttpHeaders headers = forwarded.get().getHeaders();
+        assertNull(headers.getFirst(JwtRelayGlobalFilter.USER_ID_HEADER));
+        assertNull(headers.getFirst(JwtRelayGlobalFilter.USER_TYPE_HEADER));
+        assertNull(headers.getFirst(JwtRelayGlobalFilter.TIMESTAMP_HEADER));
+        assertNull(headers.getFirst(JwtRelayGlobalFilter.SIGNATURE_HEADER));
+    }
+    
+    @Test
+    void filter_ShouldReplaceSpoofedHeadersWithIdentityBoundToRequestTarget() {
+        // Arrange
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.put("/api/users/u1/activate?notify=true")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token("u1"))
+            .header(JwtRelayGlobalFilter.USER_ID_HEADER, "admin")
+            .header(JwtRelayGlobalFilter.USER_TYPE_HEADER, "ADMIN"));
+        
+        // Act
+        filter.filter(exchange, chain).block();
+        
+        // Assert
+        HttpHeaders headers = forwarded.get().getHeaders();
+        assertEquals("u1", headers.getFirst(JwtRelayGlobalFilter.USER_ID_HEADER));
+        assertEquals("EMPLOYEE", headers.getFirst(JwtRelayGlobalFilter.USER_TYPE_HEADER));
+        
+        long issuedAt = Long.parseLong(headers.getFirst(JwtRelayGlobalFilter.TOKEN_ISSUED_AT_HEADER));
+        long timestamp = Long.parseLong(headers.getFirst(JwtRelayGlobalFilter.TIMESTAMP_HEADER));
+        String tokenId = headers.getFirst(JwtRelayGlobalFilter.TOKEN_ID_HEADER);
+        String signature = headers.getFirst(JwtRelayGlobalFilter.SIGNATURE_HEADER);
+        assertEquals(signer.sign("PUT", "/api/users/u1/activate", "notify=true", "u1", "EMPLOYEE", "store1",
+            tokenId, issuedAt, null, timestamp), signature);
+        assertNotEquals(signer.sign("GET", "/api/users/u1/activate", "notify=true", "u1", "EMPLOYEE", "store1",
+            tokenId, issuedAt, null, timestamp), signature);
+        assertNotEquals(signer.sign("PUT", "/api/users/u2/activate", "notify=true", "u1", "EMPLOYEE", "store1",
+            tokenId, issuedAt, null, timestamp), signature);
+        assertNotEquals(signer.sign("PUT", "/api/users/u1/activate", null, "u1", "EMPLOYEE", "store1",
+            tokenId, issuedAt, null, timestamp), signature);
+    }
+    
+    @Test
+    void filter_ShouldRejectTokenWithInvalidSignature() {
+        // Arrange
+        String forged = Jwts.builder()
+            .subject("u1")
+            .claim("userType", "ADMIN")
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(Keys.hmacShaKeyFor("another-secret-key-that-is-long-enough-for-hmac-sha-256".getBytes(StandardCharsets.UTF_8)))
+            .compact();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/u1")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + forged));
+        
+        // Act
+        filter.filter(exchange, chain).block();
+        
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertNull(forwarded.get());
+    }
+    
+    private String token(String userId) {
+        return Jwts.builder()
+            .subject(userId)
+            .claim("userType", "EMPLOYEE")
+            .claim("storeId", "store1")
+            .id("token-1")
+            .issuedAt(new Date())
+            .expiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+}
@@ -0,0 +1,85 @@
+package com.dominos.shared.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import com.dominos.shared.enums.RollupGranularity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Hours and counted sessions of one employee or store over one day, ISO week or month. Maintained
+// with $inc as sessions are finalized; the id is derived from the key so every update is an upsert.
+// appliedChanges keeps the most recent change ids so replaying a session's change never counts it twice.
+@Document(collection = "labour_rollups")
+@CompoundIndex(def = "{'scope': 1, 'ownerId': 1, 'granularity': 1, 'periodStart': 1}")
+public class LabourRollup {
+    
+    public enum Scope { EMPLOYEE, STORE }
+    
+    @Id
+    private String id;
+    
+    @Field("scope")
+    private Scope scope;
+    
+    @Field("ownerId")
+    private String ownerId;
+    
+    @Field("granularity")
+    private RollupGranularity granularity;
+    
+    @Field("periodStart")
+    private LocalDate periodStart;
+    
+    @Field("hours")
+    private double hours;
+    
+    @Field("sessions")
+    private int sessions;
+    
+    @Field("lastModified")
+    private LocalDateTime lastModified;
+    
+    // Ids of the most recent session rollup changes counted here, capped by the rollup service
+    @Field("appliedChanges")
+    private List<String> appliedChanges = new ArrayList<>();
+    
+    // Constructors
+    public LabourRollup() {}
+    
+    public static String key(Scope scope, String ownerId, RollupGranularity granularity, LocalDate periodStart) {
+        return scope + ":" + ownerId + ":" + granularity + ":" + periodStart;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public Scope getScope() { return scope; }
+    public void setScope(Scope scope) { this.scope = scope; }
+    
+    public String getOwnerId() { return ownerId; }
+    public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+    
+    public RollupGranularity getGranularity() { return granularity; }
+    public void setGranularity(RollupGranularity granularity) { this.granularity = granularity; }
+    
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    
+    public double getHours() { return hours; }
+    public void setHours(double hours) { this.hours = hours; }
+    
+    public int getSessions() { return sessions; }
+    public void setSessions(int sessions) { this.sessions = sessions; }
+    
+    public LocalDateTime getLastModified() { return lastModified; }
+    public void setLastModified(LocalDateTime lastModified) { this.lastModified = lastModified; }
+    
+    public List<String> getAppliedChanges() { return appliedChanges; }
+    public void setAppliedChanges(List<String> appliedChanges) { this.appliedChanges = appliedChanges; }
+}
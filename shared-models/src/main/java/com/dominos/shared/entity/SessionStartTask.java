@@ -0,0 +1,97 @@
+package com.dominos.shared.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import com.dominos.shared.enums.SessionStartStatus;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Document(collection = "session_start_outbox")
+@CompoundIndex(def = "{'status': 1, 'nextAttemptAt': 1}")
+@CompoundIndex(def = "{'employeeId': 1, 'createdAt': -1}")
+public class SessionStartTask {
+    
+    @Id
+    private String id;
+    
+    @NotNull
+    @Field("employeeId")
+    private String employeeId;
+    
+    @NotNull
+    @Field("storeId")
+    private String storeId;
+    
+    @Field("status")
+    private SessionStartStatus status = SessionStartStatus.PENDING;
+    
+    @Field("attempts")
+    private int attempts = 0;
+    
+    @Field("nextAttemptAt")
+    private LocalDateTime nextAttemptAt;
+    
+    @Field("lockedUntil")
+    private LocalDateTime lockedUntil;
+    
+    @Field("sessionId")
+    private String sessionId;
+    
+    @Field("lastError")
+    private String lastError;
+    
+    @Field("createdAt")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    // Finished tasks are purged a week after completion
+    @Field("completedAt")
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public SessionStartTask() {}
+    
+    public SessionStartTask(String employeeId, String storeId) {
+        this.employeeId = employeeId;
+        this.storeId = storeId;
+        this.nextAttemptAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getEmployeeId() { return employeeId; }
+    public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
+    
+    public String getStoreId() { return storeId; }
+    public void setStoreId(String storeId) { this.storeId = storeId; }
+    
+    public SessionStartStatus getStatus() { return status; }
+    public void setStatus(SessionStartStatus status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public void setLockedUntil(LocalDateTime lockedUntil) { this.lockedUntil = lockedUntil; }
+    
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
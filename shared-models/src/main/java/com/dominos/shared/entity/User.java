@@ -3,7 +3,9 @@ package com.dominos.shared.entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.dominos.shared.enums.UserType;
 import com.dominos.shared.model.Address;
@@ -17,8 +19,16 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "users")
+@CompoundIndex(def = "{'type': 1, '_id': 1}")
+@CompoundIndex(def = "{'employeeDetails.storeId': 1, 'type': 1, '_id': 1}")
+@CompoundIndex(name = "store_roster",
+    def = "{'employeeDetails.storeId': 1, 'isActive': 1, 'type': 1, 'personalInfo.name': 1, 'employeeDetails.role': 1, '_id': 1}")
 public class User {
     
+    private static final long EMPLOYEE_TYPES =
+        UserType.maskOf(UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER);
+    private static final long ORDER_TAKING_TYPES = UserType.maskOf(UserType.MANAGER, UserType.ASSISTANT_MANAGER);
+    
     @Id
     private String id;
     
@@ -47,6 +57,10 @@ public class User {
     @Field("isActive")
     private boolean isActive = true;
     
+    // Bumped whenever type, store, role or permissions change so older tokens are re-issued
+    @Field("permissionVersion")
+    private long permissionVersion = 0;
+    
     // Constructors
     public User() {}
     
@@ -80,29 +94,34 @@ public class User {
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
     
+    public long getPermissionVersion() { return permissionVersion; }
+    public void setPermissionVersion(long permissionVersion) { this.permissionVersion = permissionVersion; }
+    
     // Helper methods
     public boolean isEmployee() {
-        return type == UserType.STAFF || type == UserType.DRIVER || 
-               type == UserType.MANAGER || type == UserType.ASSISTANT_MANAGER;
+        return type != null && (EMPLOYEE_TYPES & type.mask()) != 0;
     }
     
     public boolean canTakeOrders() {
-        return type == UserType.MANAGER || type == UserType.ASSISTANT_MANAGER;
+        return type != null && (ORDER_TAKING_TYPES & type.mask()) != 0;
     }
     
     // Nested classes
     public static class PersonalInfo {
         @NotNull
+        @TextIndexed(weight = 3)
         private String name;
         
         @NotNull
         @Email
         @Indexed(unique = true)
+        @TextIndexed
         private String email;
         
         @NotNull
         @Pattern(regexp = "^[6-9]\\d{9}$", message = "Invalid Indian phone number")
         @Indexed(unique = true)
+        @TextIndexed
         private String phone;
         
         private Address address;
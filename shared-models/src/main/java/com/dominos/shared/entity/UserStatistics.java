@@ -0,0 +1,68 @@
+package com.dominos.shared.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Materialized user counters, maintained with $inc on user events and periodically reconciled
+// against an aggregation. loginDays counts users by the UTC day (yyyy-MM-dd) of their lastLogin.
+@Document(collection = "user_statistics")
+public class UserStatistics {
+    
+    public static final String GLOBAL_ID = "global";
+    
+    @Id
+    private String id = GLOBAL_ID;
+    
+    @Field("totalUsers")
+    private long totalUsers;
+    
+    @Field("activeUsers")
+    private long activeUsers;
+    
+    @Field("usersByType")
+    private Map<String, Long> usersByType = new HashMap<>();
+    
+    @Field("loginDays")
+    private Map<String, Long> loginDays = new HashMap<>();
+    
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+    
+    @Field("reconciledAt")
+    private LocalDateTime reconciledAt;
+    
+    // Bumped by every counter update so reconciliation can detect events it raced with
+    @Field("version")
+    private long version;
+    
+    public UserStatistics() {}
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public long getTotalUsers() { return totalUsers; }
+    public void setTotalUsers(long totalUsers) { this.totalUsers = totalUsers; }
+    
+    public long getActiveUsers() { return activeUsers; }
+    public void setActiveUsers(long activeUsers) { this.activeUsers = activeUsers; }
+    
+    public Map<String, Long> getUsersByType() { return usersByType; }
+    public void setUsersByType(Map<String, Long> usersByType) { this.usersByType = usersByType; }
+    
+    public Map<String, Long> getLoginDays() { return loginDays; }
+    public void setLoginDays(Map<String, Long> loginDays) { this.loginDays = loginDays; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public LocalDateTime getReconciledAt() { return reconciledAt; }
+    public void setReconciledAt(LocalDateTime reconciledAt) { this.reconciledAt = reconciledAt; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
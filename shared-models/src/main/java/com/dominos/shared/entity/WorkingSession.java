@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import com.dominos.shared.enums.WorkingSessionStatus;
 import com.dominos.shared.model.Location;
+import com.dominos.shared.model.RollupChange;
 import com.dominos.shared.model.SessionViolation;
 
 import jakarta.validation.constraints.NotNull;
@@ -21,6 +22,8 @@ import java.util.ArrayList;
 @CompoundIndex(def = "{'storeId': 1, 'date': -1}")
 @CompoundIndex(def = "{'employeeId': 1, 'isActive': 1}")
 @CompoundIndex(def = "{'status': 1}")
+// Payroll export order
+@CompoundIndex(def = "{'date': 1, 'storeId': 1, '_id': 1}")
 public class WorkingSession {
     
     @Id
@@ -100,6 +103,15 @@ public class WorkingSession {
     @Field("emergencySession")
     private boolean emergencySession = false;
     
+    // Hours this session currently contributes to the labour rollups; null while it contributes nothing
+    @Field("rolledUpHours")
+    private Double rolledUpHours;
+    
+    // Set while a change to rolledUpHours is being applied to the rollups; the sweep replays leftovers
+    @Field("pendingRollup")
+    @Indexed(sparse = true)
+    private RollupChange pendingRollup;
+    
     // Constructors
     public WorkingSession() {}
     
@@ -404,6 +416,12 @@ public class WorkingSession {
         this.lastModified = LocalDateTime.now();
     }
     
+    public Double getRolledUpHours() { return rolledUpHours; }
+    public void setRolledUpHours(Double rolledUpHours) { this.rolledUpHours = rolledUpHours; }
+    
+    public RollupChange getPendingRollup() { return pendingRollup; }
+    public void setPendingRollup(RollupChange pendingRollup) { this.pendingRollup = pendingRollup; }
+    
     // Inner class for session summary
     public static class SessionSummary {
         private final String sessionId;
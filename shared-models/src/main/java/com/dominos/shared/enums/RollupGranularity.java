@@ -0,0 +1,18 @@
+package com.dominos.shared.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum RollupGranularity {
+    DAY,
+    WEEK,   // ISO week, starting on Monday
+    MONTH;
+    
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package com.dominos.shared.enums;
+
+public enum SessionStartStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
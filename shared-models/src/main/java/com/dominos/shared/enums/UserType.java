@@ -5,5 +5,18 @@ public enum UserType {
     STAFF,
     DRIVER,
     MANAGER,
-    ASSISTANT_MANAGER
-}
\ No newline at end of file
+    ASSISTANT_MANAGER;
+    
+    // Bit position is the ordinal: append new types, never reorder
+    public long mask() {
+        return 1L << ordinal();
+    }
+    
+    public static long maskOf(UserType... types) {
+        long mask = 0L;
+        for (UserType type : types) {
+            mask |= type.mask();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,27 @@
+package com.dominos.shared.model;
+
+// A labour rollup contribution change claimed by a session but possibly not yet applied to every
+// rollup; the id marks the rollups it has reached so a replay never applies it twice.
+public class RollupChange {
+    private String id;
+    private Double fromHours;
+    private Double toHours;
+    
+    public RollupChange() {}
+    
+    public RollupChange(String id, Double fromHours, Double toHours) {
+        this.id = id;
+        this.fromHours = fromHours;
+        this.toHours = toHours;
+    }
+    
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public Double getFromHours() { return fromHours; }
+    public void setFromHours(Double fromHours) { this.fromHours = fromHours; }
+    
+    public Double getToHours() { return toHours; }
+    public void setToHours(Double toHours) { this.toHours = toHours; }
+}
@@ -0,0 +1,17 @@
+package com.dominos.user.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Names the bulkhead whose Mongo and Redis permits a controller method draws from.
+// Method-level declarations override the controller's; unannotated handlers use "default".
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+    
+    String value();
+}
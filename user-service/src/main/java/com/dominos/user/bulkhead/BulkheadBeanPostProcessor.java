@@ -0,0 +1,107 @@
+package com.dominos.user.bulkhead;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+// Routes every Mongo operation (repositories delegate to MongoTemplate) and every Redis
+// connection checkout through the bulkhead bound to the current request.
+@Component
+public class BulkheadBeanPostProcessor implements BeanPostProcessor {
+    
+    private final ObjectProvider<BulkheadRegistry> bulkheadRegistry;
+    
+    public BulkheadBeanPostProcessor(ObjectProvider<BulkheadRegistry> bulkheadRegistry) {
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof MongoTemplate) {
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(mongoInterceptor());
+            return proxyFactory.getProxy();
+        }
+        if (bean instanceof RedisConnectionFactory) {
+            // Class proxy so injection points typed to the concrete factory still resolve
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(redisConnectionInterceptor());
+            return proxyFactory.getProxy();
+        }
+        return bean;
+    }
+    
+    private MethodInterceptor mongoInterceptor() {
+        return invocation -> {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            BulkheadRegistry.Permit permit = bulkheadRegistry.getObject().acquire(BulkheadRegistry.Resource.MONGO);
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable e) {
+                permit.close();
+                throw e;
+            }
+            
+            // A stream keeps its cursor open after the call returns, so the permit is held until it is closed
+            if (result instanceof Stream<?> stream) {
+                AtomicBoolean released = new AtomicBoolean();
+                return stream.onClose(() -> {
+                    if (released.compareAndSet(false, true)) {
+                        permit.close();
+                    }
+                });
+            }
+            permit.close();
+            return result;
+        };
+    }
+    
+    // The permit is held from connection checkout until RedisTemplate closes the connection
+    private MethodInterceptor redisConnectionInterceptor() {
+        return invocation -> {
+            Class<?> returnType = invocation.getMethod().getReturnType();
+            if (returnType != RedisConnection.class && returnType != RedisClusterConnection.class) {
+                return invocation.proceed();
+            }
+            
+            BulkheadRegistry.Permit permit = bulkheadRegistry.getObject().acquire(BulkheadRegistry.Resource.REDIS);
+            Object connection;
+            try {
+                connection = invocation.proceed();
+            } catch (Throwable e) {
+                permit.close();
+                throw e;
+            }
+            
+            AtomicBoolean released = new AtomicBoolean();
+            ProxyFactory proxyFactory = new ProxyFactory(connection);
+            proxyFactory.addAdvice((MethodInterceptor) call -> {
+                if (!"close".equals(call.getMethod().getName()) || call.getMethod().getParameterCount() != 0) {
+                    return call.proceed();
+                }
+                try {
+                    return call.proceed();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        permit.close();
+                    }
+                }
+            });
+            return proxyFactory.getProxy();
+        };
+    }
+}
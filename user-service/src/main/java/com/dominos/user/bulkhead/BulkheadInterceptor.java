@@ -0,0 +1,49 @@
+package com.dominos.user.bulkhead;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Binds the handler's bulkhead to the request thread for the duration of the handler call
+@Component
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            bulkheadRegistry.enter(names.computeIfAbsent(handlerMethod.getMethod(), method -> resolve(handlerMethod)));
+        }
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        bulkheadRegistry.exit();
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        bulkheadRegistry.exit();
+    }
+    
+    private static String resolve(HandlerMethod handlerMethod) {
+        Bulkhead bulkhead = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), Bulkhead.class);
+        if (bulkhead == null) {
+            bulkhead = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), Bulkhead.class);
+        }
+        return bulkhead != null ? bulkhead.value() : BulkheadRegistry.DEFAULT;
+    }
+}
@@ -0,0 +1,160 @@
+package com.dominos.user.bulkhead;
+
+import com.dominos.user.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps concurrent Mongo and Redis operations per endpoint class so a burst on one class of
+// endpoints (clock-in waves, report pulls) cannot take every connection from the others.
+// Limits come from bulkheads.<name>.mongo / bulkheads.<name>.redis.
+@Component
+public class BulkheadRegistry {
+    
+    public enum Resource { MONGO, REDIS }
+    
+    public static final String DEFAULT = "default";
+    
+    private static final Permit NO_PERMIT = () -> {};
+    
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${bulkheads.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${bulkheads.max-wait:250}")
+    private long maxWaitMillis;
+    
+    @Value("${bulkheads.default-limit.mongo:64}")
+    private int defaultMongoLimit;
+    
+    @Value("${bulkheads.default-limit.redis:64}")
+    private int defaultRedisLimit;
+    
+    @Value("${bulkheads.retry-after:1}")
+    private long retryAfterSeconds;
+    
+    private final Map<String, Compartment> compartments = new ConcurrentHashMap<>();
+    
+    public void enter(String name) {
+        if (enabled) {
+            CURRENT.set(new Scope(compartments.computeIfAbsent(name, this::createCompartment)));
+        }
+    }
+    
+    public void exit() {
+        CURRENT.remove();
+    }
+    
+    // Streaming bodies are written on an async thread after the interceptor has exited the scope,
+    // so the writer re-enters the same bulkhead for the duration of the write
+    public StreamingResponseBody wrap(String name, StreamingResponseBody body) {
+        return out -> {
+            enter(name);
+            try {
+                body.writeTo(out);
+            } finally {
+                exit();
+            }
+        };
+    }
+    
+    // Work outside a request (schedulers, listeners, outbox drains) is not limited
+    public Permit acquire(Resource resource) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return NO_PERMIT;
+        }
+        
+        // Nested calls on the same thread already hold a permit for this resource
+        int index = resource.ordinal();
+        if (scope.held[index]++ > 0) {
+            return () -> scope.held[index]--;
+        }
+        
+        Semaphore semaphore = scope.compartment.semaphores[index];
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        
+        if (!acquired) {
+            scope.held[index]--;
+            scope.compartment.rejected[index].increment();
+            throw new TooManyRequestsException(
+                "Too many concurrent " + resource.name().toLowerCase(Locale.ROOT) + " operations for "
+                    + scope.compartment.name + " endpoints, please retry", retryAfterSeconds);
+        }
+        
+        return () -> {
+            scope.held[index]--;
+            semaphore.release();
+        };
+    }
+    
+    private Compartment createCompartment(String name) {
+        int mongoLimit = environment.getProperty("bulkheads." + name + ".mongo", Integer.class, defaultMongoLimit);
+        int redisLimit = environment.getProperty("bulkheads." + name + ".redis", Integer.class, defaultRedisLimit);
+        Compartment compartment = new Compartment(name, mongoLimit, redisLimit);
+        
+        for (Resource resource : Resource.values()) {
+            Semaphore semaphore = compartment.semaphores[resource.ordinal()];
+            String tag = resource.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("bulkhead.available", semaphore, Semaphore::availablePermits)
+                .tag("bulkhead", name)
+                .tag("resource", tag)
+                .register(meterRegistry);
+            compartment.rejected[resource.ordinal()] = Counter.builder("bulkhead.rejected")
+                .tag("bulkhead", name)
+                .tag("resource", tag)
+                .register(meterRegistry);
+        }
+        return compartment;
+    }
+    
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+    
+    private static final class Compartment {
+        private final String name;
+        private final Semaphore[] semaphores;
+        private final Counter[] rejected = new Counter[Resource.values().length];
+        
+        private Compartment(String name, int mongoLimit, int redisLimit) {
+            this.name = name;
+            this.semaphores = new Semaphore[] { new Semaphore(mongoLimit, true), new Semaphore(redisLimit, true) };
+        }
+    }
+    
+    private static final class Scope {
+        private final Compartment compartment;
+        private final int[] held = new int[Resource.values().length];
+        
+        private Scope(Compartment compartment) {
+            this.compartment = compartment;
+        }
+    }
+}
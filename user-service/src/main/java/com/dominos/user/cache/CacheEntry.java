@@ -0,0 +1,4 @@
+package com.dominos.user.cache;
+
+// A cached value with what probabilistic early refresh needs: how long it took to load and when it expires
+public record CacheEntry(Object value, long loadMillis, long expiresAtMillis) {}
@@ -0,0 +1,50 @@
+package com.dominos.user.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Stores a CacheEntry in Redis as a 12-byte header (expiry epoch millis, load millis) followed by the
+// value in the delegate's format
+public class CacheEntrySerializer implements RedisSerializer<CacheEntry> {
+    
+    private static final int HEADER_BYTES = Long.BYTES + Integer.BYTES;
+    
+    private final RedisSerializer<Object> valueSerializer;
+    
+    @SuppressWarnings("unchecked")
+    public CacheEntrySerializer(RedisSerializer<?> valueSerializer) {
+        this.valueSerializer = (RedisSerializer<Object>) valueSerializer;
+    }
+    
+    @Override
+    public byte[] serialize(CacheEntry entry) throws SerializationException {
+        if (entry == null) {
+            return null;
+        }
+        byte[] value = valueSerializer.serialize(entry.value());
+        return ByteBuffer.allocate(HEADER_BYTES + value.length)
+            .putLong(entry.expiresAtMillis())
+            .putInt((int) Math.min(Integer.MAX_VALUE, entry.loadMillis()))
+            .put(value)
+            .array();
+    }
+    
+    @Override
+    public CacheEntry deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < HEADER_BYTES) {
+            throw new SerializationException("Cache entry too short: " + bytes.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long expiresAt = buffer.getLong();
+        int loadMillis = buffer.getInt();
+        Object value = valueSerializer.deserialize(Arrays.copyOfRange(bytes, HEADER_BYTES, bytes.length));
+        // A value the delegate rejects (e.g. another schema version) reads as a miss
+        return value != null ? new CacheEntry(value, loadMillis, expiresAt) : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.dominos.user.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Cache value format: a 5-byte header (magic, body format, schema version, flags) followed by the entity
+// in JSON or Smile, deflated when it is larger than the compression threshold. Values written with another
+// schema version or an unknown header decode to null, i.e. a cache miss that the loader then overwrites,
+// so instances on different versions during a rolling deploy never read each other's incompatible entries.
+public class CacheValueCodec<T> implements RedisSerializer<T> {
+    
+    public enum Format {
+        JSON(1), SMILE(2);
+        
+        private final byte id;
+        
+        Format(int id) {
+            this.id = (byte) id;
+        }
+        
+        static Format of(byte id) {
+            for (Format format : values()) {
+                if (format.id == id) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+    
+    static final byte MAGIC = (byte) 0xDC;
+    static final int HEADER_BYTES = 5;
+    
+    private static final byte FLAG_DEFLATED = 1;
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheValueCodec.class);
+    
+    private final Class<T> type;
+    private final Format format;
+    private final short schemaVersion;
+    private final int compressionThreshold;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    
+    // Both mappers are kept so entries written in the other format (e.g. before a format switch) still decode
+    public CacheValueCodec(Class<T> type, Format format, int schemaVersion, int compressionThreshold,
+                           ObjectMapper jsonMapper, ObjectMapper smileMapper) {
+        this.type = type;
+        this.format = format;
+        this.schemaVersion = (short) schemaVersion;
+        this.compressionThreshold = compressionThreshold;
+        this.jsonMapper = jsonMapper;
+        this.smileMapper = smileMapper;
+    }
+    
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        byte[] body;
+        try {
+            body = mapper(format).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode " + type.getSimpleName() + " for the cache", e);
+        }
+        
+        byte flags = 0;
+        if (compressionThreshold > 0 && body.length > compressionThreshold) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                body = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+            .put(MAGIC)
+            .put(format.id)
+            .putShort(schemaVersion)
+            .put(flags)
+            .put(body)
+            .array();
+    }
+    
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_BYTES || buffer.get() != MAGIC) {
+            logger.debug("Ignoring {} cache value without a codec header", type.getSimpleName());
+            return null;
+        }
+        Format bodyFormat = Format.of(buffer.get());
+        short version = buffer.getShort();
+        byte flags = buffer.get();
+        if (bodyFormat == null || version != schemaVersion) {
+            logger.debug("Ignoring {} cache value with format {} schema version {}", type.getSimpleName(), bodyFormat, version);
+            return null;
+        }
+        
+        try {
+            if ((flags & FLAG_DEFLATED) != 0) {
+                byte[] body = inflate(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+                return mapper(bodyFormat).readValue(body, type);
+            }
+            return mapper(bodyFormat).readValue(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES, type);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not decode " + type.getSimpleName() + " from the cache", e);
+        }
+    }
+    
+    private ObjectMapper mapper(Format bodyFormat) {
+        return bodyFormat == Format.SMILE ? smileMapper : jsonMapper;
+    }
+    
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private static byte[] inflate(byte[] input, int offset, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, length);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(length * 3);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflated cache value");
+                }
+                output.write(chunk, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.dominos.user.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+// In-process Caffeine L1 in front of a shared L2 (Redis). Reads try L1, then L2 (promoting hits into
+// L1), then the loader. Writes go to L2 and L1 and are announced so other instances drop their L1 copy.
+// Loads through get(key, loader) (@Cacheable(sync = true)) are single-flight per key, and entries are
+// refreshed in the background ahead of expiry with probability growing as expiry nears (XFetch).
+public class TwoTierCache implements Cache, MeterBinder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+    
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry> local;
+    private final Cache remote;
+    // (cache name, key) for an eviction, (cache name, null) for a clear
+    private final BiConsumer<String, Object> invalidations;
+    private final long timeToLiveMillis;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry> local, Cache remote,
+                        BiConsumer<String, Object> invalidations, Duration timeToLive, double earlyRefreshBeta,
+                        Executor refreshExecutor) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidations = invalidations;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = lookup(key);
+        return entry != null ? new SimpleValueWrapper(entry.value()) : null;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        CacheEntry entry = lookup(key);
+        Object value = entry != null ? entry.value() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            if (shouldRefreshEarly(entry)) {
+                refreshInBackground(key, valueLoader);
+            }
+            return (T) entry.value();
+        }
+        
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return (T) await(key, valueLoader, leader);
+        }
+        
+        try {
+            // The previous flight may have filled the entry between our lookup and putIfAbsent
+            entry = lookup(key);
+            Object value = entry != null ? entry.value() : load(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        store(key, value, 0);
+    }
+    
+    @Override
+    public void evict(Object key) {
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            logger.warn("Failed to evict {} entry {} from the shared cache", name, key, e);
+        }
+        local.invalidate(key);
+        invalidations.accept(name, key);
+    }
+    
+    @Override
+    public void clear() {
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            logger.warn("Failed to clear shared cache {}", name, e);
+        }
+        local.invalidateAll();
+        invalidations.accept(name, null);
+    }
+    
+    // Applied when another instance announces a change; L2 already reflects it
+    public void invalidateLocal(Object key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+    
+    private CacheEntry lookup(Object key) {
+        CacheEntry entry = local.getIfPresent(key);
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        localMisses.increment();
+        
+        entry = getRemote(key);
+        if (entry != null) {
+            local.put(key, entry);
+        }
+        return entry;
+    }
+    
+    // An unavailable L2 degrades to L1 plus the loader instead of failing the read
+    private CacheEntry getRemote(Object key) {
+        try {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() instanceof CacheEntry entry) {
+                remoteHits.increment();
+                return entry;
+            }
+            remoteMisses.increment();
+            return null;
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            logger.debug("Shared cache read for {} entry {} failed", name, key, e);
+            return null;
+        }
+    }
+    
+    private Object load(Object key, Callable<?> valueLoader) {
+        loads.increment();
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        store(key, value, (System.nanoTime() - started) / 1_000_000);
+        return value;
+    }
+    
+    private void store(Object key, Object value, long loadMillis) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        CacheEntry entry = new CacheEntry(value, loadMillis, System.currentTimeMillis() + timeToLiveMillis);
+        try {
+            remote.put(key, entry);
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            logger.warn("Failed to write {} entry {} to the shared cache", name, key, e);
+        }
+        local.put(key, entry);
+        invalidations.accept(name, key);
+    }
+    
+    // XFetch: refresh once now - loadTime * beta * ln(random) passes the expiry, so slow loads start earlier
+    private boolean shouldRefreshEarly(CacheEntry entry) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double gap = -Math.max(1, entry.loadMillis()) * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAtMillis();
+    }
+    
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        earlyRefreshes.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    flight.complete(load(key, valueLoader));
+                } catch (RuntimeException e) {
+                    flight.completeExceptionally(e);
+                    logger.warn("Early refresh of {} entry {} failed", name, key, e);
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+        }
+    }
+    
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "cache.tier.gets", "l1", "hit", localHits);
+        counter(registry, "cache.tier.gets", "l1", "miss", localMisses);
+        counter(registry, "cache.tier.gets", "l2", "hit", remoteHits);
+        counter(registry, "cache.tier.gets", "l2", "miss", remoteMisses);
+        counter(registry, "cache.tier.gets", "l2", "error", remoteErrors);
+        ratio(registry, "l1", localHits, localMisses);
+        ratio(registry, "l2", remoteHits, remoteMisses);
+        Gauge.builder("cache.tier.size", local, cache -> cache.estimatedSize())
+            .tags("cache", name, "tier", "l1")
+            .register(registry);
+        
+        FunctionCounter.builder("cache.loads", loads, LongAdder::sum).tag("cache", name).register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", coalesced, LongAdder::sum)
+            .description("Callers that waited on another caller's load instead of loading themselves")
+            .tag("cache", name)
+            .register(registry);
+        FunctionCounter.builder("cache.loads.early.refresh", earlyRefreshes, LongAdder::sum)
+            .tag("cache", name)
+            .register(registry);
+    }
+    
+    private void counter(MeterRegistry registry, String meter, String tier, String result, LongAdder adder) {
+        FunctionCounter.builder(meter, adder, LongAdder::sum)
+            .tags("cache", name, "tier", tier, "result", result)
+            .register(registry);
+    }
+    
+    private void ratio(MeterRegistry registry, String tier, LongAdder hits, LongAdder misses) {
+        Gauge.builder("cache.tier.hit.ratio", () -> {
+            long hitCount = hits.sum();
+            long total = hitCount + misses.sum();
+            return total == 0 ? 0.0 : (double) hitCount / total;
+        }).tags("cache", name, "tier", tier).register(registry);
+    }
+}
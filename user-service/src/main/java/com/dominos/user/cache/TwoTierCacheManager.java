@@ -0,0 +1,85 @@
+package com.dominos.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+// Wraps every cache of the shared (Redis) manager in a TwoTierCache and keeps the L1s of all
+// instances coherent: each put/evict/clear is published as "instanceId|cache|key" (empty key
+// for a clear) and every other instance drops that key from its L1. Cache keys must be strings.
+public class TwoTierCacheManager implements CacheManager {
+    
+    public static final String CHANNEL = "cache-invalidation";
+    
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final ExecutorService refreshExecutor;
+    
+    public TwoTierCacheManager(CacheManager remote, Supplier<com.github.benmanes.caffeine.cache.Cache<Object, CacheEntry>> localFactory,
+                               Duration timeToLive, double earlyRefreshBeta, ExecutorService refreshExecutor,
+                               StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.refreshExecutor = refreshExecutor;
+        for (String name : remote.getCacheNames()) {
+            TwoTierCache cache = new TwoTierCache(name, localFactory.get(), remote.getCache(name), this::publish,
+                timeToLive, earlyRefreshBeta, refreshExecutor);
+            cache.bindTo(meterRegistry);
+            caches.put(name, cache);
+        }
+        listenerContainer.addMessageListener((message, pattern) ->
+            onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+    
+    // Pending early refreshes are dropped; entries simply reload on expiry
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+    
+    private void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + cacheName + "|" + (key != null ? key : ""));
+        } catch (Exception e) {
+            // Other instances fall back to the L1 expire-after-write
+            logger.warn("Failed to publish cache invalidation for {} {}", cacheName, key, e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.dominos.user.config;
+
+import com.dominos.shared.entity.Store;
+import com.dominos.shared.entity.User;
+import com.dominos.user.cache.CacheEntrySerializer;
+import com.dominos.user.cache.CacheValueCodec;
+import com.dominos.user.cache.TwoTierCacheManager;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class CacheConfig {
+    
+    @Value("${spring.cache.redis.time-to-live:3600000}")
+    private long remoteTimeToLive;
+    
+    @Value("${cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+    
+    // Upper bound on staleness if an invalidation message is lost
+    @Value("${cache.local.expire-after-write:60000}")
+    private long localExpireAfterWrite;
+    
+    // XFetch beta: larger values start background refreshes earlier before expiry, 0 disables them
+    @Value("${cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+    
+    @Value("${cache.early-refresh.threads:2}")
+    private int earlyRefreshThreads;
+    
+    @Value("${cache.early-refresh.queue-capacity:256}")
+    private int earlyRefreshQueueCapacity;
+    
+    @Value("${cache.codec.format:SMILE}")
+    private CacheValueCodec.Format codecFormat;
+    
+    // Bump when a cached class changes incompatibly; entries of other versions are treated as misses
+    @Value("${cache.codec.schema-version:1}")
+    private int schemaVersion;
+    
+    @Value("${cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+    
+    @Bean(destroyMethod = "shutdown")
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                            RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry) {
+        RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(Duration.ofMillis(remoteTimeToLive))
+            .disableCachingNullValues();
+        
+        RedisCacheManager remote = RedisCacheManager.builder(connectionFactory)
+            .withCacheConfiguration("users", defaults.serializeValuesWith(
+                SerializationPair.fromSerializer(new CacheEntrySerializer(codec(User.class)))))
+            .withCacheConfiguration("stores", defaults.serializeValuesWith(
+                SerializationPair.fromSerializer(new CacheEntrySerializer(codec(Store.class)))))
+            .disableCreateOnMissingCache()
+            .build();
+        remote.afterPropertiesSet();
+        
+        return new TwoTierCacheManager(remote,
+            () -> Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(localExpireAfterWrite))
+                .build(),
+            Duration.ofMillis(remoteTimeToLive), earlyRefreshBeta,
+            refreshExecutor(),
+            redisTemplate, listenerContainer, meterRegistry);
+    }
+    
+    // Owned and shut down by the cache manager rather than exposed as an Executor bean, which would
+    // switch off Boot's applicationTaskExecutor. Early refreshes are optional work: when the queue
+    // is full the submit is rejected and the cache skips that refresh.
+    private ThreadPoolExecutor refreshExecutor() {
+        return new ThreadPoolExecutor(earlyRefreshThreads, earlyRefreshThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(earlyRefreshQueueCapacity), new CustomizableThreadFactory("cache-refresh-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    private <T> CacheValueCodec<T> codec(Class<T> type) {
+        return new CacheValueCodec<>(type, codecFormat, schemaVersion, compressionThreshold,
+            cacheObjectMapper(), smileCacheObjectMapper());
+    }
+    
+    public static ObjectMapper cacheObjectMapper() {
+        return cacheObjectMapper(new JsonFactory());
+    }
+    
+    // The codec header already identifies the format, so Smile's own 4-byte header is left out
+    public static ObjectMapper smileCacheObjectMapper() {
+        return cacheObjectMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build());
+    }
+    
+    // Entities are cached whole, including the password hash the API representation leaves out
+    private static ObjectMapper cacheObjectMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(User.PersonalInfo.class, PersonalInfoCacheMixin.class);
+    }
+    
+    abstract static class PersonalInfoCacheMixin {
+        @JsonIgnore(false)
+        @JsonProperty
+        private String passwordHash;
+    }
+}
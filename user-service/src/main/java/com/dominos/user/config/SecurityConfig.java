@@ -1,16 +1,31 @@
 package com.dominos.user.config;
 
+import com.dominos.user.security.BoundedPasswordEncoder;
 import com.dominos.user.security.JwtAuthenticationFilter;
-import com.dominos.user.service.JwtService;
+import com.dominos.user.security.PermissionRegistry;
+import com.dominos.user.security.PermissionVersionService;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.security.RoleMaskAuthorizationManager;
+import com.dominos.user.security.TokenRevocationService;
+import com.dominos.user.security.TrustedHeaderAuthenticationFilter;
+import com.dominos.user.security.VerifiedTokenCache;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,16 +41,59 @@ import java.util.Arrays;
 public class SecurityConfig {
     
     @Autowired
-    private JwtService jwtService;
+    private VerifiedTokenCache verifiedTokenCache;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private PermissionVersionService permissionVersionService;
+    
+    @Value("${security.trusted-headers.enabled:false}")
+    private boolean trustedHeadersEnabled;
+    
+    @Value("${security.trusted-headers.secret:}")
+    private String trustedHeadersSecret;
+    
+    @Value("${security.trusted-headers.max-skew:30000}")
+    private long trustedHeadersMaxSkew;
+    
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${security.password.hashing-threads:0}")
+    private int hashingThreads;
+    
+    @Value("${security.password.queue-capacity:64}")
+    private int hashingQueueCapacity;
+    
+    @Value("${security.password.timeout:5000}")
+    private long hashingTimeout;
+    
+    @Value("${security.password.retry-after:2}")
+    private long hashingRetryAfter;
+    
+    // Static so the advisor can be created before this configuration's own dependencies
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresRoleAuthorization(ObjectProvider<PermissionRegistry> permissionRegistry) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+            AnnotationMatchingPointcut.forMethodAnnotation(RequiresRole.class),
+            new RoleMaskAuthorizationManager(permissionRegistry::getObject));
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, threads, hashingQueueCapacity,
+            hashingTimeout, hashingRetryAfter, meterRegistry);
     }
     
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService);
+        return new JwtAuthenticationFilter(verifiedTokenCache, tokenRevocationService, permissionVersionService);
     }
     
     @Bean
@@ -52,6 +110,14 @@ public class SecurityConfig {
             )
             .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
         
+        // Behind the gateway, signed identity headers replace per-hop JWT verification
+        if (trustedHeadersEnabled) {
+            http.addFilterBefore(
+                new TrustedHeaderAuthenticationFilter(trustedHeadersSecret, trustedHeadersMaxSkew, tokenRevocationService,
+                    permissionVersionService),
+                JwtAuthenticationFilter.class);
+        }
+        
         return http.build();
     }
     
@@ -0,0 +1,93 @@
+package com.dominos.user.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Streams JFR jdk.VirtualThreadPinned events and logs where a virtual thread blocked while
+// pinned to its carrier (synchronized blocks or native frames, typically inside drivers).
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    private final Duration threshold;
+    private final int maxFrames;
+    private final Counter pinnedCounter;
+    
+    private volatile RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinning.threshold:20ms}") Duration threshold,
+                                       @Value("${virtual-threads.pinning.max-frames:12}") int maxFrames,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.maxFrames = maxFrames;
+        this.pinnedCounter = Counter.builder("virtual.threads.pinned")
+            .description("Virtual threads that blocked while pinned to a carrier for longer than the threshold")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public void start() {
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            logger.info("Watching for virtual thread pinning longer than {}", threshold);
+        } catch (Exception e) {
+            logger.warn("JFR is unavailable, virtual thread pinning will not be reported", e);
+        }
+    }
+    
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        
+        StringBuilder frames = new StringBuilder();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            List<RecordedFrame> recorded = stackTrace.getFrames();
+            for (int i = 0; i < Math.min(maxFrames, recorded.size()); i++) {
+                RecordedFrame frame = recorded.get(i);
+                frames.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+            }
+        }
+        
+        logger.warn("Virtual thread pinned its carrier for {} ms on {}{}",
+            event.getDuration().toMillis(),
+            event.getThread() != null ? event.getThread().getJavaName() : "unknown thread",
+            frames);
+    }
+}
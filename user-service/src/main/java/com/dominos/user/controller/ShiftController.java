@@ -2,7 +2,10 @@ package com.dominos.user.controller;
 
 import com.dominos.shared.entity.Shift;
 import com.dominos.shared.enums.ShiftStatus;
+import com.dominos.shared.enums.UserType;
 import com.dominos.user.service.ShiftService;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.bulkhead.Bulkhead;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -22,6 +25,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/shifts")
+@Bulkhead("shifts")
 @Tag(name = "Shift Management", description = "Employee shift scheduling and management")
 @SecurityRequirement(name = "bearerAuth")
 public class ShiftController {
@@ -31,7 +35,7 @@ public class ShiftController {
     
     @PostMapping
     @Operation(summary = "Create new shift")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<Shift> createShift(@Valid @RequestBody Shift shift) {
         Shift savedShift = shiftService.createShift(shift);
         return ResponseEntity.ok(savedShift);
@@ -46,7 +50,7 @@ public class ShiftController {
     
     @PutMapping("/{shiftId}")
     @Operation(summary = "Update shift")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<Shift> updateShift(
             @PathVariable String shiftId,
             @Valid @RequestBody Shift shift) {
@@ -57,7 +61,7 @@ public class ShiftController {
     
     @DeleteMapping("/{shiftId}")
     @Operation(summary = "Cancel shift")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<Void> cancelShift(@PathVariable String shiftId) {
         shiftService.cancelShift(shiftId);
         return ResponseEntity.ok().build();
@@ -65,7 +69,7 @@ public class ShiftController {
     
     @GetMapping("/employee/{employeeId}")
     @Operation(summary = "Get employee shifts")
-    @PreAuthorize("#employeeId == authentication.name or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole(value = {UserType.MANAGER, UserType.ASSISTANT_MANAGER}, self = "employeeId")
     public ResponseEntity<List<Shift>> getEmployeeShifts(
             @PathVariable String employeeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -76,7 +80,7 @@ public class ShiftController {
     
     @GetMapping("/store/{storeId}")
     @Operation(summary = "Get store shifts")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<Shift>> getStoreShifts(
             @PathVariable String storeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
@@ -115,9 +119,10 @@ public class ShiftController {
         return ResponseEntity.ok(shift);
     }
     
+    @Bulkhead("reports")
     @GetMapping("/store/{storeId}/coverage")
     @Operation(summary = "Check shift coverage for store")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<Map<String, Object>> getShiftCoverage(
             @PathVariable String storeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
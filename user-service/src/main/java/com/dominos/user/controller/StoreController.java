@@ -2,8 +2,11 @@ package com.dominos.user.controller;
 
 import com.dominos.shared.entity.Store;
 import com.dominos.shared.enums.StoreStatus;
+import com.dominos.shared.enums.UserType;
 import com.dominos.user.service.StoreService;
 import com.dominos.user.service.AccessControlService;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.bulkhead.Bulkhead;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,7 +14,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -20,6 +22,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/stores")
+@Bulkhead("stores")
 @Tag(name = "Store Management", description = "Store operations and configuration")
 @SecurityRequirement(name = "bearerAuth")
 public class StoreController {
@@ -53,7 +56,7 @@ public class StoreController {
     
     @GetMapping("/region/{regionId}")
     @Operation(summary = "Get stores by region")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<List<Store>> getStoresByRegion(@PathVariable String regionId) {
         List<Store> stores = storeService.getStoresByRegion(regionId);
         return ResponseEntity.ok(stores);
@@ -70,7 +73,7 @@ public class StoreController {
     
     @PostMapping
     @Operation(summary = "Create new store")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Store> createStore(@Valid @RequestBody Store store) {
         Store savedStore = storeService.saveStore(store);
         return ResponseEntity.ok(savedStore);
@@ -78,7 +81,7 @@ public class StoreController {
     
     @PutMapping("/{storeId}")
     @Operation(summary = "Update store")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Store> updateStore(
             @PathVariable String storeId,
             @Valid @RequestBody Store store) {
@@ -94,9 +97,10 @@ public class StoreController {
         return ResponseEntity.ok(Map.of("isOperational", isOperational));
     }
     
+    @Bulkhead("reports")
     @GetMapping("/{storeId}/metrics")
     @Operation(summary = "Get store metrics")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<Map<String, Object>> getStoreMetrics(@PathVariable String storeId) {
         Map<String, Object> metrics = storeService.getStoreMetrics(storeId);
         return ResponseEntity.ok(metrics);
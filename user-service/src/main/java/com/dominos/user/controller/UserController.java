@@ -1,30 +1,57 @@
 package com.dominos.user.controller;
 
+import com.dominos.shared.entity.User;
 import com.dominos.shared.enums.UserType;
 import com.dominos.user.dto.*;
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.service.EmployeeImportService;
+import com.dominos.user.service.EmployeeNameIndex;
 import com.dominos.user.service.UserService;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.bulkhead.Bulkhead;
+import com.dominos.user.bulkhead.BulkheadRegistry;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
+@Bulkhead("users")
 @Tag(name = "User Management", description = "User registration, authentication, and management")
 public class UserController {
     
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
+    @Autowired
+    private EmployeeImportService employeeImportService;
+    
+    @Value("${security.login-throttle.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+    
+    @Bulkhead("auth")
     @PostMapping("/register")
     @Operation(summary = "Register new user")
     public ResponseEntity<UserResponse> register(@Valid @RequestBody UserCreateRequest request) {
@@ -32,21 +59,28 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
     
+    @Bulkhead("auth")
     @PostMapping("/login")
     @Operation(summary = "User login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = userService.authenticate(request);
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
+        LoginResponse response = userService.authenticate(request, resolveClientIp(httpRequest));
         return ResponseEntity.ok(response);
     }
     
+    @Bulkhead("auth")
     @PostMapping("/logout")
     @Operation(summary = "User logout")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<Map<String, String>> logout(@RequestHeader("X-User-Id") String userId) {
-        userService.logout(userId);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        JwtPrincipal principal = authentication != null && authentication.getDetails() instanceof JwtPrincipal jwtPrincipal
+            ? jwtPrincipal : null;
+        userService.logout(userId, principal);
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
     
+    @Bulkhead("auth")
     @PostMapping("/refresh")
     @Operation(summary = "Refresh access token")
     public ResponseEntity<Map<String, String>> refreshToken(@RequestBody Map<String, String> request) {
@@ -55,6 +89,16 @@ public class UserController {
         return ResponseEntity.ok(Map.of("accessToken", newAccessToken));
     }
     
+    @PostMapping(value = "/employees/import", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE })
+    @Operation(summary = "Bulk import employees from CSV or NDJSON")
+    @SecurityRequirement(name = "bearerAuth")
+    @RequiresRole(UserType.MANAGER)
+    public ResponseEntity<EmployeeImportReport> importEmployees(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        EmployeeImportReport report = employeeImportService.importEmployees(request.getInputStream(), csv);
+        return ResponseEntity.ok(report);
+    }
+    
     @GetMapping("/{userId}")
     @Operation(summary = "Get user by ID")
     @SecurityRequirement(name = "bearerAuth")
@@ -66,7 +110,7 @@ public class UserController {
     @PutMapping("/{userId}")
     @Operation(summary = "Update user")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("#userId == authentication.name or hasRole('MANAGER')")
+    @RequiresRole(value = UserType.MANAGER, self = "userId")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable("userId") String userId,
             @Valid @RequestBody UserCreateRequest request) {
@@ -77,30 +121,70 @@ public class UserController {
     @DeleteMapping("/{userId}")
     @Operation(summary = "Deactivate user")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Map<String, String>> deactivateUser(@PathVariable("userId") String userId) {
         userService.deactivateUser(userId);
         return ResponseEntity.ok(Map.of("message", "User deactivated successfully"));
     }
     
+    @PutMapping("/{userId}/activate")
+    @Operation(summary = "Reactivate user")
+    @SecurityRequirement(name = "bearerAuth")
+    @RequiresRole(UserType.MANAGER)
+    public ResponseEntity<UserResponse> reactivateUser(@PathVariable("userId") String userId) {
+        UserResponse response = userService.reactivateUser(userId);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/type/{type}")
     @Operation(summary = "Get users by type")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<UserResponse>> getUsersByType(@PathVariable("type") UserType type) {
         List<UserResponse> users = userService.getUsersByType(type);
         return ResponseEntity.ok(users);
     }
     
+    @GetMapping(value = "/type/{type}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream users by type as NDJSON")
+    @SecurityRequirement(name = "bearerAuth")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public ResponseEntity<StreamingResponseBody> streamUsersByType(
+            @PathVariable("type") UserType type,
+            @RequestParam(required = false) String resumeToken) {
+        return ndjson(userService.streamUsersByType(type, resumeToken));
+    }
+    
     @GetMapping("/store/{storeId}")
     @Operation(summary = "Get store employees")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<UserResponse>> getStoreEmployees(@PathVariable("storeId") String storeId) {
         List<UserResponse> employees = userService.getStoreEmployees(storeId);
         return ResponseEntity.ok(employees);
     }
     
+    @GetMapping(value = "/store/{storeId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream store employees as NDJSON")
+    @SecurityRequirement(name = "bearerAuth")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public ResponseEntity<StreamingResponseBody> streamStoreEmployees(
+            @PathVariable("storeId") String storeId,
+            @RequestParam(required = false) String resumeToken) {
+        return ndjson(userService.streamStoreEmployees(storeId, resumeToken));
+    }
+    
+    @GetMapping("/store/{storeId}/autocomplete")
+    @Operation(summary = "Autocomplete store employee names")
+    @SecurityRequirement(name = "bearerAuth")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public ResponseEntity<List<EmployeeSuggestion>> autocompleteEmployees(
+            @PathVariable("storeId") String storeId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(employeeNameIndex.suggest(storeId, query, limit));
+    }
+    
     @GetMapping("/managers")
     @Operation(summary = "Get active managers")
     @SecurityRequirement(name = "bearerAuth")
@@ -109,6 +193,14 @@ public class UserController {
         return ResponseEntity.ok(managers);
     }
     
+    @GetMapping(value = "/managers/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream active managers as NDJSON")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> streamActiveManagers(
+            @RequestParam(required = false) String resumeToken) {
+        return ndjson(userService.streamActiveManagers(resumeToken));
+    }
+    
     // FIXED: Parameter binding issue
     @GetMapping("/{userId}/can-take-orders")
     @Operation(summary = "Check if user can take orders")
@@ -163,26 +255,47 @@ public class UserController {
         return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
     }
     
+    @Bulkhead("reports")
     @GetMapping("/search")
     @Operation(summary = "Search users")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
-    public ResponseEntity<List<UserResponse>> searchUsers(
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public ResponseEntity<UserSearchPage> searchUsers(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String phone,
             @RequestParam(required = false) UserType type,
-            @RequestParam(required = false) String storeId) {
-        List<UserResponse> users = userService.searchUsers(name, email, phone, type, storeId);
-        return ResponseEntity.ok(users);
+            @RequestParam(required = false) String storeId,
+            @RequestParam(defaultValue = "50") int pageSize,
+            @RequestParam(required = false) String pageToken) {
+        UserSearchPage page = userService.searchUsers(name, email, phone, type, storeId, pageSize, pageToken);
+        return ResponseEntity.ok(page);
     }
     
+    @Bulkhead("reports")
     @GetMapping("/stats")
     @Operation(summary = "Get user statistics")
     @SecurityRequirement(name = "bearerAuth")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Map<String, Object>> getUserStats() {
         Map<String, Object> stats = userService.getUserStatistics();
         return ResponseEntity.ok(stats);
     }
+    
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(bulkheadRegistry.wrap("reports", body));
+    }
+    
+    // Behind the gateway every request shares its address. The gateway appends the peer it saw to
+    // X-Forwarded-For, so only the right-most hop is trusted; earlier entries are client-supplied.
+    private String resolveClientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (trustForwardedFor && forwardedFor != null && !forwardedFor.isBlank()) {
+            String lastHop = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            if (!lastHop.isEmpty()) {
+                return lastHop;
+            }
+        }
+        return request.getRemoteAddr();
+    }
 }
\ No newline at end of file
@@ -1,9 +1,19 @@
 package com.dominos.user.controller;
 
 import com.dominos.shared.model.Location; // ADD THIS LINE
+import com.dominos.shared.entity.LabourRollup;
+import com.dominos.shared.enums.RollupGranularity;
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.dto.PayrollExportResult;
 import com.dominos.user.dto.WorkingSessionResponse;
 import com.dominos.user.dto.WorkingHoursReport;
+import com.dominos.user.export.PayrollExportFormat;
+import com.dominos.user.service.PayrollExportService;
+import com.dominos.user.service.SessionStartOutbox;
 import com.dominos.user.service.WorkingSessionService;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.bulkhead.Bulkhead;
+import com.dominos.user.bulkhead.BulkheadRegistry;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,17 +21,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users/sessions")
+@Bulkhead("sessions")
 @Tag(name = "Working Sessions", description = "Employee working hours and session management")
 @SecurityRequirement(name = "bearerAuth")
 public class WorkingSessionController {
@@ -29,9 +45,18 @@ public class WorkingSessionController {
     @Autowired
     private WorkingSessionService sessionService;
     
+    @Autowired
+    private SessionStartOutbox sessionStartOutbox;
+    
+    @Autowired
+    private PayrollExportService payrollExportService;
+    
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+    
     @PostMapping("/start")
     @Operation(summary = "Start working session")
-    @PreAuthorize("hasRole('STAFF') or hasRole('DRIVER') or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<WorkingSessionResponse> startSession(
             @RequestHeader("X-User-Id") String employeeId,
             @RequestHeader("X-Store-Id") String storeId) {
@@ -41,7 +66,7 @@ public class WorkingSessionController {
     
     @PostMapping("/end")
     @Operation(summary = "End working session")
-    @PreAuthorize("hasRole('STAFF') or hasRole('DRIVER') or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<WorkingSessionResponse> endSession(@RequestHeader("X-User-Id") String employeeId) {
         var session = sessionService.endSession(employeeId);
         return ResponseEntity.ok(mapToResponse(session));
@@ -49,7 +74,7 @@ public class WorkingSessionController {
     
     @PostMapping("/{employeeId}/break")
     @Operation(summary = "Add break time to session")
-    @PreAuthorize("#employeeId == authentication.name or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole(value = {UserType.MANAGER, UserType.ASSISTANT_MANAGER}, self = "employeeId")
     public ResponseEntity<WorkingSessionResponse> addBreakTime(
             @PathVariable String employeeId,
             @RequestBody Map<String, Long> request) {
@@ -59,10 +84,10 @@ public class WorkingSessionController {
     }
     
     // Add these methods to existing WorkingSessionController
-
+    
     @PostMapping("/start-with-location")
     @Operation(summary = "Start working session with location")
-    @PreAuthorize("hasRole('STAFF') or hasRole('DRIVER') or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<WorkingSessionResponse> startSessionWithLocation(
             @RequestHeader("X-User-Id") String employeeId,
             @RequestHeader("X-Store-Id") String storeId,
@@ -79,10 +104,10 @@ public class WorkingSessionController {
         var session = sessionService.startSessionWithLocation(employeeId, storeId, clockInLocation);
         return ResponseEntity.ok(mapToResponse(session));
     }
-
+    
     @PostMapping("/end-with-location")
     @Operation(summary = "End working session with location")
-    @PreAuthorize("hasRole('STAFF') or hasRole('DRIVER') or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<WorkingSessionResponse> endSessionWithLocation(
             @RequestHeader("X-User-Id") String employeeId,
             @RequestBody Map<String, Object> locationData) {
@@ -98,29 +123,30 @@ public class WorkingSessionController {
         var session = sessionService.endSessionWithLocation(employeeId, clockOutLocation);
         return ResponseEntity.ok(mapToResponse(session));
     }
-
+    
+    @Bulkhead("reports")
     @GetMapping("/pending-approval")
     @Operation(summary = "Get sessions pending approval")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<WorkingSessionResponse>> getSessionsPendingApproval(
             @RequestParam(required = false) String storeId) {
         // Implementation will be added to service
         return ResponseEntity.ok(List.of());
     }
-
+    
     @PostMapping("/{sessionId}/approve")
     @Operation(summary = "Approve working session")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Map<String, String>> approveSession(
             @PathVariable String sessionId,
             @RequestHeader("X-User-Id") String managerId) {
         sessionService.approveSession(sessionId, managerId);
         return ResponseEntity.ok(Map.of("message", "Session approved successfully"));
     }
-
+    
     @PostMapping("/{sessionId}/reject")
     @Operation(summary = "Reject working session")
-    @PreAuthorize("hasRole('MANAGER')")
+    @RequiresRole(UserType.MANAGER)
     public ResponseEntity<Map<String, String>> rejectSession(
             @PathVariable String sessionId,
             @RequestHeader("X-User-Id") String managerId,
@@ -129,7 +155,7 @@ public class WorkingSessionController {
         sessionService.rejectSession(sessionId, managerId, reason);
         return ResponseEntity.ok(Map.of("message", "Session rejected"));
     }
-
+    
     @GetMapping("/current")
     @Operation(summary = "Get current working session")
     public ResponseEntity<WorkingSessionResponse> getCurrentSession(@RequestHeader("X-User-Id") String employeeId) {
@@ -139,7 +165,7 @@ public class WorkingSessionController {
     
     @GetMapping("/{employeeId}")
     @Operation(summary = "Get employee working sessions")
-    @PreAuthorize("#employeeId == authentication.name or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole(value = {UserType.MANAGER, UserType.ASSISTANT_MANAGER}, self = "employeeId")
     public ResponseEntity<List<WorkingSessionResponse>> getEmployeeSessions(
             @PathVariable String employeeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -148,9 +174,10 @@ public class WorkingSessionController {
         return ResponseEntity.ok(sessions);
     }
     
+    @Bulkhead("reports")
     @GetMapping("/store/{storeId}")
     @Operation(summary = "Get store working sessions")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<WorkingSessionResponse>> getStoreSessions(
             @PathVariable String storeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -159,9 +186,52 @@ public class WorkingSessionController {
         return ResponseEntity.ok(sessions);
     }
     
+    @Bulkhead("reports")
+    @GetMapping("/store/{storeId}/labour")
+    @Operation(summary = "Get store labour hours per day, ISO week or month")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public ResponseEntity<List<LabourRollup>> getStoreLabour(
+            @PathVariable String storeId,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(sessionService.getStoreLabour(storeId, granularity, startDate, endDate));
+    }
+    
+    // The body is written after this method returns, so it takes its own reports permit
+    @GetMapping("/payroll/export")
+    @Operation(summary = "Stream finished sessions of all stores for payroll",
+               description = "CSV or gzip columnar blocks in date, store and session order; resume with the last session id received")
+    @RequiresRole({UserType.MANAGER})
+    public ResponseEntity<StreamingResponseBody> streamPayrollExport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") PayrollExportFormat format,
+            @RequestParam(required = false) String afterSessionId) {
+        StreamingResponseBody body = payrollExportService.stream(startDate, endDate, format, afterSessionId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payroll-" + startDate + "_" + endDate + format.getExtension() + "\"")
+                .body(bulkheadRegistry.wrap("reports", body));
+    }
+    
+    @Bulkhead("reports")
+    @PostMapping("/payroll/export/file")
+    @Operation(summary = "Export finished sessions of all stores for payroll to a local file",
+               description = "Continues from the last checkpoint if a previous export of the same range was interrupted")
+    @RequiresRole({UserType.MANAGER})
+    public ResponseEntity<PayrollExportResult> exportPayrollToFile(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") PayrollExportFormat format) throws IOException {
+        return ResponseEntity.ok(payrollExportService.exportToFile(startDate, endDate, format));
+    }
+    
+    @Bulkhead("reports")
     @GetMapping("/{employeeId}/report")
     @Operation(summary = "Generate working hours report")
-    @PreAuthorize("#employeeId == authentication.name or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole(value = {UserType.MANAGER, UserType.ASSISTANT_MANAGER}, self = "employeeId")
     public ResponseEntity<WorkingHoursReport> getWorkingHoursReport(
             @PathVariable String employeeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -172,22 +242,46 @@ public class WorkingSessionController {
     
     @GetMapping("/store/{storeId}/active")
     @Operation(summary = "Get active sessions for store")
-    @PreAuthorize("hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
     public ResponseEntity<List<WorkingSessionResponse>> getActiveStoreSessions(@PathVariable String storeId) {
         List<WorkingSessionResponse> sessions = sessionService.getActiveSessionsForStore(storeId);
         return ResponseEntity.ok(sessions);
     }
     
+    @GetMapping(value = "/store/{storeId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream active sessions for store",
+               description = "Server-sent events: a SNAPSHOT of the active sessions, then STARTED, ENDED, BREAK, VIOLATION, APPROVED and REJECTED deltas")
+    @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+    public SseEmitter streamActiveStoreSessions(@PathVariable String storeId) {
+        return sessionService.subscribeToStoreBoard(storeId);
+    }
+    
     @GetMapping("/{employeeId}/status")
     @Operation(summary = "Check if employee is currently working")
     public ResponseEntity<Map<String, Object>> getEmployeeWorkingStatus(@PathVariable String employeeId) {
         boolean isWorking = sessionService.isEmployeeCurrentlyWorking(employeeId);
         Duration currentDuration = sessionService.getCurrentWorkingDuration(employeeId);
         
-        return ResponseEntity.ok(Map.of(
-            "isWorking", isWorking,
-            "currentWorkingDuration", currentDuration
-        ));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("isWorking", isWorking);
+        status.put("currentWorkingDuration", currentDuration);
+        
+        // Outcome of the asynchronous session start triggered by the last login
+        sessionStartOutbox.getLatestTask(employeeId).ifPresent(task -> {
+            Map<String, Object> sessionStart = new LinkedHashMap<>();
+            sessionStart.put("status", task.getStatus());
+            sessionStart.put("attempts", task.getAttempts());
+            sessionStart.put("requestedAt", task.getCreatedAt());
+            if (task.getSessionId() != null) {
+                sessionStart.put("sessionId", task.getSessionId());
+            }
+            if (task.getLastError() != null) {
+                sessionStart.put("error", task.getLastError());
+            }
+            status.put("sessionStart", sessionStart);
+        });
+        
+        return ResponseEntity.ok(status);
     }
     
     private WorkingSessionResponse mapToResponse(com.dominos.shared.entity.WorkingSession session) {
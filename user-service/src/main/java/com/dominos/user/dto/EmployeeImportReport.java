@@ -0,0 +1,79 @@
+package com.dominos.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeImportReport {
+    private int total;
+    private int created;
+    private int failed;
+    private long elapsedMillis;
+    private List<RowResult> rows = new ArrayList<>();
+    
+    public EmployeeImportReport() {}
+    
+    public void add(RowResult result) {
+        rows.add(result);
+        total++;
+        if (RowResult.CREATED.equals(result.getStatus())) {
+            created++;
+        } else {
+            failed++;
+        }
+    }
+    
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+    
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+    
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+    
+    public List<RowResult> getRows() { return rows; }
+    public void setRows(List<RowResult> rows) { this.rows = rows; }
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowResult {
+        public static final String CREATED = "CREATED";
+        public static final String FAILED = "FAILED";
+        
+        private int row;
+        private String status;
+        private String userId;
+        private String email;
+        private String error;
+        
+        public RowResult() {}
+        
+        public RowResult(int row, String status, String userId, String email, String error) {
+            this.row = row;
+            this.status = status;
+            this.userId = userId;
+            this.email = email;
+            this.error = error;
+        }
+        
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+        
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+        
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+        
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
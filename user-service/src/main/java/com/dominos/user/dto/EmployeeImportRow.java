@@ -0,0 +1,11 @@
+package com.dominos.user.dto;
+
+// An import row may carry an existing BCrypt hash (e.g. migrated from another system) instead of a password
+public class EmployeeImportRow extends UserCreateRequest {
+    private String passwordHash;
+    
+    public EmployeeImportRow() {}
+    
+    public String getPasswordHash() { return passwordHash; }
+    public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+}
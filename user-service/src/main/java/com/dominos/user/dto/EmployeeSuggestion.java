@@ -0,0 +1,31 @@
+package com.dominos.user.dto;
+
+import com.dominos.shared.enums.UserType;
+
+public class EmployeeSuggestion {
+    private String id;
+    private String name;
+    private UserType type;
+    private String role;
+    
+    public EmployeeSuggestion() {}
+    
+    public EmployeeSuggestion(String id, String name, UserType type, String role) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.role = role;
+    }
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public UserType getType() { return type; }
+    public void setType(UserType type) { this.type = type; }
+    
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+}
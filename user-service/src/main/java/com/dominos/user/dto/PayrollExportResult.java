@@ -0,0 +1,43 @@
+package com.dominos.user.dto;
+
+import com.dominos.user.export.PayrollExportFormat;
+
+import java.time.LocalDate;
+
+public class PayrollExportResult {
+    private PayrollExportFormat format;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String file;
+    private long rows;
+    private long resumedRows;
+    private long durationMillis;
+    private double rowsPerSecond;
+    
+    public PayrollExportResult() {}
+    
+    public PayrollExportFormat getFormat() { return format; }
+    public void setFormat(PayrollExportFormat format) { this.format = format; }
+    
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+    
+    // Total rows in the output, including those written before a resume
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+    
+    public long getResumedRows() { return resumedRows; }
+    public void setResumedRows(long resumedRows) { this.resumedRows = resumedRows; }
+    
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+}
@@ -0,0 +1,49 @@
+package com.dominos.user.dto;
+
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.shared.model.SessionViolation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One change on a store's live session board; clients upsert or drop the session by id
+public class SessionBoardEvent {
+    
+    public enum Type { STARTED, ENDED, BREAK, VIOLATION, APPROVED, REJECTED }
+    
+    private Type type;
+    private String storeId;
+    private WorkingSessionResponse session;
+    private WorkingSessionStatus status;
+    private List<SessionViolation> violations;
+    private LocalDateTime at = LocalDateTime.now();
+    
+    public SessionBoardEvent() {}
+    
+    public SessionBoardEvent(Type type, String storeId, WorkingSessionResponse session, WorkingSessionStatus status,
+                             List<SessionViolation> violations) {
+        this.type = type;
+        this.storeId = storeId;
+        this.session = session;
+        this.status = status;
+        this.violations = violations;
+    }
+    
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    
+    public String getStoreId() { return storeId; }
+    public void setStoreId(String storeId) { this.storeId = storeId; }
+    
+    public WorkingSessionResponse getSession() { return session; }
+    public void setSession(WorkingSessionResponse session) { this.session = session; }
+    
+    public WorkingSessionStatus getStatus() { return status; }
+    public void setStatus(WorkingSessionStatus status) { this.status = status; }
+    
+    public List<SessionViolation> getViolations() { return violations; }
+    public void setViolations(List<SessionViolation> violations) { this.violations = violations; }
+    
+    public LocalDateTime getAt() { return at; }
+    public void setAt(LocalDateTime at) { this.at = at; }
+}
@@ -0,0 +1,29 @@
+package com.dominos.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSearchPage {
+    private List<UserResponse> users;
+    private int pageSize;
+    private String nextPageToken;
+    
+    public UserSearchPage() {}
+    
+    public UserSearchPage(List<UserResponse> users, int pageSize, String nextPageToken) {
+        this.users = users;
+        this.pageSize = pageSize;
+        this.nextPageToken = nextPageToken;
+    }
+    
+    public List<UserResponse> getUsers() { return users; }
+    public void setUsers(List<UserResponse> users) { this.users = users; }
+    
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+    
+    public String getNextPageToken() { return nextPageToken; }
+    public void setNextPageToken(String nextPageToken) { this.nextPageToken = nextPageToken; }
+}
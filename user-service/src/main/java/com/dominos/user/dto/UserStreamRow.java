@@ -0,0 +1,20 @@
+package com.dominos.user.dto;
+
+// One NDJSON line of a streamed listing; resumeToken restarts the stream right after this user
+public class UserStreamRow {
+    private UserResponse user;
+    private String resumeToken;
+    
+    public UserStreamRow() {}
+    
+    public UserStreamRow(UserResponse user, String resumeToken) {
+        this.user = user;
+        this.resumeToken = resumeToken;
+    }
+    
+    public UserResponse getUser() { return user; }
+    public void setUser(UserResponse user) { this.user = user; }
+    
+    public String getResumeToken() { return resumeToken; }
+    public void setResumeToken(String resumeToken) { this.resumeToken = resumeToken; }
+}
@@ -0,0 +1,133 @@
+package com.dominos.user.export;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+// Rows are buffered into blocks of blockSize and each block is written column by column as its own gzip
+// member, so the output is a valid multi-member gzip file that can be cut and appended at block boundaries.
+// Block layout (big-endian, DataOutput): int MAGIC, int rows, UTF last sessionId, then the columns:
+//   sessionId        UTF per row
+//   employeeId, storeId, status, approvedBy
+//                    dictionary: int entries, UTF per entry, int index per row (-1 = null)
+//   date             int epoch day per row
+//   loginTime, logoutTime
+//                    long epoch second of the local time read as UTC (Long.MIN_VALUE = null)
+//   totalHours       double per row (NaN = null)
+//   breakMinutes     long per row
+//   requiresApproval byte per row
+//   violations       int per row
+public class ColumnarPayrollWriter implements PayrollRowWriter {
+    
+    static final int MAGIC = 0x44434231; // "DCB1"
+    
+    private final OutputStream out;
+    private final PayrollRow[] block;
+    private int size;
+    
+    public ColumnarPayrollWriter(OutputStream out, int blockSize) {
+        this.out = out;
+        this.block = new PayrollRow[blockSize];
+    }
+    
+    @Override
+    public boolean write(PayrollRow row) throws IOException {
+        block[size++] = row;
+        if (size == block.length) {
+            writeBlock();
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public void finish() throws IOException {
+        if (size > 0) {
+            writeBlock();
+        }
+        out.flush();
+    }
+    
+    private void writeBlock() throws IOException {
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new Unclosable(out), 64 * 1024), 64 * 1024))) {
+            data.writeInt(MAGIC);
+            data.writeInt(size);
+            data.writeUTF(block[size - 1].sessionId());
+            
+            for (int i = 0; i < size; i++) {
+                data.writeUTF(block[i].sessionId());
+            }
+            dictionary(data, PayrollRow::employeeId);
+            dictionary(data, PayrollRow::storeId);
+            dictionary(data, PayrollRow::status);
+            dictionary(data, PayrollRow::approvedBy);
+            for (int i = 0; i < size; i++) {
+                data.writeInt((int) block[i].date().toEpochDay());
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeLong(block[i].loginTime() != null ? block[i].loginTime().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeLong(block[i].logoutTime() != null ? block[i].logoutTime().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE);
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeDouble(block[i].totalHours() != null ? block[i].totalHours() : Double.NaN);
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeLong(block[i].breakMinutes());
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeByte(block[i].requiresApproval() ? 1 : 0);
+            }
+            for (int i = 0; i < size; i++) {
+                data.writeInt(block[i].violations());
+            }
+        }
+        out.flush();
+        Arrays.fill(block, 0, size, null);
+        size = 0;
+    }
+    
+    private void dictionary(DataOutputStream data, Function<PayrollRow, String> column) throws IOException {
+        Map<String, Integer> entries = new LinkedHashMap<>();
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            String value = column.apply(block[i]);
+            indexes[i] = value != null ? entries.computeIfAbsent(value, key -> entries.size()) : -1;
+        }
+        data.writeInt(entries.size());
+        for (String entry : entries.keySet()) {
+            data.writeUTF(entry);
+        }
+        for (int index : indexes) {
+            data.writeInt(index);
+        }
+    }
+    
+    // Closing a block's gzip stream (which releases its Deflater) must not close the export stream
+    private static class Unclosable extends FilterOutputStream {
+        
+        Unclosable(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
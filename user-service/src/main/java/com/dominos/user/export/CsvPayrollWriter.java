@@ -0,0 +1,76 @@
+package com.dominos.user.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// RFC 4180 CSV, flushed to the output stream every checkpointInterval rows
+public class CsvPayrollWriter implements PayrollRowWriter {
+    
+    static final String HEADER = "sessionId,employeeId,storeId,date,loginTime,logoutTime,totalHours,"
+        + "breakMinutes,status,requiresApproval,approvedBy,violations";
+    
+    private final Writer writer;
+    private final int checkpointInterval;
+    private boolean headerPending;
+    private long rows;
+    
+    public CsvPayrollWriter(OutputStream out, int checkpointInterval, boolean header) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        this.checkpointInterval = checkpointInterval;
+        this.headerPending = header;
+    }
+    
+    @Override
+    public boolean write(PayrollRow row) throws IOException {
+        writeHeader();
+        field(row.sessionId()).append(',');
+        field(row.employeeId()).append(',');
+        field(row.storeId()).append(',');
+        value(row.date()).append(',');
+        value(row.loginTime()).append(',');
+        value(row.logoutTime()).append(',');
+        value(row.totalHours()).append(',');
+        writer.append(Long.toString(row.breakMinutes())).append(',');
+        field(row.status()).append(',');
+        writer.append(Boolean.toString(row.requiresApproval())).append(',');
+        field(row.approvedBy()).append(',');
+        writer.append(Integer.toString(row.violations())).append("\r\n");
+        
+        if (++rows % checkpointInterval == 0) {
+            writer.flush();
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public void finish() throws IOException {
+        writeHeader();
+        writer.flush();
+    }
+    
+    private void writeHeader() throws IOException {
+        if (headerPending) {
+            writer.append(HEADER).append("\r\n");
+            headerPending = false;
+        }
+    }
+    
+    private Writer value(Object value) throws IOException {
+        return value != null ? writer.append(value.toString()) : writer;
+    }
+    
+    private Writer field(String value) throws IOException {
+        if (value == null) {
+            return writer;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return writer.append(value);
+        }
+        return writer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
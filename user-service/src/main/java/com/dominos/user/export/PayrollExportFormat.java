@@ -0,0 +1,28 @@
+package com.dominos.user.export;
+
+import java.io.OutputStream;
+
+public enum PayrollExportFormat {
+    CSV("text/csv", ".csv"),
+    // Gzip-compressed column blocks, see ColumnarPayrollWriter
+    COLUMNAR("application/gzip", ".dcol.gz");
+    
+    private final String contentType;
+    private final String extension;
+    
+    PayrollExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+    
+    public String getContentType() { return contentType; }
+    public String getExtension() { return extension; }
+    
+    // header is false when appending to a resumed export
+    public PayrollRowWriter writer(OutputStream out, int checkpointInterval, boolean header) {
+        return switch (this) {
+            case CSV -> new CsvPayrollWriter(out, checkpointInterval, header);
+            case COLUMNAR -> new ColumnarPayrollWriter(out, checkpointInterval);
+        };
+    }
+}
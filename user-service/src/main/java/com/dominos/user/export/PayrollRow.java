@@ -0,0 +1,11 @@
+package com.dominos.user.export;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One exported working session; times are the stored local wall-clock times
+public record PayrollRow(String sessionId, String employeeId, String storeId, LocalDate date,
+                         LocalDateTime loginTime, LocalDateTime logoutTime, Double totalHours,
+                         long breakMinutes, String status, boolean requiresApproval, String approvedBy,
+                         int violations) {
+}
@@ -0,0 +1,12 @@
+package com.dominos.user.export;
+
+import java.io.IOException;
+
+public interface PayrollRowWriter {
+    
+    // True when every row written so far has reached the output stream, i.e. a safe point to resume after
+    boolean write(PayrollRow row) throws IOException;
+    
+    // Writes what is still buffered; the output stream itself is left open
+    void finish() throws IOException;
+}
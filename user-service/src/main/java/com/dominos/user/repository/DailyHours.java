@@ -0,0 +1,33 @@
+package com.dominos.user.repository;
+
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDate;
+
+// One row of the working-hours aggregation: the hours and number of counted sessions on a date
+public class DailyHours {
+    
+    @Id
+    private LocalDate date;
+    
+    private double hours;
+    
+    private int sessions;
+    
+    public DailyHours() {}
+    
+    public DailyHours(LocalDate date, double hours, int sessions) {
+        this.date = date;
+        this.hours = hours;
+        this.sessions = sessions;
+    }
+    
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    
+    public double getHours() { return hours; }
+    public void setHours(double hours) { this.hours = hours; }
+    
+    public int getSessions() { return sessions; }
+    public void setSessions(int sessions) { this.sessions = sessions; }
+}
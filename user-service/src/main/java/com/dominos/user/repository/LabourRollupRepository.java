@@ -0,0 +1,20 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.entity.LabourRollup;
+import com.dominos.shared.enums.RollupGranularity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LabourRollupRepository extends MongoRepository<LabourRollup, String> {
+    
+    // Inclusive on both ends; periods whose sessions were all rejected again are left out
+    @Query(value = "{'scope': ?0, 'ownerId': ?1, 'granularity': ?2, 'periodStart': {$gte: ?3, $lte: ?4}, 'sessions': {$gt: 0}}",
+           sort = "{'periodStart': 1}")
+    List<LabourRollup> findPeriods(LabourRollup.Scope scope, String ownerId, RollupGranularity granularity,
+                                   LocalDate from, LocalDate to);
+}
@@ -0,0 +1,13 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.entity.SessionStartTask;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SessionStartTaskRepository extends MongoRepository<SessionStartTask, String> {
+    
+    Optional<SessionStartTask> findFirstByEmployeeIdOrderByCreatedAtDesc(String employeeId);
+}
@@ -4,6 +4,7 @@ import com.dominos.shared.entity.User;
 import com.dominos.shared.enums.UserType;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
     Optional<User> findByPersonalInfoEmail(String email);
     
@@ -37,9 +38,27 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Query("{'type': {$in: [?0, ?1]}, 'isActive': true}")
     List<User> findActiveManagersAndAssistants(UserType manager, UserType assistantManager);
     
+    // Projected read models for listings; see UserSummary for the field lists
+    @Query(value = "{'type': ?0}", fields = UserSummary.LIST_FIELDS)
+    List<UserSummary> findSummariesByType(UserType type);
+    
+    @Query(value = "{'employeeDetails.storeId': ?0}", fields = UserSummary.LIST_FIELDS)
+    List<UserSummary> findSummariesByStoreId(String storeId);
+    
+    @Query(value = "{'type': {$in: [?0, ?1]}, 'isActive': true}", fields = UserSummary.LIST_FIELDS)
+    List<UserSummary> findActiveManagerSummaries(UserType manager, UserType assistantManager);
+    
+    // Covered by the store roster index: answered from index keys without fetching documents
+    @Query(value = "{'employeeDetails.storeId': ?0, 'isActive': true, 'type': {$in: ?1}}", fields = UserSummary.ROSTER_FIELDS)
+    List<UserSummary> findActiveRosterByStoreId(String storeId, List<UserType> types);
+    
     @Query("{'lastLogin': {$gte: ?0}}")
     List<User> findUsersLoggedInAfter(LocalDateTime dateTime);
     
     @Query("{'type': {$ne: 'CUSTOMER'}, 'isActive': true}")
     List<User> findAllActiveEmployees();
+    
+    @Query("{'_id': ?0}")
+    @Update("{'$set': {'personalInfo.passwordHash': ?1}}")
+    void updatePasswordHash(String userId, String passwordHash);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+    
+    List<User> searchPage(String name, String email, String phone, UserType type, String storeId,
+                          String afterId, int limit);
+    
+    Stream<User> streamAfter(Criteria criteria, String afterId, int batchSize);
+}
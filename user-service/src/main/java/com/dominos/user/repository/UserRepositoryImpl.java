@@ -0,0 +1,93 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Keyset-paginated search evaluated entirely in Mongo: every filter is backed by an index,
+// results are ordered by _id and only the fields UserResponse needs are returned.
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<User> searchPage(String name, String email, String phone, UserType type, String storeId,
+                                 String afterId, int limit) {
+        Query query = hasText(name) ? TextQuery.queryText(nameCriteria(name)) : new Query();
+        
+        // Anchored prefixes can use the unique email/phone indexes; emails are also tried lowercased
+        if (hasText(email)) {
+            Set<String> prefixes = new LinkedHashSet<>(List.of(email.trim(), email.trim().toLowerCase(Locale.ROOT)));
+            List<Pattern> patterns = new ArrayList<>();
+            prefixes.forEach(prefix -> patterns.add(Pattern.compile("^" + Pattern.quote(prefix))));
+            query.addCriteria(Criteria.where("personalInfo.email").in(patterns));
+        }
+        if (hasText(phone)) {
+            query.addCriteria(Criteria.where("personalInfo.phone").regex("^" + Pattern.quote(phone.trim())));
+        }
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        if (hasText(storeId)) {
+            query.addCriteria(Criteria.where("employeeDetails.storeId").is(storeId));
+        }
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        
+        includeResponseFields(query);
+        query.with(Sort.by(Sort.Direction.ASC, "id")).limit(limit);
+        
+        return mongoTemplate.find(query, User.class);
+    }
+    
+    // Lazily iterates a cursor in _id order; the caller must close the stream
+    @Override
+    public Stream<User> streamAfter(Criteria criteria, String afterId, int batchSize) {
+        Query query = Query.query(criteria);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        
+        includeResponseFields(query);
+        query.with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(batchSize);
+        
+        return mongoTemplate.stream(query, User.class);
+    }
+    
+    private static void includeResponseFields(Query query) {
+        query.fields()
+            .include("type", "createdAt", "lastLogin", "isActive")
+            .include("personalInfo.name", "personalInfo.email", "personalInfo.phone", "personalInfo.address")
+            .include("employeeDetails.storeId", "employeeDetails.role", "employeeDetails.permissions");
+    }
+    
+    // Every word must match (quoted terms are AND-ed by $text)
+    private static TextCriteria nameCriteria(String name) {
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().caseSensitive(false);
+        for (String term : name.trim().split("\\s+")) {
+            criteria.matchingPhrase(term);
+        }
+        return criteria;
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,102 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.enums.UserType;
+import com.dominos.shared.model.Address;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Read model for user listings: only the fields a listing renders are fetched and decoded, never
+// the password hash, customer preferences or work schedule. Fields outside a query's list stay null.
+public class UserSummary {
+    
+    public static final List<UserType> EMPLOYEE_TYPES =
+        List.of(UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER);
+    private static final long EMPLOYEE_MASK = UserType.maskOf(EMPLOYEE_TYPES.toArray(UserType[]::new));
+    
+    // Everything UserResponse shows
+    public static final String LIST_FIELDS = "{'type': 1, 'createdAt': 1, 'lastLogin': 1, 'isActive': 1, "
+        + "'personalInfo.name': 1, 'personalInfo.email': 1, 'personalInfo.phone': 1, 'personalInfo.address': 1, "
+        + "'employeeDetails.storeId': 1, 'employeeDetails.role': 1, 'employeeDetails.permissions': 1}";
+    
+    // Covered by the store roster index together with _id
+    public static final String ROSTER_FIELDS = "{'type': 1, 'personalInfo.name': 1, 'employeeDetails.role': 1}";
+    
+    @Id
+    private String id;
+    
+    private UserType type;
+    
+    private Contact personalInfo;
+    
+    private Assignment employeeDetails;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime lastLogin;
+    
+    @Field("isActive")
+    private boolean active;
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public UserType getType() { return type; }
+    public void setType(UserType type) { this.type = type; }
+    
+    public Contact getPersonalInfo() { return personalInfo; }
+    public void setPersonalInfo(Contact personalInfo) { this.personalInfo = personalInfo; }
+    
+    public Assignment getEmployeeDetails() { return employeeDetails; }
+    public void setEmployeeDetails(Assignment employeeDetails) { this.employeeDetails = employeeDetails; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getLastLogin() { return lastLogin; }
+    public void setLastLogin(LocalDateTime lastLogin) { this.lastLogin = lastLogin; }
+    
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+    
+    public boolean isEmployee() {
+        return type != null && (EMPLOYEE_MASK & type.mask()) != 0;
+    }
+    
+    public static class Contact {
+        private String name;
+        private String email;
+        private String phone;
+        private Address address;
+        
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+        
+        public String getPhone() { return phone; }
+        public void setPhone(String phone) { this.phone = phone; }
+        
+        public Address getAddress() { return address; }
+        public void setAddress(Address address) { this.address = address; }
+    }
+    
+    public static class Assignment {
+        private String storeId;
+        private String role;
+        private List<String> permissions;
+        
+        public String getStoreId() { return storeId; }
+        public void setStoreId(String storeId) { this.storeId = storeId; }
+        
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+        
+        public List<String> getPermissions() { return permissions; }
+        public void setPermissions(List<String> permissions) { this.permissions = permissions; }
+    }
+}
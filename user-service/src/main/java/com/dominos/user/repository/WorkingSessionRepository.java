@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WorkingSessionRepository extends MongoRepository<WorkingSession, String> {
+public interface WorkingSessionRepository extends MongoRepository<WorkingSession, String>, WorkingSessionRepositoryCustom {
     
     Optional<WorkingSession> findByEmployeeIdAndIsActive(String employeeId, boolean isActive);
     
@@ -31,6 +31,9 @@ public interface WorkingSessionRepository extends MongoRepository<WorkingSession
     @Query("{'storeId': ?0, 'isActive': true}")
     List<WorkingSession> findActiveSessionsByStoreId(String storeId);
     
+    @Query("{'isActive': true}")
+    List<WorkingSession> findAllActiveSessions();
+    
     @Query("{'date': {$gte: ?0, $lte: ?1}, 'totalHours': {$ne: null}}")
     List<WorkingSession> findSessionsInDateRange(LocalDate startDate, LocalDate endDate);
     
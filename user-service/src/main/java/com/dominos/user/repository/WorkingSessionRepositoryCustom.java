@@ -0,0 +1,9 @@
+package com.dominos.user.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface WorkingSessionRepositoryCustom {
+    
+    List<DailyHours> sumHoursByDay(String employeeId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,35 @@
+package com.dominos.user.repository;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.WorkingSessionStatus;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Report aggregations evaluated in Mongo: the {employeeId, date} index drives the $match and only
+// one small row per day comes back, never the session documents with their violations and locations.
+public class WorkingSessionRepositoryImpl implements WorkingSessionRepositoryCustom {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    // Same bounds as findByEmployeeIdAndDateBetween (exclusive on both ends), so reports do not change
+    @Override
+    public List<DailyHours> sumHoursByDay(String employeeId, LocalDate startDate, LocalDate endDate) {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("employeeId").is(employeeId)
+                .and("date").gt(startDate).lt(endDate)
+                .and("totalHours").ne(null)
+                .and("status").ne(WorkingSessionStatus.REJECTED)),
+            Aggregation.group("date").sum("totalHours").as("hours").count().as("sessions"),
+            Aggregation.sort(Sort.Direction.ASC, "_id")
+        );
+        return mongoTemplate.aggregate(aggregation, WorkingSession.class, DailyHours.class).getMappedResults();
+    }
+}
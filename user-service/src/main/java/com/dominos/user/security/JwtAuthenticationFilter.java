@@ -1,6 +1,5 @@
 package com.dominos.user.security;
 
-import com.dominos.user.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,10 +14,15 @@ import java.util.List;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final PermissionVersionService permissionVersionService;
     
-    public JwtAuthenticationFilter(JwtService jwtService) {
-        this.jwtService = jwtService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenRevocationService tokenRevocationService,
+                                   PermissionVersionService permissionVersionService) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.permissionVersionService = permissionVersionService;
     }
     
     @Override
@@ -34,26 +38,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String token = authHeader.substring(7);
-            String userId = jwtService.extractUserId(token);
-            String userType = jwtService.extractUserType(token);
-            String storeId = jwtService.extractStoreId(token);
             
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtService.validateToken(token, userId)) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtPrincipal principal = verifiedTokenCache.verify(token);
+                
+                // Tokens with outdated permissions must be re-issued through /refresh
+                if (principal != null && principal.getUserId() != null
+                        && !tokenRevocationService.isRevoked(principal)
+                        && (principal.getPermissions() == null
+                            || !permissionVersionService.isStale(principal.getUserId(), principal.getPermissions()))) {
+                    String userId = principal.getUserId();
                     List<SimpleGrantedAuthority> authorities = List.of(
-                        new SimpleGrantedAuthority("ROLE_" + userType)
+                        new SimpleGrantedAuthority("ROLE_" + principal.getUserType())
                     );
                     
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                    authentication.setDetails(principal);
                     
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                     
                     // Add user info to request headers for downstream services
                     request.setAttribute("X-User-Id", userId);
-                    request.setAttribute("X-User-Type", userType);
-                    if (storeId != null) {
-                        request.setAttribute("X-Store-Id", storeId);
+                    request.setAttribute("X-User-Type", principal.getUserType());
+                    if (principal.getStoreId() != null) {
+                        request.setAttribute("X-Store-Id", principal.getStoreId());
                     }
                 }
             }
@@ -0,0 +1,59 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+
+import java.time.Instant;
+
+public final class JwtPrincipal {
+    
+    private final String userId;
+    private final String userType;
+    private final String storeId;
+    private final String tokenId;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final PermissionClaims permissions;
+    private final long roleMask;
+    
+    public JwtPrincipal(String userId, String userType, String storeId,
+                        String tokenId, Instant issuedAt, Instant expiresAt) {
+        this(userId, userType, storeId, tokenId, issuedAt, expiresAt, null);
+    }
+    
+    public JwtPrincipal(String userId, String userType, String storeId, String tokenId,
+                        Instant issuedAt, Instant expiresAt, PermissionClaims permissions) {
+        this.userId = userId;
+        this.userType = userType;
+        this.storeId = storeId;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.permissions = permissions;
+        this.roleMask = roleMaskOf(userType);
+    }
+    
+    // Resolved once per verified token so authorization checks are a single AND
+    private static long roleMaskOf(String userType) {
+        if (userType == null) {
+            return 0L;
+        }
+        try {
+            return UserType.valueOf(userType).mask();
+        } catch (IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+    
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+    
+    public String getUserId() { return userId; }
+    public String getUserType() { return userType; }
+    public String getStoreId() { return storeId; }
+    public String getTokenId() { return tokenId; }
+    public Instant getIssuedAt() { return issuedAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public PermissionClaims getPermissions() { return permissions; }
+    public long getRoleMask() { return roleMask; }
+}
@@ -0,0 +1,193 @@
+package com.dominos.user.security;
+
+import com.dominos.user.exception.TooManyRequestsException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Sheds login attempts per email and per client IP before any BCrypt work is done
+@Component
+public class LoginThrottle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+    
+    private static final String REDIS_KEY_PREFIX = "login-throttle:";
+    
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    private final int maxAttemptsPerEmail;
+    private final int maxAttemptsPerIp;
+    private final long windowMillis;
+    private final int buckets;
+    private final long bucketMillis;
+    private final boolean redisSyncEnabled;
+    
+    private final Cache<String, SlidingWindowCounter> counters;
+    private final Counter emailThrottled;
+    private final Counter ipThrottled;
+    private final Counter shedHashingSeconds;
+    
+    public LoginThrottle(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                         @Value("${security.login-throttle.max-attempts-per-email:5}") int maxAttemptsPerEmail,
+                         @Value("${security.login-throttle.max-attempts-per-ip:50}") int maxAttemptsPerIp,
+                         @Value("${security.login-throttle.window:60000}") long windowMillis,
+                         @Value("${security.login-throttle.buckets:6}") int buckets,
+                         @Value("${security.login-throttle.maximum-keys:100000}") long maximumKeys,
+                         @Value("${security.login-throttle.redis-sync:false}") boolean redisSyncEnabled) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttemptsPerEmail = maxAttemptsPerEmail;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowMillis = windowMillis;
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+        this.redisSyncEnabled = redisSyncEnabled;
+        
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMillis))
+                .build();
+        this.emailThrottled = Counter.builder("auth.login.throttled").tag("dimension", "email").register(meterRegistry);
+        this.ipThrottled = Counter.builder("auth.login.throttled").tag("dimension", "ip").register(meterRegistry);
+        this.shedHashingSeconds = Counter.builder("auth.login.hashing.shed")
+                .description("Estimated BCrypt CPU seconds avoided by throttling")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    public void checkAndRecord(String email, String clientIp) {
+        long now = System.currentTimeMillis();
+        
+        if (email != null) {
+            SlidingWindowCounter counter = counters.get(emailKey(email), key -> new SlidingWindowCounter());
+            if (counter.incrementAndCount(now) > maxAttemptsPerEmail) {
+                reject(emailThrottled);
+            }
+        }
+        
+        if (clientIp != null) {
+            SlidingWindowCounter counter = counters.get("ip:" + clientIp, key -> new SlidingWindowCounter());
+            if (counter.incrementAndCount(now) > maxAttemptsPerIp) {
+                reject(ipThrottled);
+            }
+        }
+    }
+    
+    // A successful login clears the per-email budget; the per-IP budget keeps counting
+    public void recordSuccess(String email) {
+        if (email != null) {
+            counters.invalidate(emailKey(email));
+        }
+    }
+    
+    private void reject(Counter throttled) {
+        throttled.increment();
+        
+        Timer matchTimer = meterRegistry.find("password.hashing.latency").tag("operation", "matches").timer();
+        if (matchTimer != null && matchTimer.count() > 0) {
+            shedHashingSeconds.increment(matchTimer.mean(TimeUnit.SECONDS));
+        }
+        
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(bucketMillis));
+        throw new TooManyRequestsException("Too many login attempts, please retry later", retryAfterSeconds);
+    }
+    
+    private String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    // Pushes local increments to Redis and pulls back cluster-wide totals for active keys
+    @Scheduled(fixedDelayString = "${security.login-throttle.redis-sync-interval:1000}")
+    public void syncWithRedis() {
+        if (!redisSyncEnabled) {
+            return;
+        }
+        
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        try {
+            for (Map.Entry<String, SlidingWindowCounter> entry : counters.asMap().entrySet()) {
+                SlidingWindowCounter counter = entry.getValue();
+                long delta = counter.unsynced.getAndSet(0);
+                String prefix = REDIS_KEY_PREFIX + entry.getKey() + ":";
+                
+                if (delta > 0) {
+                    String bucketKey = prefix + bucket;
+                    redisTemplate.opsForValue().increment(bucketKey, delta);
+                    redisTemplate.expire(bucketKey, Duration.ofMillis(windowMillis + bucketMillis));
+                }
+                
+                List<String> keys = new ArrayList<>(buckets);
+                for (int i = 0; i < buckets; i++) {
+                    keys.add(prefix + (bucket - i));
+                }
+                
+                long total = 0;
+                List<String> values = redisTemplate.opsForValue().multiGet(keys);
+                if (values != null) {
+                    for (String value : values) {
+                        total += value != null ? Long.parseLong(value) : 0;
+                    }
+                }
+                counter.remoteTotal = total;
+            }
+        } catch (Exception e) {
+            logger.warn("Login throttle Redis sync failed, continuing with local counts", e);
+        }
+    }
+    
+    // Ring of time buckets; each slot packs (bucket number << 20 | count) so it can be updated with one CAS
+    private class SlidingWindowCounter {
+        
+        private static final int COUNT_BITS = 20;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        
+        private final AtomicLongArray slots = new AtomicLongArray(buckets);
+        private final AtomicLong unsynced = new AtomicLong();
+        private volatile long remoteTotal;
+        
+        long incrementAndCount(long now) {
+            long bucket = now / bucketMillis;
+            int slot = (int) (bucket % buckets);
+            
+            long current;
+            long updated;
+            do {
+                current = slots.get(slot);
+                long count = (current >>> COUNT_BITS) == bucket ? current & COUNT_MASK : 0;
+                updated = (bucket << COUNT_BITS) | Math.min(count + 1, COUNT_MASK);
+            } while (!slots.compareAndSet(slot, current, updated));
+            
+            long localTotal = 0;
+            for (int i = 0; i < buckets; i++) {
+                long value = slots.get(i);
+                if (bucket - (value >>> COUNT_BITS) < buckets) {
+                    localTotal += value & COUNT_MASK;
+                }
+            }
+            
+            if (!redisSyncEnabled) {
+                return localTotal;
+            }
+            return Math.max(localTotal, remoteTotal + unsynced.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+
+// Compact, versioned authorization snapshot carried in the "perm" token claim:
+//   1|<permissionVersion>|<role>|<storeId>|<permission bitmask in hex>
+public final class PermissionClaims {
+    
+    public static final String CLAIM_NAME = "perm";
+    
+    private static final String FORMAT_VERSION = "1";
+    
+    private final long version;
+    private final UserType role;
+    private final String storeId;
+    private final long mask;
+    
+    public PermissionClaims(long version, UserType role, String storeId, long mask) {
+        this.version = version;
+        this.role = role;
+        this.storeId = storeId;
+        this.mask = mask;
+    }
+    
+    public String encode() {
+        return FORMAT_VERSION + "|" + version + "|" + role.name() + "|"
+            + (storeId != null ? storeId : "") + "|" + Long.toHexString(mask);
+    }
+    
+    // Returns null for unknown formats so callers fall back to loading the user
+    public static PermissionClaims decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        String[] parts = value.split("\\|", -1);
+        if (parts.length != 5 || !FORMAT_VERSION.equals(parts[0])) {
+            return null;
+        }
+        
+        try {
+            return new PermissionClaims(
+                Long.parseLong(parts[1]),
+                UserType.valueOf(parts[2]),
+                parts[3].isEmpty() ? null : parts[3],
+                Long.parseUnsignedLong(parts[4], 16)
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    public boolean isAssignedTo(String storeId) {
+        return this.storeId != null && this.storeId.equals(storeId);
+    }
+    
+    public long getVersion() { return version; }
+    public UserType getRole() { return role; }
+    public String getStoreId() { return storeId; }
+    public long getMask() { return mask; }
+}
@@ -0,0 +1,77 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.entity.User;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Assigns each named employee permission a fixed bit. Order in configuration is the wire format:
+// append new names, never reorder or remove.
+@Component
+public class PermissionRegistry {
+    
+    private final List<String> names;
+    private final Map<String, Integer> bits = new HashMap<>();
+    
+    public PermissionRegistry(@Value("${security.permissions.names:TAKE_ORDERS,MANAGE_EMPLOYEES,APPROVE_SESSIONS,VIEW_REPORTS,MANAGE_STORE,MANAGE_SHIFTS,HANDLE_CASH,DELIVER_ORDERS}") List<String> names) {
+        if (names.size() > Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " permissions are supported, got " + names.size());
+        }
+        this.names = List.copyOf(names);
+        for (int i = 0; i < names.size(); i++) {
+            bits.put(normalize(names.get(i)), i);
+        }
+    }
+    
+    public long toMask(Collection<String> permissions) {
+        long mask = 0L;
+        if (permissions != null) {
+            for (String permission : permissions) {
+                Integer bit = bits.get(normalize(permission));
+                if (bit != null) {
+                    mask |= 1L << bit;
+                }
+            }
+        }
+        return mask;
+    }
+    
+    public List<String> fromMask(long mask) {
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                permissions.add(names.get(i));
+            }
+        }
+        return permissions;
+    }
+    
+    public long maskOf(String permission) {
+        Integer bit = bits.get(normalize(permission));
+        if (bit == null) {
+            throw new IllegalArgumentException("Unknown permission: " + permission);
+        }
+        return 1L << bit;
+    }
+    
+    public PermissionClaims claimsFor(User user) {
+        String storeId = null;
+        long mask = 0L;
+        if (user.isEmployee() && user.getEmployeeDetails() != null) {
+            storeId = user.getEmployeeDetails().getStoreId();
+            mask = toMask(user.getEmployeeDetails().getPermissions());
+        }
+        return new PermissionClaims(user.getPermissionVersion(), user.getType(), storeId, mask);
+    }
+    
+    private static String normalize(String permission) {
+        return permission.trim().toUpperCase(Locale.ROOT);
+    }
+}
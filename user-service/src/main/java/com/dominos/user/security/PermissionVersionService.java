@@ -0,0 +1,76 @@
+package com.dominos.user.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tracks the latest permission version of users whose permissions changed, replicated over Redis
+// so every instance can reject tokens minted with an older version without loading the user.
+@Service
+public class PermissionVersionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PermissionVersionService.class);
+    
+    private static final String KEY_PREFIX = "perm-version:";
+    private static final String CHANNEL = "permission-versions";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Value("${jwt.refresh-token-expiration:604800000}")
+    private long refreshTokenExpiration;
+    
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length == 2) {
+                versions.merge(parts[0], Long.parseLong(parts[1]), Math::max);
+            }
+        }, new ChannelTopic(CHANNEL));
+        
+        try {
+            ScanOptions scan = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+            try (Cursor<String> cursor = redisTemplate.scan(scan)) {
+                cursor.forEachRemaining(key -> {
+                    String version = redisTemplate.opsForValue().get(key);
+                    if (version != null) {
+                        versions.merge(key.substring(KEY_PREFIX.length()), Long.parseLong(version), Math::max);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load permission versions from Redis, starting empty", e);
+        }
+    }
+    
+    public boolean isStale(String userId, PermissionClaims claims) {
+        Long current = versions.get(userId);
+        return current != null && claims.getVersion() < current;
+    }
+    
+    public void publish(String userId, long version) {
+        versions.merge(userId, version, Math::max);
+        // Any token older than a refresh token's lifetime is expired anyway
+        redisTemplate.opsForValue().set(KEY_PREFIX + userId, Long.toString(version), Duration.ofMillis(refreshTokenExpiration));
+        redisTemplate.convertAndSend(CHANNEL, userId + "|" + version);
+    }
+}
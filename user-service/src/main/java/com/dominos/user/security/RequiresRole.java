@@ -0,0 +1,24 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Bitmask-evaluated replacement for role-only @PreAuthorize expressions.
+// Access is granted if the caller has any listed role, holds any listed permission in its token,
+// or is the user named by the "self" parameter (matched by parameter or @PathVariable name).
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresRole {
+    
+    UserType[] value() default {};
+    
+    String[] permissions() default {};
+    
+    String self() default "";
+}
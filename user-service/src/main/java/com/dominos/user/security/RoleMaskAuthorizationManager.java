@@ -0,0 +1,125 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Evaluates @RequiresRole with precomputed bit masks: each annotated method is compiled once into
+// a role mask, a permission mask and the index of its "self" argument.
+public class RoleMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+    
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final String ROLE_PREFIX = "ROLE_";
+    
+    private final Supplier<PermissionRegistry> permissionRegistry;
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<Method, CompiledRule> rules = new ConcurrentHashMap<>();
+    
+    public RoleMaskAuthorizationManager(Supplier<PermissionRegistry> permissionRegistry) {
+        this.permissionRegistry = permissionRegistry;
+    }
+    
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        CompiledRule rule = rules.computeIfAbsent(invocation.getMethod(), method -> compile(method, invocation.getThis()));
+        
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return DENIED;
+        }
+        
+        long roles;
+        long permissions = 0L;
+        if (auth.getDetails() instanceof JwtPrincipal principal) {
+            roles = principal.getRoleMask();
+            if (principal.getPermissions() != null) {
+                permissions = principal.getPermissions().getMask();
+            }
+        } else {
+            roles = roleMaskOf(auth);
+        }
+        
+        if ((rule.roleMask & roles) != 0 || (rule.permissionMask & permissions) != 0) {
+            return GRANTED;
+        }
+        
+        if (rule.selfIndex >= 0) {
+            Object argument = invocation.getArguments()[rule.selfIndex];
+            if (argument != null && argument.equals(auth.getName())) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+    
+    private CompiledRule compile(Method method, Object target) {
+        Method specific = target != null ? AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target)) : method;
+        RequiresRole annotation = AnnotatedElementUtils.findMergedAnnotation(specific, RequiresRole.class);
+        if (annotation == null) {
+            throw new IllegalStateException("No @RequiresRole on " + method);
+        }
+        
+        long permissionMask = 0L;
+        for (String permission : annotation.permissions()) {
+            permissionMask |= permissionRegistry.get().maskOf(permission);
+        }
+        
+        int selfIndex = -1;
+        if (!annotation.self().isEmpty()) {
+            selfIndex = indexOf(specific, annotation.self());
+            if (selfIndex < 0) {
+                throw new IllegalStateException("No parameter named '" + annotation.self() + "' on " + method);
+            }
+        }
+        
+        return new CompiledRule(UserType.maskOf(annotation.value()), permissionMask, selfIndex);
+    }
+    
+    private int indexOf(Method method, String name) {
+        Parameter[] parameters = method.getParameters();
+        String[] discovered = parameterNames.getParameterNames(method);
+        for (int i = 0; i < parameters.length; i++) {
+            PathVariable pathVariable = parameters[i].getAnnotation(PathVariable.class);
+            if (pathVariable != null && (name.equals(pathVariable.name()) || name.equals(pathVariable.value()))) {
+                return i;
+            }
+            if (discovered != null && name.equals(discovered[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static long roleMaskOf(Authentication auth) {
+        long mask = 0L;
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(ROLE_PREFIX)) {
+                try {
+                    mask |= UserType.valueOf(name.substring(ROLE_PREFIX.length())).mask();
+                } catch (IllegalArgumentException e) {
+                    // Not a user type role
+                }
+            }
+        }
+        return mask;
+    }
+    
+    private record CompiledRule(long roleMask, long permissionMask, int selfIndex) {}
+}
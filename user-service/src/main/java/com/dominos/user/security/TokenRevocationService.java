@@ -0,0 +1,184 @@
+package com.dominos.user.security;
+
+import com.dominos.user.util.BloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked token ids live in Redis (TTL = token expiry) and are replicated into a per-instance
+// Bloom filter backed by an exact map, so the per-request check never leaves the JVM.
+@Service
+public class TokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    
+    private static final String TOKEN_KEY_PREFIX = "revoked:token:";
+    private static final String USER_KEY_PREFIX = "revoked:user:";
+    private static final String CHANNEL = "token-revocations";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${jwt.refresh-token-expiration:604800000}")
+    private long refreshTokenExpiration;
+    
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private long expectedEntries;
+    
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+    
+    // tokenId -> expiry epoch millis
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    
+    // userId -> tokens issued at or before this epoch millis are revoked
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+    
+    private volatile BloomFilter revokedTokenFilter;
+    
+    @PostConstruct
+    void init() {
+        revokedTokenFilter = BloomFilter.create(expectedEntries, falsePositiveRate);
+        listenerContainer.addMessageListener(
+            (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(CHANNEL));
+        
+        Gauge.builder("jwt.revocation.entries", revokedTokens, Map::size).register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.false-positive-rate", this,
+            service -> service.revokedTokenFilter.expectedFalsePositiveRate()).register(meterRegistry);
+        
+        try {
+            loadFromRedis();
+        } catch (Exception e) {
+            logger.warn("Could not load token revocations from Redis, starting empty", e);
+        }
+    }
+    
+    public boolean isRevoked(JwtPrincipal principal) {
+        Long cutoff = userCutoffs.get(principal.getUserId());
+        // Compared in whole seconds because that is all the precision the iat claim carries
+        if (cutoff != null && principal.getIssuedAt().getEpochSecond() < cutoff / 1000) {
+            return true;
+        }
+        
+        String tokenId = principal.getTokenId();
+        if (tokenId == null || !revokedTokenFilter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokens.containsKey(tokenId);
+    }
+    
+    public void revokeToken(JwtPrincipal principal) {
+        if (principal.getTokenId() == null) {
+            return;
+        }
+        
+        long expiresAt = principal.getExpiresAt().toEpochMilli();
+        Duration ttl = Duration.ofMillis(expiresAt - System.currentTimeMillis());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        
+        addToken(principal.getTokenId(), expiresAt);
+        redisTemplate.opsForValue().set(TOKEN_KEY_PREFIX + principal.getTokenId(), Long.toString(expiresAt), ttl);
+        redisTemplate.convertAndSend(CHANNEL, "T|" + principal.getTokenId() + "|" + expiresAt);
+    }
+    
+    // Invalidates every access and refresh token issued to the user so far
+    public void revokeAllForUser(String userId) {
+        // Whole seconds, so a token issued later in this second (e.g. a login right after reactivation) stays valid
+        long cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+        
+        addUserCutoff(userId, cutoff);
+        redisTemplate.opsForValue().set(USER_KEY_PREFIX + userId, Long.toString(cutoff),
+            Duration.ofMillis(refreshTokenExpiration));
+        redisTemplate.convertAndSend(CHANNEL, "U|" + userId + "|" + cutoff);
+    }
+    
+    // Drops expired entries and rebuilds the Bloom filter so aged-out ids stop costing lookups
+    @Scheduled(fixedDelayString = "${jwt.revocation.sweep-interval:300000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        userCutoffs.values().removeIf(cutoff -> cutoff + refreshTokenExpiration <= now);
+        
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedEntries, revokedTokens.size() * 2L), falsePositiveRate);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        revokedTokenFilter = rebuilt;
+        // Second pass picks up ids revoked while the first pass was running
+        revokedTokens.keySet().forEach(rebuilt::put);
+    }
+    
+    private void apply(String message) {
+        String[] parts = message.split("\\|");
+        if (parts.length != 3) {
+            return;
+        }
+        
+        long value = Long.parseLong(parts[2]);
+        if ("T".equals(parts[0])) {
+            addToken(parts[1], value);
+        } else if ("U".equals(parts[0])) {
+            addUserCutoff(parts[1], value);
+        }
+    }
+    
+    private void addToken(String tokenId, long expiresAt) {
+        // Exact entry first so a concurrent Bloom hit always finds it
+        revokedTokens.put(tokenId, expiresAt);
+        revokedTokenFilter.put(tokenId);
+    }
+    
+    private void addUserCutoff(String userId, long cutoff) {
+        userCutoffs.merge(userId, cutoff, Math::max);
+    }
+    
+    private void loadFromRedis() {
+        ScanOptions tokenScan = ScanOptions.scanOptions().match(TOKEN_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(tokenScan)) {
+            cursor.forEachRemaining(key -> {
+                String expiresAt = redisTemplate.opsForValue().get(key);
+                if (expiresAt != null) {
+                    addToken(key.substring(TOKEN_KEY_PREFIX.length()), Long.parseLong(expiresAt));
+                }
+            });
+        }
+        
+        ScanOptions userScan = ScanOptions.scanOptions().match(USER_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(userScan)) {
+            cursor.forEachRemaining(key -> {
+                String cutoff = redisTemplate.opsForValue().get(key);
+                if (cutoff != null) {
+                    addUserCutoff(key.substring(USER_KEY_PREFIX.length()), Long.parseLong(cutoff));
+                }
+            });
+        }
+        
+        logger.info("Loaded {} revoked tokens and {} user revocations", revokedTokens.size(), userCutoffs.size());
+    }
+}
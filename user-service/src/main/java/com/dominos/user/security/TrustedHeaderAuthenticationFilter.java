@@ -0,0 +1,132 @@
+package com.dominos.user.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+// Authenticates requests from identity headers signed by the API gateway, skipping JWT parsing
+public class TrustedHeaderAuthenticationFilter extends OncePerRequestFilter {
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    private final SecretKeySpec key;
+    private final long maxSkewMillis;
+    private final TokenRevocationService tokenRevocationService;
+    private final PermissionVersionService permissionVersionService;
+    
+    public TrustedHeaderAuthenticationFilter(String secret, long maxSkewMillis, TokenRevocationService tokenRevocationService,
+                                             PermissionVersionService permissionVersionService) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxSkewMillis = maxSkewMillis;
+        this.tokenRevocationService = tokenRevocationService;
+        this.permissionVersionService = permissionVersionService;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        String signature = request.getHeader("X-Identity-Signature");
+        
+        if (signature == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        String userId = request.getHeader("X-User-Id");
+        String userType = request.getHeader("X-User-Type");
+        String storeId = request.getHeader("X-Store-Id");
+        String tokenId = request.getHeader("X-Token-Id");
+        String issuedAtHeader = request.getHeader("X-Token-Issued-At");
+        String permissionsHeader = request.getHeader("X-User-Permissions");
+        String timestampHeader = request.getHeader("X-Identity-Timestamp");
+        
+        if (userId == null || userType == null || issuedAtHeader == null || timestampHeader == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Incomplete identity headers");
+            return;
+        }
+        
+        long issuedAt;
+        long timestamp;
+        try {
+            issuedAt = Long.parseLong(issuedAtHeader);
+            timestamp = Long.parseLong(timestampHeader);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid identity timestamp");
+            return;
+        }
+        
+        if (Math.abs(System.currentTimeMillis() - timestamp) > maxSkewMillis) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Stale identity headers");
+            return;
+        }
+        
+        byte[] expected = sign(request.getMethod(), request.getRequestURI(), request.getQueryString(),
+            userId, userType, storeId, tokenId, issuedAt, permissionsHeader, timestamp);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            actual = new byte[0];
+        }
+        
+        if (!MessageDigest.isEqual(expected, actual)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid identity signature");
+            return;
+        }
+        
+        JwtPrincipal principal = new JwtPrincipal(userId, userType, storeId, tokenId,
+            Instant.ofEpochMilli(issuedAt), Instant.ofEpochMilli(timestamp + maxSkewMillis),
+            PermissionClaims.decode(permissionsHeader));
+        
+        if (tokenRevocationService.isRevoked(principal)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token has been revoked");
+            return;
+        }
+        
+        if (principal.getPermissions() != null && permissionVersionService.isStale(userId, principal.getPermissions())) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token permissions are outdated, refresh required");
+            return;
+        }
+        
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userId, null, List.of(new SimpleGrantedAuthority("ROLE_" + userType)));
+            authentication.setDetails(principal);
+            
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    // Must stay in sync with IdentityHeaderSigner in api-gateway
+    private byte[] sign(String method, String path, String query, String userId, String userType, String storeId,
+                        String tokenId, long issuedAt, String permissions, long timestamp) {
+        String payload = method + "\n" + path + "\n" + (query != null ? query : "") + "\n" + userId + "\n" + userType + "\n" + (storeId != null ? storeId : "") + "\n"
+            + (tokenId != null ? tokenId : "") + "\n" + issuedAt + "\n"
+            + (permissions != null ? permissions : "") + "\n" + timestamp;
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to verify identity headers", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.dominos.user.security;
+
+import com.dominos.user.service.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+@Component
+public class VerifiedTokenCache {
+    
+    private final JwtService jwtService;
+    private final Cache<String, JwtPrincipal> cache;
+    private final Timer verificationTimer;
+    
+    public VerifiedTokenCache(JwtService jwtService, MeterRegistry meterRegistry,
+                              @Value("${jwt.verified-cache.maximum-size:10000}") long maximumSize) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("Time spent verifying JWT signatures on cache misses")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtVerifiedTokens");
+    }
+    
+    // Returns the verified principal, or throws a JwtException for invalid/expired tokens
+    public JwtPrincipal verify(String token) {
+        String digest = digest(token);
+        JwtPrincipal principal = cache.get(digest, key -> verificationTimer.record(() -> jwtService.verifyToken(token)));
+        
+        if (principal.isExpired()) {
+            cache.invalidate(digest);
+            return null;
+        }
+        return principal;
+    }
+    
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+    
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    // Entries never outlive the token they were verified from
+    private static class TokenExpiry implements Expiry<String, JwtPrincipal> {
+        
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), principal.getExpiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
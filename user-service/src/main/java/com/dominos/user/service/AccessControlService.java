@@ -2,8 +2,12 @@ package com.dominos.user.service;
 
 import com.dominos.shared.entity.User;
 import com.dominos.shared.enums.UserType;
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.security.PermissionClaims;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -15,6 +19,18 @@ public class AccessControlService {
     private UserService userService;
     
     public OrderTakingPermission validateOrderTakingAccess(String userId, String storeId) {
+        // Tokens are revoked on deactivation, so verified claims imply an active account
+        PermissionClaims claims = claimsFor(userId);
+        if (claims != null) {
+            if (!canTakeOrders(claims.getRole())) {
+                return OrderTakingPermission.denied("Insufficient role permissions. Only managers and assistant managers can take orders.");
+            }
+            if (!claims.isAssignedTo(storeId)) {
+                return OrderTakingPermission.denied("Not assigned to this store");
+            }
+            return OrderTakingPermission.allowed("Access granted");
+        }
+        
         try {
             User user = userService.getUserById(userId);
             
@@ -44,6 +60,11 @@ public class AccessControlService {
     }
     
     public boolean canAccessStore(String userId, String storeId) {
+        PermissionClaims claims = claimsFor(userId);
+        if (claims != null) {
+            return claims.isAssignedTo(storeId);
+        }
+        
         try {
             User user = userService.getUserById(userId);
             
@@ -58,6 +79,11 @@ public class AccessControlService {
     }
     
     public boolean canManageEmployees(String userId) {
+        PermissionClaims claims = claimsFor(userId);
+        if (claims != null) {
+            return canTakeOrders(claims.getRole());
+        }
+        
         try {
             User user = userService.getUserById(userId);
             return user.getType() == UserType.MANAGER || user.getType() == UserType.ASSISTANT_MANAGER;
@@ -66,6 +92,20 @@ public class AccessControlService {
         }
     }
     
+    // Claims from the caller's own verified token; decisions about other users still load the user
+    private PermissionClaims claimsFor(String userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof JwtPrincipal principal
+                && principal.getUserId().equals(userId)) {
+            return principal.getPermissions();
+        }
+        return null;
+    }
+    
+    private static boolean canTakeOrders(UserType role) {
+        return role == UserType.MANAGER || role == UserType.ASSISTANT_MANAGER;
+    }
+    
     public static class OrderTakingPermission {
         private final boolean allowed;
         private final String reason;
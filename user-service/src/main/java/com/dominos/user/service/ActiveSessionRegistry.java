@@ -0,0 +1,215 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.user.repository.WorkingSessionRepository;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Active working sessions by employeeId, so status and store board reads never look them up in Mongo.
+// Clock-in/out and break writes still load the session from Mongo, since this view is eventually consistent.
+// Writes go through to a Redis hash shared by all instances and are announced as "instanceId|employeeId";
+// other instances re-read that field. The map is rebuilt from Mongo at startup and reconciled periodically
+// in case an announcement was lost.
+@Component
+public class ActiveSessionRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ActiveSessionRegistry.class);
+    
+    static final String HASH_KEY = "sessions:active";
+    static final String CHANNEL = "active-sessions";
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    // Snapshot of the persisted fields only, not the derived getters
+    private final ObjectMapper mapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    private final Map<String, WorkingSession> sessions = new ConcurrentHashMap<>();
+    
+    // employeeId -> when its entry last changed, so a reconcile never overwrites a newer change
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private WorkingSessionRepository sessionRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @PostConstruct
+    void init() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length == 2 && !instanceId.equals(parts[0])) {
+                refresh(parts[1]);
+            }
+        }, new ChannelTopic(CHANNEL));
+        Gauge.builder("sessions.active", sessions, Map::size).register(meterRegistry);
+        
+        try {
+            reconcile(true);
+        } catch (RuntimeException e) {
+            logger.warn("Could not load active sessions at startup, the first reconcile will retry", e);
+        }
+    }
+    
+    // Shared instance: callers must not modify it
+    public Optional<WorkingSession> find(String employeeId) {
+        return Optional.ofNullable(sessions.get(employeeId));
+    }
+    
+    public boolean isActive(String employeeId) {
+        return sessions.containsKey(employeeId);
+    }
+    
+    public List<WorkingSession> findByStoreId(String storeId) {
+        return sessions.values().stream()
+            .filter(session -> storeId.equals(session.getStoreId()))
+            .toList();
+    }
+    
+    // Called after the session was saved; an inactive session removes the employee's entry
+    public void update(WorkingSession session) {
+        String employeeId = session.getEmployeeId();
+        if (session.isActive()) {
+            apply(employeeId, copy(session));
+        } else {
+            WorkingSession current = sessions.get(employeeId);
+            // Closing an older session must not drop the one that replaced it
+            if (current != null && session.getId() != null && !session.getId().equals(current.getId())) {
+                return;
+            }
+            apply(employeeId, null);
+        }
+        
+        try {
+            if (session.isActive()) {
+                redisTemplate.opsForHash().put(HASH_KEY, employeeId, mapper.writeValueAsString(session));
+            } else {
+                redisTemplate.opsForHash().delete(HASH_KEY, employeeId);
+            }
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + employeeId);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Other instances catch up at the next reconcile
+            logger.warn("Failed to replicate active session of employee {}", employeeId, e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${sessions.registry.reconcile-interval:300000}",
+               initialDelayString = "${sessions.registry.reconcile-interval:300000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile(false);
+        } catch (RuntimeException e) {
+            logger.warn("Active session reconcile failed", e);
+        }
+    }
+    
+    // Mongo is the source of truth; entries changed while the query ran are left alone
+    void reconcile(boolean publishToRedis) {
+        long started = System.currentTimeMillis();
+        Map<String, WorkingSession> persisted = new HashMap<>();
+        for (WorkingSession session : sessionRepository.findAllActiveSessions()) {
+            persisted.merge(session.getEmployeeId(), session,
+                (a, b) -> a.getLoginTime().isAfter(b.getLoginTime()) ? a : b);
+        }
+        
+        int corrected = 0;
+        Set<String> employees = new HashSet<>(sessions.keySet());
+        employees.addAll(persisted.keySet());
+        for (String employeeId : employees) {
+            if (changedAt.getOrDefault(employeeId, 0L) >= started) {
+                continue;
+            }
+            WorkingSession current = sessions.get(employeeId);
+            WorkingSession stored = persisted.get(employeeId);
+            if (!sameSession(current, stored)) {
+                apply(employeeId, stored);
+                corrected++;
+            }
+        }
+        
+        if (publishToRedis && !persisted.isEmpty()) {
+            Map<String, String> fields = new HashMap<>();
+            persisted.forEach((employeeId, session) -> {
+                try {
+                    fields.put(employeeId, mapper.writeValueAsString(session));
+                } catch (JsonProcessingException e) {
+                    logger.warn("Could not serialize active session of employee {}", employeeId, e);
+                }
+            });
+            redisTemplate.opsForHash().putAll(HASH_KEY, fields);
+        }
+        logger.info("Reconciled {} active sessions from Mongo ({} corrected)", persisted.size(), corrected);
+    }
+    
+    private void refresh(String employeeId) {
+        try {
+            Object json = redisTemplate.opsForHash().get(HASH_KEY, employeeId);
+            apply(employeeId, json != null ? mapper.readValue(json.toString(), WorkingSession.class) : null);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Failed to refresh active session of employee {}", employeeId, e);
+        }
+    }
+    
+    private void apply(String employeeId, WorkingSession session) {
+        changedAt.put(employeeId, System.currentTimeMillis());
+        if (session != null) {
+            sessions.put(employeeId, session);
+        } else {
+            sessions.remove(employeeId);
+        }
+    }
+    
+    // Same session with the same mutable state (breaks are the only change while active)
+    private static boolean sameSession(WorkingSession a, WorkingSession b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getId() != null && a.getId().equals(b.getId())
+            && Objects.equals(a.getBreakDurationMinutes(), b.getBreakDurationMinutes());
+    }
+    
+    private WorkingSession copy(WorkingSession session) {
+        try {
+            return mapper.readValue(mapper.writeValueAsBytes(session), WorkingSession.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not copy working session " + session.getId(), e);
+        }
+    }
+}
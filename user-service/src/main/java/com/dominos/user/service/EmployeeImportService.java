@@ -0,0 +1,474 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.dto.EmployeeImportReport;
+import com.dominos.user.dto.EmployeeImportReport.RowResult;
+import com.dominos.user.dto.EmployeeImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+// Bulk employee onboarding from CSV or NDJSON. Rows are read in chunks; each chunk is checked against
+// the file so far and against Mongo with one $in query, hashed on a bounded pool and inserted with one
+// unordered bulk write, so a bad row only fails itself.
+@Service
+public class EmployeeImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportService.class);
+    
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int DUPLICATE_KEY = 11000;
+    private static final List<String> REQUIRED_COLUMNS = List.of("type", "name", "email", "phone");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+    
+    @Autowired
+    private RegistrationFilter registrationFilter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${users.import.hash-threads:0}")
+    private int hashThreads;
+    
+    @Value("${users.import.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${users.import.max-rows:50000}")
+    private int maxRows;
+    
+    private BCryptPasswordEncoder encoder;
+    private ExecutorService hashPool;
+    
+    @PostConstruct
+    void init() {
+        // Separate from the login hashing pool so a large import never sheds logins
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        encoder = new BCryptPasswordEncoder(bcryptStrength);
+        hashPool = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("import-hash-"));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdown();
+    }
+    
+    public EmployeeImportReport importEmployees(InputStream input, boolean csv) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowReader rows = csv ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        
+        EmployeeImportReport report = new EmployeeImportReport();
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenPhones = new HashSet<>();
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        int count = 0;
+        
+        for (PendingRow row = rows.next(); row != null; row = rows.next()) {
+            if (++count > maxRows) {
+                chunk.add(PendingRow.failed(row.line, "Row limit of " + maxRows + " reached, remaining rows were not imported"));
+                break;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, seenEmails, seenPhones, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, seenEmails, seenPhones, report);
+        }
+        
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        logger.info("Imported {} of {} employee rows in {} ms ({} rows/s)", report.getCreated(), report.getTotal(),
+            report.getElapsedMillis(), report.getElapsedMillis() > 0 ? report.getTotal() * 1000L / report.getElapsedMillis() : report.getTotal());
+        return report;
+    }
+    
+    private void processChunk(List<PendingRow> chunk, Set<String> seenEmails, Set<String> seenPhones,
+                              EmployeeImportReport report) {
+        List<PendingRow> candidates = new ArrayList<>();
+        for (PendingRow row : chunk) {
+            if (row.error == null) {
+                row.error = validate(row.request);
+            }
+            if (row.error != null) {
+                continue;
+            }
+            if (seenEmails.contains(row.request.getEmail())) {
+                row.error = "Duplicate email in import";
+            } else if (seenPhones.contains(row.request.getPhone())) {
+                row.error = "Duplicate phone in import";
+            } else {
+                seenEmails.add(row.request.getEmail());
+                seenPhones.add(row.request.getPhone());
+                candidates.add(row);
+            }
+        }
+        
+        rejectExisting(candidates);
+        List<PendingRow> inserting = candidates.stream().filter(row -> row.error == null).toList();
+        List<User> users = hashAndBuild(inserting);
+        insert(inserting, users);
+        
+        Map<UserType, Long> createdByType = new EnumMap<>(UserType.class);
+        Set<String> stores = new HashSet<>();
+        for (PendingRow row : chunk) {
+            if (row.error == null && row.userId != null) {
+                createdByType.merge(row.request.getType(), 1L, Long::sum);
+                stores.add(row.request.getStoreId());
+                report.add(new RowResult(row.line, RowResult.CREATED, row.userId, row.request.getEmail(), null));
+            } else {
+                String email = row.request != null ? row.request.getEmail() : null;
+                report.add(new RowResult(row.line, RowResult.FAILED, null, email,
+                    row.error != null ? row.error : "Not imported"));
+            }
+        }
+        createdByType.forEach(userStatisticsService::recordCreated);
+        // Reloading a store once is cheaper than patching its name index row by row
+        stores.forEach(employeeNameIndex::invalidate);
+    }
+    
+    // One indexed $in round trip per chunk instead of two exists queries per row, covering only the
+    // rows the registration filter cannot rule out
+    private void rejectExisting(List<PendingRow> candidates) {
+        List<PendingRow> rows = candidates.stream()
+            .filter(row -> registrationFilter.mightContainEmail(row.request.getEmail())
+                || registrationFilter.mightContainPhone(row.request.getPhone()))
+            .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> emails = rows.stream().map(row -> row.request.getEmail()).toList();
+        List<String> phones = rows.stream().map(row -> row.request.getPhone()).toList();
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("personalInfo.email").in(emails),
+            Criteria.where("personalInfo.phone").in(phones)));
+        query.fields().include("personalInfo.email", "personalInfo.phone");
+        
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingPhones = new HashSet<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            if (user.getPersonalInfo() != null) {
+                existingEmails.add(user.getPersonalInfo().getEmail());
+                existingPhones.add(user.getPersonalInfo().getPhone());
+            }
+        }
+        
+        for (PendingRow row : rows) {
+            if (existingEmails.contains(row.request.getEmail())) {
+                row.error = "Email already exists";
+            } else if (existingPhones.contains(row.request.getPhone())) {
+                row.error = "Phone number already exists";
+            }
+        }
+    }
+    
+    private List<User> hashAndBuild(List<PendingRow> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            String given = row.request.getPasswordHash();
+            hashes.add(given != null
+                ? CompletableFuture.completedFuture(given)
+                : hashPool.submit(() -> encoder.encode(row.request.getPassword())));
+        }
+        
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PendingRow row = rows.get(i);
+            try {
+                users.add(toUser(row.request, hashes.get(i).get()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing import passwords", e);
+            } catch (ExecutionException e) {
+                row.error = "Password hashing failed";
+                users.add(null);
+            }
+        }
+        return users;
+    }
+    
+    private void insert(List<PendingRow> rows, List<User> users) {
+        List<PendingRow> batchRows = new ArrayList<>();
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (users.get(i) != null) {
+                batchRows.add(rows.get(i));
+                batch.add(users.get(i));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            // Unordered: everything not listed here was inserted
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                batchRows.get(error.getIndex()).error = error.getCode() == DUPLICATE_KEY
+                    ? "Email or phone number already exists"
+                    : error.getMessage();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Bulk insert of {} imported employees failed", batch.size(), e);
+            batchRows.forEach(row -> row.error = "Insert failed: " + e.getMessage());
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                batchRows.get(i).userId = batch.get(i).getId();
+                registrationFilter.record(batch.get(i).getPersonalInfo().getEmail(), batch.get(i).getPersonalInfo().getPhone());
+            }
+        }
+    }
+    
+    private String validate(EmployeeImportRow request) {
+        boolean preHashed = request.getPasswordHash() != null;
+        if (preHashed && !BCRYPT_HASH.matcher(request.getPasswordHash()).matches()) {
+            return "passwordHash is not a BCrypt hash";
+        }
+        
+        List<String> violations = validator.validate(request).stream()
+            .filter(violation -> !(preHashed && "password".equals(violation.getPropertyPath().toString())))
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .toList();
+        if (!violations.isEmpty()) {
+            return String.join("; ", violations);
+        }
+        
+        if (request.getType() == UserType.CUSTOMER) {
+            return "Only employee types can be imported";
+        }
+        if (request.getStoreId() == null || request.getStoreId().trim().isEmpty()) {
+            return "Store ID is required for employees";
+        }
+        return null;
+    }
+    
+    private static User toUser(EmployeeImportRow request, String passwordHash) {
+        User user = new User();
+        // Assigned up front so the report can return ids straight from the bulk write
+        user.setId(new ObjectId().toHexString());
+        user.setType(request.getType());
+        
+        User.PersonalInfo personalInfo = new User.PersonalInfo();
+        personalInfo.setName(request.getName());
+        personalInfo.setEmail(request.getEmail());
+        personalInfo.setPhone(request.getPhone());
+        personalInfo.setPasswordHash(passwordHash);
+        personalInfo.setAddress(request.getAddress());
+        user.setPersonalInfo(personalInfo);
+        
+        User.EmployeeDetails employeeDetails = new User.EmployeeDetails();
+        employeeDetails.setStoreId(request.getStoreId());
+        employeeDetails.setRole(request.getRole());
+        employeeDetails.setPermissions(request.getPermissions());
+        employeeDetails.setSchedule(request.getSchedule());
+        user.setEmployeeDetails(employeeDetails);
+        return user;
+    }
+    
+    private static final class PendingRow {
+        private final int line;
+        private final EmployeeImportRow request;
+        private String error;
+        private String userId;
+        
+        private PendingRow(int line, EmployeeImportRow request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+        
+        static PendingRow failed(int line, String error) {
+            return new PendingRow(line, null, error);
+        }
+    }
+    
+    private interface RowReader {
+        PendingRow next() throws IOException;
+    }
+    
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private int line;
+        
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        public PendingRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new PendingRow(line, objectMapper.readValue(text, EmployeeImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return PendingRow.failed(line, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+    
+    // Header row names the columns (any order): type, name, email, phone, password or passwordHash,
+    // storeId, role and permissions (separated by ';'). Fields may be double-quoted.
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int line;
+        
+        CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            line = 1;
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import is empty");
+            }
+            List<String> names = split(header.replace("\uFEFF", ""));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required.toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+                }
+            }
+            if (!columns.containsKey("password") && !columns.containsKey("passwordhash")) {
+                throw new IllegalArgumentException("CSV header needs a 'password' or 'passwordHash' column");
+            }
+        }
+        
+        @Override
+        public PendingRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> fields = split(text);
+                EmployeeImportRow row = new EmployeeImportRow();
+                row.setName(field(fields, "name"));
+                row.setEmail(field(fields, "email"));
+                row.setPhone(field(fields, "phone"));
+                row.setPassword(field(fields, "password"));
+                row.setPasswordHash(field(fields, "passwordhash"));
+                row.setStoreId(field(fields, "storeid"));
+                row.setRole(field(fields, "role"));
+                String permissions = field(fields, "permissions");
+                if (permissions != null) {
+                    row.setPermissions(Arrays.stream(permissions.split(";")).map(String::trim).filter(p -> !p.isEmpty()).toList());
+                }
+                
+                String type = field(fields, "type");
+                try {
+                    row.setType(type != null ? UserType.valueOf(type.toUpperCase(Locale.ROOT)) : null);
+                } catch (IllegalArgumentException e) {
+                    return new PendingRow(line, row, "Unknown user type '" + type + "'");
+                }
+                return new PendingRow(line, row, null);
+            }
+            return null;
+        }
+        
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+        
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
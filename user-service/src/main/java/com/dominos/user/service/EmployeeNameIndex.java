@@ -0,0 +1,160 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.user.dto.EmployeeSuggestion;
+import com.dominos.user.repository.UserRepository;
+import com.dominos.user.repository.UserSummary;
+import com.dominos.user.util.PrefixIndex;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Per-store prefix index over active employee names for roster autocomplete.
+// Stores are loaded on first use and evicted by a weight budget in estimated bytes. Local writes
+// patch the loaded index in place; other instances drop their copy through Redis pub/sub.
+@Component
+public class EmployeeNameIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeNameIndex.class);
+    
+    private static final String CHANNEL = "employee-name-index";
+    
+    // id, name, role strings plus the suggestion object
+    private static final long BYTES_PER_EMPLOYEE = 256;
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${users.name-index.memory-budget:16777216}")
+    private long memoryBudgetBytes;
+    
+    @Value("${users.name-index.expire-after-write:900000}")
+    private long expireAfterWriteMillis;
+    
+    @Value("${users.name-index.max-results:20}")
+    private int maxResults;
+    
+    private Cache<String, PrefixIndex<EmployeeSuggestion>> stores;
+    
+    @PostConstruct
+    void init() {
+        stores = Caffeine.newBuilder()
+            .maximumWeight(memoryBudgetBytes)
+            .weigher((String storeId, PrefixIndex<EmployeeSuggestion> index) -> (int) Math.min(Integer.MAX_VALUE, index.estimatedBytes()))
+            .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, stores, "employeeNameIndex");
+        
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length == 2 && !instanceId.equals(parts[0])) {
+                stores.invalidate(parts[1]);
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+    
+    public List<EmployeeSuggestion> suggest(String storeId, String query, int limit) {
+        PrefixIndex<EmployeeSuggestion> index = stores.get(storeId, this::load);
+        return index.search(query, Math.max(1, Math.min(limit, maxResults)));
+    }
+    
+    public void upsert(User user) {
+        if (!user.isEmployee() || user.getEmployeeDetails() == null || user.getEmployeeDetails().getStoreId() == null) {
+            return;
+        }
+        
+        String storeId = user.getEmployeeDetails().getStoreId();
+        EmployeeSuggestion suggestion = toSuggestion(user);
+        stores.asMap().computeIfPresent(storeId, (id, index) -> {
+            List<EmployeeSuggestion> values = withoutUser(index, user.getId());
+            if (user.isActive()) {
+                values.add(suggestion);
+            }
+            return build(values);
+        });
+        publish(storeId);
+    }
+    
+    public void remove(String storeId, String userId) {
+        if (storeId == null) {
+            return;
+        }
+        stores.asMap().computeIfPresent(storeId, (id, index) -> build(withoutUser(index, userId)));
+        publish(storeId);
+    }
+    
+    // For bulk changes: the next lookup reloads the store once
+    public void invalidate(String storeId) {
+        if (storeId == null) {
+            return;
+        }
+        stores.invalidate(storeId);
+        publish(storeId);
+    }
+    
+    private PrefixIndex<EmployeeSuggestion> load(String storeId) {
+        List<EmployeeSuggestion> employees = userRepository.findActiveRosterByStoreId(storeId, UserSummary.EMPLOYEE_TYPES)
+            .stream()
+            .map(summary -> new EmployeeSuggestion(summary.getId(), summary.getPersonalInfo().getName(),
+                summary.getType(), summary.getEmployeeDetails() != null ? summary.getEmployeeDetails().getRole() : null))
+            .toList();
+        return build(employees);
+    }
+    
+    private static PrefixIndex<EmployeeSuggestion> build(List<EmployeeSuggestion> employees) {
+        return PrefixIndex.build(employees, EmployeeSuggestion::getName, BYTES_PER_EMPLOYEE);
+    }
+    
+    private static List<EmployeeSuggestion> withoutUser(PrefixIndex<EmployeeSuggestion> index, String userId) {
+        List<EmployeeSuggestion> values = new ArrayList<>(index.size() + 1);
+        for (EmployeeSuggestion value : index.values()) {
+            if (!value.getId().equals(userId)) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+    
+    private static EmployeeSuggestion toSuggestion(User user) {
+        return new EmployeeSuggestion(user.getId(), user.getPersonalInfo().getName(), user.getType(),
+            user.getEmployeeDetails() != null ? user.getEmployeeDetails().getRole() : null);
+    }
+    
+    private void publish(String storeId) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + storeId);
+        } catch (Exception e) {
+            // Other instances fall back to expire-after-write
+            logger.warn("Failed to publish name index invalidation for store {}", storeId, e);
+        }
+    }
+}
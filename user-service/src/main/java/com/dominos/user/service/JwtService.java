@@ -1,8 +1,12 @@
 package com.dominos.user.service;
 
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.security.PermissionClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -10,6 +14,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
@@ -24,12 +29,30 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiration:604800000}") // 7 days
     private Long refreshTokenExpiration;
     
+    private SecretKey signKey;
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    void init() {
+        signKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        jwtParser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+    }
+    
     public String generateAccessToken(String userId, String userType, String storeId) {
+        return generateAccessToken(userId, userType, storeId, null);
+    }
+    
+    public String generateAccessToken(String userId, String userType, String storeId, PermissionClaims permissions) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userType", userType);
         if (storeId != null) {
             claims.put("storeId", storeId);
         }
+        if (permissions != null) {
+            claims.put(PermissionClaims.CLAIM_NAME, permissions.encode());
+        }
         return createToken(claims, userId, accessTokenExpiration);
     }
     
@@ -41,12 +64,27 @@ public class JwtService {
         return Jwts.builder()
                 .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
     
+    // Verifies the signature and parses the claims exactly once
+    public JwtPrincipal verifyToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("userType", String.class),
+                claims.get("storeId", String.class),
+                claims.getId(),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(),
+                PermissionClaims.decode(claims.get(PermissionClaims.CLAIM_NAME, String.class))
+        );
+    }
+    
     public String extractUserId(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -69,9 +107,7 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -84,9 +120,4 @@ public class JwtService {
         final String extractedUserId = extractUserId(token);
         return extractedUserId.equals(userId) && !isTokenExpired(token);
     }
-    
-    private SecretKey getSignKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
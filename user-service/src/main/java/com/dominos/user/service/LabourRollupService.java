@@ -0,0 +1,231 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.LabourRollup;
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.RollupGranularity;
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.shared.model.RollupChange;
+import com.dominos.user.repository.LabourRollupRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Per-employee and per-store labour rollups at day, ISO-week and month granularity. A finalized session
+// contributes its totalHours and one session unless it is rejected; WorkingSession.rolledUpHours records
+// what it currently contributes, so re-finalizing (approve, reject, a second close) only applies the
+// difference. Without transactions each difference is applied in three steps that are all safe to repeat:
+// claim it on the session as pendingRollup (compare-and-set), $inc every rollup that does not list the
+// change id yet, then move the session to the new rolledUpHours. The sweep replays claims left behind.
+// Change ids stay on the rollups (capped to the most recent ones) so a late replay is still a no-op.
+@Service
+public class LabourRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LabourRollupService.class);
+    
+    private static final int CLAIM_ATTEMPTS = 3;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private LabourRollupRepository rollupRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Later sweeps only look this far back for sessions finalized without a rollup
+    @Value("${sessions.rollups.sweep-days:3}")
+    private int sweepDays;
+    
+    @Value("${sessions.rollups.batch-size:500}")
+    private int batchSize;
+    
+    // Far more than can be in flight for one rollup at a time; older ids are only needed by stale replays
+    @Value("${sessions.rollups.applied-change-history:1000}")
+    private int appliedChangeHistory;
+    
+    // Until this instance's first sweep has covered the whole history, reports fall back to raw sessions
+    private volatile boolean backfilled;
+    
+    private Counter applied;
+    
+    @PostConstruct
+    void init() {
+        applied = Counter.builder("sessions.rollups.applied")
+            .description("Session contributions applied to the labour rollups")
+            .register(meterRegistry);
+    }
+    
+    // Called after a session was saved with its final totalHours or status
+    public void record(WorkingSession session) {
+        if (session.getId() == null || session.isActive()) {
+            return;
+        }
+        
+        WorkingSession latest = session;
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS && latest != null; attempt++) {
+            RollupChange pending = latest.getPendingRollup();
+            if (pending != null) {
+                // An earlier change was claimed but not finished; it must land before the next one is claimed.
+                // The copy may be stale (e.g. from a sweep cursor), so only replay a claim the session still holds
+                if (isStillClaimed(session.getId(), pending)) {
+                    apply(latest, pending);
+                }
+            } else {
+                Double previous = latest.getRolledUpHours();
+                Double current = contribution(latest);
+                if (Objects.equals(previous, current)) {
+                    session.setRolledUpHours(current);
+                    return;
+                }
+                
+                RollupChange change = new RollupChange(UUID.randomUUID().toString(), previous, current);
+                Query unclaimed = Query.query(Criteria.where("id").is(session.getId())
+                    .and("rolledUpHours").is(previous)
+                    .and("pendingRollup").is(null));
+                if (mongoTemplate.updateFirst(unclaimed, new Update().set("pendingRollup", change),
+                        WorkingSession.class).getModifiedCount() > 0) {
+                    apply(latest, change);
+                    session.setRolledUpHours(current);
+                    return;
+                }
+            }
+            latest = mongoTemplate.findById(session.getId(), WorkingSession.class);
+        }
+        logger.debug("Rollup contribution of session {} is still changing, leaving it to the sweep", session.getId());
+    }
+    
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+    
+    public List<LabourRollup> findPeriods(LabourRollup.Scope scope, String ownerId, RollupGranularity granularity,
+                                          LocalDate from, LocalDate to) {
+        return rollupRepository.findPeriods(scope, ownerId, granularity, granularity.periodStart(from), to);
+    }
+    
+    // Backfills history on the first run, then re-checks recently finalized sessions; both also replay
+    // changes an instance claimed but did not finish (e.g. it failed between the session and the rollups)
+    @Scheduled(fixedDelayString = "${sessions.rollups.sweep-interval:900000}", initialDelayString = "${sessions.rollups.sweep-initial-delay:30000}")
+    public void sweep() {
+        long started = System.currentTimeMillis();
+        boolean full = !backfilled;
+        Criteria candidates = Criteria.where("isActive").is(false);
+        if (full) {
+            candidates.and("totalHours").ne(null)
+                .and("status").ne(WorkingSessionStatus.REJECTED)
+                .and("rolledUpHours").is(null);
+        } else {
+            candidates.and("date").gte(LocalDate.now().minusDays(sweepDays));
+        }
+        Criteria pending = new Criteria().orOperator(Criteria.where("pendingRollup").ne(null), candidates);
+        
+        AtomicInteger checked = new AtomicInteger();
+        try (Stream<WorkingSession> sessions = mongoTemplate.stream(Query.query(pending).cursorBatchSize(batchSize),
+                WorkingSession.class)) {
+            sessions.forEach(session -> {
+                record(session);
+                checked.incrementAndGet();
+            });
+            backfilled = true;
+            logger.info("Labour rollup {} sweep checked {} sessions in {} ms", full ? "backfill" : "recent",
+                checked.get(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.warn("Labour rollup sweep failed after {} sessions", checked.get(), e);
+        }
+    }
+    
+    private boolean isStillClaimed(String sessionId, RollupChange change) {
+        Query claimed = Query.query(Criteria.where("id").is(sessionId).and("pendingRollup.id").is(change.getId()));
+        return mongoTemplate.exists(claimed, WorkingSession.class);
+    }
+    
+    // Rejected and unfinished sessions contribute nothing
+    static Double contribution(WorkingSession session) {
+        if (session.getTotalHours() == null || session.getStatus() == WorkingSessionStatus.REJECTED) {
+            return null;
+        }
+        return session.getTotalHours();
+    }
+    
+    // Idempotent for a given change: a rollup that already lists the change id is not incremented again
+    private void apply(WorkingSession session, RollupChange change) {
+        Double from = change.getFromHours();
+        Double to = change.getToHours();
+        double hours = (to != null ? to : 0) - (from != null ? from : 0);
+        int sessions = (to != null ? 1 : 0) - (from != null ? 1 : 0);
+        
+        // Ordered so each rollup exists before its guarded increment
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, LabourRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Target> targets = targets(session);
+        for (Target target : targets) {
+            bulk.upsert(Query.query(Criteria.where("id").is(target.id())), target.identity());
+        }
+        for (Target target : targets) {
+            Query notApplied = Query.query(Criteria.where("id").is(target.id()).and("appliedChanges").ne(change.getId()));
+            bulk.updateOne(notApplied, new Update()
+                .inc("hours", hours)
+                .inc("sessions", sessions)
+                .set("lastModified", now)
+                .push("appliedChanges").slice(-appliedChangeHistory).each(change.getId()));
+        }
+        bulk.execute();
+        
+        Update done = (to != null ? new Update().set("rolledUpHours", to) : new Update().unset("rolledUpHours"))
+            .unset("pendingRollup");
+        Query claimed = Query.query(Criteria.where("id").is(session.getId()).and("pendingRollup.id").is(change.getId()));
+        if (mongoTemplate.updateFirst(claimed, done, WorkingSession.class).getModifiedCount() > 0) {
+            applied.increment();
+        }
+    }
+    
+    // Employee and store, each at every granularity
+    private static List<Target> targets(WorkingSession session) {
+        List<Target> targets = new ArrayList<>();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDate periodStart = granularity.periodStart(session.getDate());
+            targets.add(new Target(LabourRollup.Scope.EMPLOYEE, session.getEmployeeId(), granularity, periodStart));
+            targets.add(new Target(LabourRollup.Scope.STORE, session.getStoreId(), granularity, periodStart));
+        }
+        return targets;
+    }
+    
+    private record Target(LabourRollup.Scope scope, String ownerId, RollupGranularity granularity, LocalDate periodStart) {
+        
+        String id() {
+            return LabourRollup.key(scope, ownerId, granularity, periodStart);
+        }
+        
+        Update identity() {
+            return new Update()
+                .setOnInsert("scope", scope)
+                .setOnInsert("ownerId", ownerId)
+                .setOnInsert("granularity", granularity)
+                .setOnInsert("periodStart", periodStart)
+                .setOnInsert("hours", 0.0)
+                .setOnInsert("sessions", 0);
+        }
+    }
+}
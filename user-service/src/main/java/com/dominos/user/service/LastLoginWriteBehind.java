@@ -0,0 +1,117 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Buffers lastLogin timestamps and flushes them as one unordered bulk write.
+// Readers of lastLogin see values at most one flush interval old.
+@Component
+public class LastLoginWriteBehind implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginWriteBehind.class);
+    
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    
+    private final ConcurrentHashMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    
+    public void record(String userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, candidate) -> candidate.isAfter(current) ? candidate : current);
+    }
+    
+    @Scheduled(fixedDelayString = "${users.last-login.flush-interval:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        Map<String, LocalDateTime> batch = new HashMap<>();
+        for (String userId : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.put(userId, loginTime);
+            }
+        }
+        
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        batch.forEach((userId, loginTime) -> bulkOps.updateOne(
+            Query.query(Criteria.where("_id").is(userId)),
+            new Update().max("lastLogin", loginTime)
+        ));
+        
+        Map<String, LocalDateTime> previous = new HashMap<>();
+        try {
+            // Previous values move the login-day counters from the old day bucket to the new one
+            Query previousQuery = Query.query(Criteria.where("_id").in(batch.keySet()));
+            previousQuery.fields().include("lastLogin");
+            for (User user : mongoTemplate.find(previousQuery, User.class)) {
+                if (user.getLastLogin() != null) {
+                    previous.put(user.getId(), user.getLastLogin());
+                }
+            }
+            bulkOps.execute();
+        } catch (RuntimeException e) {
+            // Put the batch back so the next flush retries it
+            batch.forEach(this::record);
+            logger.warn("Failed to flush {} lastLogin updates, will retry", batch.size(), e);
+            return;
+        }
+        
+        userStatisticsService.recordLogins(previous, batch);
+        
+        Cache users = cacheManager.getCache("users");
+        if (users != null) {
+            batch.keySet().forEach(users::evict);
+        }
+        logger.debug("Flushed {} lastLogin updates", batch.size());
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        // Drain before the Mongo client is closed on shutdown; a failed flush requeues its batch
+        for (int attempt = 0; attempt < SHUTDOWN_FLUSH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            flush();
+        }
+        if (!pending.isEmpty()) {
+            logger.error("Lost {} lastLogin updates on shutdown after {} flush attempts",
+                pending.size(), SHUTDOWN_FLUSH_ATTEMPTS);
+        }
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,266 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.user.dto.PayrollExportResult;
+import com.dominos.user.export.PayrollExportFormat;
+import com.dominos.user.export.PayrollRow;
+import com.dominos.user.export.PayrollRowWriter;
+import com.dominos.user.repository.WorkingSessionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Payroll export of the finished sessions of every store in (date, storeId, _id) order. Sessions are read
+// off a Mongo cursor with only the exported fields and written row by row, so heap use does not depend
+// on the size of the month. Exports stream to the response (resumable after the last session received)
+// or to a local file with a checkpoint sidecar from which an interrupted export continues.
+@Service
+public class PayrollExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PayrollExportService.class);
+    
+    private static final String[] FIELDS = { "employeeId", "storeId", "date", "loginTime", "logoutTime",
+        "totalHours", "breakDurationMinutes", "status", "requiresApproval", "approvedBy" };
+    
+    // Files being written, so two requests for the same range do not interleave their rows
+    private final Set<Path> running = ConcurrentHashMap.newKeySet();
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private WorkingSessionRepository sessionRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${payroll.export.directory:${java.io.tmpdir}/payroll-exports}")
+    private String directory;
+    
+    @Value("${payroll.export.batch-size:1000}")
+    private int batchSize;
+    
+    // Rows per CSV flush and per columnar block; each one is a point an export can resume from
+    @Value("${payroll.export.checkpoint-interval:5000}")
+    private int checkpointInterval;
+    
+    // Key of the last exported row; the next export continues after it
+    record Position(LocalDate date, String storeId, String sessionId) {
+        
+        Criteria after() {
+            Object id = ObjectId.isValid(sessionId) ? new ObjectId(sessionId) : sessionId;
+            return new Criteria().orOperator(
+                Criteria.where("date").gt(date),
+                Criteria.where("date").is(date).and("storeId").gt(storeId),
+                Criteria.where("date").is(date).and("storeId").is(storeId).and("_id").gt(id));
+        }
+    }
+    
+    interface CheckpointListener {
+        void reached(Position position, long rows) throws IOException;
+    }
+    
+    public StreamingResponseBody stream(LocalDate startDate, LocalDate endDate, PayrollExportFormat format,
+                                        String afterSessionId) {
+        validateRange(startDate, endDate);
+        // Resolved before the response starts so an unknown session is still a 400
+        Position after = afterSessionId != null && !afterSessionId.isBlank() ? positionOf(afterSessionId) : null;
+        
+        return out -> {
+            long started = System.currentTimeMillis();
+            long rows = export(startDate, endDate, format, after, out, after == null, (position, count) -> {});
+            report(format, "response", rows, System.currentTimeMillis() - started);
+        };
+    }
+    
+    public PayrollExportResult exportToFile(LocalDate startDate, LocalDate endDate, PayrollExportFormat format)
+            throws IOException {
+        validateRange(startDate, endDate);
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("payroll-" + startDate + "_" + endDate + format.getExtension());
+        Path checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        if (!running.add(file)) {
+            throw new RuntimeException("A payroll export of this range and format is already running");
+        }
+        try {
+            return exportToFile(startDate, endDate, format, file, checkpointFile);
+        } finally {
+            running.remove(file);
+        }
+    }
+    
+    private PayrollExportResult exportToFile(LocalDate startDate, LocalDate endDate, PayrollExportFormat format,
+                                             Path file, Path checkpointFile) throws IOException {
+        Properties checkpoint = readCheckpoint(checkpointFile);
+        Position after = null;
+        long resumedRows = 0;
+        long started = System.currentTimeMillis();
+        long rows;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (checkpoint != null) {
+                // Anything after the checkpoint belongs to a row or block that was not finished
+                long bytes = Long.parseLong(checkpoint.getProperty("bytes"));
+                channel.truncate(bytes).position(bytes);
+                after = new Position(LocalDate.parse(checkpoint.getProperty("date")),
+                    checkpoint.getProperty("storeId"), checkpoint.getProperty("sessionId"));
+                resumedRows = Long.parseLong(checkpoint.getProperty("rows"));
+                logger.info("Resuming payroll export {} after {} rows", file, resumedRows);
+            } else {
+                channel.truncate(0);
+            }
+            
+            long previous = resumedRows;
+            OutputStream out = Channels.newOutputStream(channel);
+            rows = export(startDate, endDate, format, after, out, checkpoint == null, (position, count) -> {
+                channel.force(false);
+                writeCheckpoint(checkpointFile, position, previous + count, channel.position());
+            });
+            channel.force(false);
+        }
+        Files.deleteIfExists(checkpointFile);
+        
+        long duration = System.currentTimeMillis() - started;
+        PayrollExportResult result = new PayrollExportResult();
+        result.setFormat(format);
+        result.setStartDate(startDate);
+        result.setEndDate(endDate);
+        result.setFile(file.toString());
+        result.setRows(resumedRows + rows);
+        result.setResumedRows(resumedRows);
+        result.setDurationMillis(duration);
+        result.setRowsPerSecond(report(format, "file", rows, duration));
+        return result;
+    }
+    
+    long export(LocalDate startDate, LocalDate endDate, PayrollExportFormat format, Position after,
+                OutputStream out, boolean header, CheckpointListener listener) throws IOException {
+        Criteria range = Criteria.where("date").gte(startDate).lte(endDate).and("isActive").is(false);
+        Query query = new Query(after != null ? new Criteria().andOperator(range, after.after()) : range)
+            .with(Sort.by(Sort.Direction.ASC, "date", "storeId", "_id"))
+            .cursorBatchSize(batchSize);
+        query.fields().include(FIELDS)
+            .project(MongoExpression.create("{ $size: { $ifNull: ['$violations', []] } }")).as("violationCount");
+        
+        PayrollRowWriter writer = format.writer(out, checkpointInterval, header);
+        long rows = 0;
+        try (Stream<Document> sessions = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(WorkingSession.class))) {
+            for (Document session : (Iterable<Document>) sessions::iterator) {
+                PayrollRow row = toRow(session);
+                rows++;
+                if (writer.write(row)) {
+                    listener.reached(new Position(row.date(), row.storeId(), row.sessionId()), rows);
+                }
+            }
+        }
+        writer.finish();
+        return rows;
+    }
+    
+    public static PayrollRow toRow(Document session) {
+        Number totalHours = session.get("totalHours", Number.class);
+        Number breakMinutes = session.get("breakDurationMinutes", Number.class);
+        Number violations = session.get("violationCount", Number.class);
+        return new PayrollRow(
+            session.get("_id").toString(),
+            session.getString("employeeId"),
+            session.getString("storeId"),
+            toLocalDate(session.getDate("date")),
+            toLocalDateTime(session.getDate("loginTime")),
+            toLocalDateTime(session.getDate("logoutTime")),
+            totalHours != null ? totalHours.doubleValue() : null,
+            breakMinutes != null ? breakMinutes.longValue() : 0,
+            session.getString("status"),
+            session.getBoolean("requiresApproval", false),
+            session.getString("approvedBy"),
+            violations != null ? violations.intValue() : 0);
+    }
+    
+    private Position positionOf(String sessionId) {
+        WorkingSession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown session to resume after: " + sessionId));
+        return new Position(session.getDate(), session.getStoreId(), session.getId());
+    }
+    
+    private double report(PayrollExportFormat format, String target, long rows, long millis) {
+        double rowsPerSecond = millis > 0 ? rows * 1000.0 / millis : rows;
+        Counter.builder("payroll.export.rows").tags("format", format.name(), "target", target)
+            .register(meterRegistry).increment(rows);
+        logger.info("Exported {} payroll rows as {} to {} in {} ms ({} rows/s)",
+            rows, format, target, millis, Math.round(rowsPerSecond));
+        return rowsPerSecond;
+    }
+    
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+    }
+    
+    private static Properties readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+    
+    // Written next to the export and moved into place, so a crash leaves the previous checkpoint intact
+    private static void writeCheckpoint(Path checkpointFile, Position position, long rows, long bytes) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("date", position.date().toString());
+        checkpoint.setProperty("storeId", position.storeId());
+        checkpoint.setProperty("sessionId", position.sessionId());
+        checkpoint.setProperty("rows", Long.toString(rows));
+        checkpoint.setProperty("bytes", Long.toString(bytes));
+        Path pending = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(pending)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(pending, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Same zone as Spring's Date <-> java.time conversions used when the sessions were written
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+}
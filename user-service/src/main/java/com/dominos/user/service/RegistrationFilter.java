@@ -0,0 +1,146 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.user.util.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// In-memory Bloom filter of the normalized emails and phones already registered. A "definitely not
+// present" answer lets registration skip the exists queries and insert directly; the unique indexes on
+// personalInfo.email/phone stay the source of truth for anything the filter has not seen (users created
+// on another instance since the last rebuild). Deletes and changes only leave stale bits, i.e. extra
+// false positives, which the periodic rebuild clears.
+@Component
+public class RegistrationFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationFilter.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${users.registration-filter.expected-entries:1000000}")
+    private long expectedEntries;
+    
+    @Value("${users.registration-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${users.registration-filter.batch-size:2000}")
+    private int batchSize;
+    
+    // Null until the first build completes; every check answers "maybe" until then
+    private volatile BloomFilter filter;
+    
+    // Receives registrations made while a rebuild is streaming the collection
+    private volatile BloomFilter building;
+    
+    private Counter skipped;
+    private Counter checked;
+    
+    @PostConstruct
+    void init() {
+        skipped = Counter.builder("users.registration.precheck").tag("result", "skipped").register(meterRegistry);
+        checked = Counter.builder("users.registration.precheck").tag("result", "queried").register(meterRegistry);
+        Gauge.builder("users.registration.filter.false-positive-rate", this, RegistrationFilter::expectedFalsePositiveRate)
+            .register(meterRegistry);
+    }
+    
+    public boolean mightContainEmail(String email) {
+        return mightContain(emailKey(email));
+    }
+    
+    public boolean mightContainPhone(String phone) {
+        return mightContain(phoneKey(phone));
+    }
+    
+    public void record(String email, String phone) {
+        put(emailKey(email));
+        put(phoneKey(phone));
+    }
+    
+    public double expectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current != null ? current.expectedFalsePositiveRate() : 1.0;
+    }
+    
+    // Runs once right after startup, then periodically to drop bits of deleted or changed users
+    @Scheduled(fixedDelayString = "${users.registration-filter.rebuild-interval:21600000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            long users = mongoTemplate.estimatedCount(User.class);
+            BloomFilter rebuilt = BloomFilter.create(Math.max(expectedEntries, users * 4), falsePositiveRate);
+            building = rebuilt;
+            
+            Query query = new Query().cursorBatchSize(batchSize);
+            query.fields().include("personalInfo.email", "personalInfo.phone").exclude("_id");
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                    mongoTemplate.getCollectionName(User.class))) {
+                documents.forEach(document -> {
+                    Document info = document.get("personalInfo", Document.class);
+                    if (info != null) {
+                        rebuilt.put(emailKey(info.getString("email")));
+                        rebuilt.put(phoneKey(info.getString("phone")));
+                    }
+                });
+            }
+            filter = rebuilt;
+            logger.info("Rebuilt registration filter from {} users in {} ms (expected false positive rate {})",
+                users, System.currentTimeMillis() - started, rebuilt.expectedFalsePositiveRate());
+        } catch (RuntimeException e) {
+            logger.warn("Registration filter rebuild failed, keeping the previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+    
+    private boolean mightContain(String key) {
+        BloomFilter current = filter;
+        if (key == null || current == null || current.mightContain(key)) {
+            checked.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+    
+    private void put(String key) {
+        if (key == null) {
+            return;
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.put(key);
+        }
+    }
+    
+    // Normalizing only merges values, so it can add false positives but never hide a stored value
+    static String emailKey(String email) {
+        return email != null ? "e:" + email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+    
+    static String phoneKey(String phone) {
+        return phone != null ? "p:" + phone.replaceAll("\\D", "") : null;
+    }
+}
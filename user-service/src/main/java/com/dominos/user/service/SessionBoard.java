@@ -0,0 +1,223 @@
+package com.dominos.user.service;
+
+import com.dominos.user.dto.SessionBoardEvent;
+import com.dominos.user.dto.WorkingSessionResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Live "who's on the floor" board: server-sent events per store, a snapshot of the active sessions
+// followed by deltas. Events are fanned out in-process to every subscriber of the store and relayed to
+// the other instances over Redis pub/sub. Each subscriber has a bounded buffer drained by its own virtual
+// thread; a subscriber whose buffer fills up is disconnected rather than slowing everyone else down
+// (EventSource reconnects and gets a fresh snapshot).
+@Component
+public class SessionBoard {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SessionBoard.class);
+    
+    static final String CHANNEL = "session-board";
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${sessions.board.buffer-size:64}")
+    private int bufferSize;
+    
+    // Clients reconnect after this and receive a new snapshot
+    @Value("${sessions.board.emitter-timeout:1800000}")
+    private long emitterTimeout;
+    
+    private Counter evictions;
+    
+    @PostConstruct
+    void init() {
+        evictions = Counter.builder("sessions.board.evictions")
+            .description("Subscribers disconnected because their buffer was full")
+            .register(meterRegistry);
+        Gauge.builder("sessions.board.subscribers", subscribers,
+            map -> map.values().stream().mapToInt(Set::size).sum()).register(meterRegistry);
+        
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length == 2 && !instanceId.equals(parts[0])) {
+                try {
+                    deliver(objectMapper.readValue(parts[1], SessionBoardEvent.class));
+                } catch (Exception e) {
+                    logger.warn("Ignoring malformed session board event", e);
+                }
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdown();
+    }
+    
+    public SseEmitter subscribe(String storeId, Supplier<List<WorkingSessionResponse>> snapshot) {
+        return register(storeId, new SseEmitter(emitterTimeout), snapshot);
+    }
+    
+    public void publish(SessionBoardEvent event) {
+        deliver(event);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, instanceId + "|" + objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            // Boards on other instances catch up when their clients reconnect
+            logger.warn("Failed to relay session board event for store {}", event.getStoreId(), e);
+        }
+    }
+    
+    // Comment lines keep proxies from closing idle streams and surface dead connections
+    @Scheduled(fixedDelayString = "${sessions.board.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("ping"))));
+    }
+    
+    // The subscriber is registered before the snapshot is read, so no change falls between the two;
+    // deltas queued meanwhile are sent after the snapshot and are idempotent upserts for the client
+    SseEmitter register(String storeId, SseEmitter emitter, Supplier<List<WorkingSessionResponse>> snapshot) {
+        Subscriber subscriber = new Subscriber(storeId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.computeIfAbsent(storeId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        
+        try {
+            subscriber.start(SseEmitter.event().name("SNAPSHOT").data(snapshot.get()));
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+    
+    int subscriberCount(String storeId) {
+        Set<Subscriber> set = subscribers.get(storeId);
+        return set != null ? set.size() : 0;
+    }
+    
+    private void deliver(SessionBoardEvent event) {
+        Set<Subscriber> set = subscribers.get(event.getStoreId());
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        set.forEach(subscriber -> subscriber.offer(SseEmitter.event().name(event.getType().name()).data(event)));
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.storeId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+    
+    private class Subscriber {
+        
+        private final String storeId;
+        private final SseEmitter emitter;
+        private final BlockingDeque<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean started;
+        private volatile boolean closed;
+        
+        Subscriber(String storeId, SseEmitter emitter) {
+            this.storeId = storeId;
+            this.emitter = emitter;
+            // One extra slot for the snapshot
+            this.buffer = new LinkedBlockingDeque<>(bufferSize + 1);
+        }
+        
+        void start(SseEmitter.SseEventBuilder snapshot) {
+            if (!buffer.offerFirst(snapshot)) {
+                evict();
+                return;
+            }
+            started = true;
+            schedule();
+        }
+        
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offerLast(event)) {
+                evict();
+                return;
+            }
+            schedule();
+        }
+        
+        private void schedule() {
+            if (started && !closed && !buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                for (SseEmitter.SseEventBuilder event = buffer.poll(); event != null && !closed; event = buffer.poll()) {
+                    emitter.send(event);
+                }
+            } catch (Exception e) {
+                // Client went away; the emitter callbacks remove the subscriber as well
+                closed = true;
+                remove(this);
+            } finally {
+                draining.set(false);
+            }
+            schedule();
+        }
+        
+        private void evict() {
+            closed = true;
+            buffer.clear();
+            remove(this);
+            evictions.increment();
+            logger.info("Disconnected slow session board subscriber for store {}", storeId);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.SessionStartTask;
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.SessionStartStatus;
+import com.dominos.user.exception.ShiftViolationException;
+import com.dominos.user.repository.SessionStartTaskRepository;
+import com.dominos.user.repository.WorkingSessionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Mongo-backed outbox that starts working sessions off the login path, with retries
+@Service
+public class SessionStartOutbox {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SessionStartOutbox.class);
+    
+    @Autowired
+    private SessionStartTaskRepository taskRepository;
+    
+    @Autowired
+    private WorkingSessionRepository sessionRepository;
+    
+    @Autowired
+    private WorkingSessionService sessionService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TaskExecutor taskExecutor;
+    
+    @Value("${sessions.start-outbox.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${sessions.start-outbox.retry-backoff:2000}")
+    private long retryBackoffMillis;
+    
+    @Value("${sessions.start-outbox.lease:30000}")
+    private long leaseMillis;
+    
+    @Value("${sessions.start-outbox.batch-size:50}")
+    private int batchSize;
+    
+    public SessionStartTask enqueue(String employeeId, String storeId) {
+        SessionStartTask task = taskRepository.save(new SessionStartTask(employeeId, storeId));
+        
+        // Kick a drain right away; the scheduled poll picks up anything this misses
+        taskExecutor.execute(this::drain);
+        return task;
+    }
+    
+    public Optional<SessionStartTask> getLatestTask(String employeeId) {
+        return taskRepository.findFirstByEmployeeIdOrderByCreatedAtDesc(employeeId);
+    }
+    
+    @Scheduled(fixedDelayString = "${sessions.start-outbox.poll-interval:2000}")
+    public void drain() {
+        for (int i = 0; i < batchSize; i++) {
+            SessionStartTask task = claimNext();
+            if (task == null) {
+                return;
+            }
+            process(task);
+        }
+    }
+    
+    // Atomically leases one due task, including tasks whose previous lease expired
+    private SessionStartTask claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        
+        Query query = new Query(new Criteria().orOperator(
+            Criteria.where("status").is(SessionStartStatus.PENDING).and("nextAttemptAt").lte(now),
+            Criteria.where("status").is(SessionStartStatus.PROCESSING).and("lockedUntil").lt(now)
+        ));
+        
+        Update update = new Update()
+            .set("status", SessionStartStatus.PROCESSING)
+            .set("lockedUntil", now.plusNanos(leaseMillis * 1_000_000))
+            .inc("attempts", 1);
+        
+        return mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().returnNew(true), SessionStartTask.class);
+    }
+    
+    private void process(SessionStartTask task) {
+        try {
+            // A previous attempt may have created the session before its lease expired
+            Optional<WorkingSession> existing = sessionRepository.findActiveSessionByEmployeeId(task.getEmployeeId())
+                .filter(session -> !session.getLoginTime().isBefore(task.getCreatedAt()));
+            
+            WorkingSession session = existing.isPresent()
+                ? existing.get()
+                : sessionService.startSession(task.getEmployeeId(), task.getStoreId());
+            
+            task.setStatus(SessionStartStatus.COMPLETED);
+            task.setSessionId(session.getId());
+            task.setLastError(null);
+            task.setCompletedAt(LocalDateTime.now());
+            task.setLockedUntil(null);
+            taskRepository.save(task);
+            
+        } catch (ShiftViolationException e) {
+            // Business rule rejections will not succeed on retry
+            fail(task, e.getMessage());
+        } catch (RuntimeException e) {
+            if (task.getAttempts() >= maxAttempts) {
+                fail(task, e.getMessage());
+                return;
+            }
+            
+            long backoff = retryBackoffMillis * (1L << Math.min(task.getAttempts() - 1, 10));
+            task.setStatus(SessionStartStatus.PENDING);
+            task.setLastError(e.getMessage());
+            task.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+            task.setLockedUntil(null);
+            taskRepository.save(task);
+            
+            logger.warn("Session start for employee {} failed (attempt {}), retrying in {} ms",
+                task.getEmployeeId(), task.getAttempts(), backoff);
+        }
+    }
+    
+    private void fail(SessionStartTask task, String reason) {
+        task.setStatus(SessionStartStatus.FAILED);
+        task.setLastError(reason);
+        task.setCompletedAt(LocalDateTime.now());
+        task.setLockedUntil(null);
+        taskRepository.save(task);
+        
+        logger.warn("Session start for employee {} failed permanently: {}", task.getEmployeeId(), reason);
+        notificationService.notifyEmployee(task.getEmployeeId(), "Working session could not be started: " + reason);
+    }
+}
@@ -22,7 +22,7 @@ public class StoreService {
     @Autowired
     private StoreRepository storeRepository;
     
-    @Cacheable(value = "stores", key = "#storeId")
+    @Cacheable(value = "stores", key = "#storeId", sync = true)
     public Store getStore(String storeId) {
         return storeRepository.findById(storeId)
                 .orElseThrow(() -> new RuntimeException("Store not found: " + storeId));
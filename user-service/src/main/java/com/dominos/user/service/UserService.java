@@ -7,27 +7,51 @@ import com.dominos.user.dto.LoginRequest;
 import com.dominos.user.dto.LoginResponse;
 import com.dominos.user.dto.UserCreateRequest;
 import com.dominos.user.dto.UserResponse;
+import com.dominos.user.dto.UserSearchPage;
+import com.dominos.user.dto.UserStreamRow;
 import com.dominos.user.repository.UserRepository;
+import com.dominos.user.repository.UserSummary;
 import com.dominos.user.repository.WorkingSessionRepository;
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.security.LoginThrottle;
+import com.dominos.user.security.PermissionRegistry;
+import com.dominos.user.security.PermissionVersionService;
+import com.dominos.user.security.TokenRevocationService;
+import com.dominos.user.util.ContinuationToken;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserService {
     
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -43,6 +67,42 @@ public class UserService {
     @Autowired
     private WorkingSessionService sessionService;
     
+    @Autowired
+    private LastLoginWriteBehind lastLoginWriteBehind;
+    
+    @Autowired
+    private SessionStartOutbox sessionStartOutbox;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+    
+    @Autowired
+    private PermissionVersionService permissionVersionService;
+    
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+    
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+    
+    @Autowired
+    private RegistrationFilter registrationFilter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Value("${users.stream.batch-size:500}")
+    private int streamBatchSize;
+    
     public UserResponse createUser(UserCreateRequest request) {
         validateUserCreation(request);
         
@@ -66,7 +126,9 @@ public class UserService {
             user.setEmployeeDetails(employeeDetails);
         }
         
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUnique(user);
+        userStatisticsService.recordCreated(savedUser.getType());
+        employeeNameIndex.upsert(savedUser);
         return mapToUserResponse(savedUser);
     }
     
@@ -92,11 +154,20 @@ public class UserService {
         employeeDetails.setSchedule(request.getSchedule());
         user.setEmployeeDetails(employeeDetails);
         
-        User savedUser = userRepository.save(user);
+        User savedUser = saveUnique(user);
+        userStatisticsService.recordCreated(savedUser.getType());
+        employeeNameIndex.upsert(savedUser);
         return mapToUserResponse(savedUser);
     }
     
     public LoginResponse authenticate(LoginRequest request) {
+        return authenticate(request, null);
+    }
+    
+    public LoginResponse authenticate(LoginRequest request, String clientIp) {
+        // Reject floods before spending a query or a BCrypt comparison on them
+        loginThrottle.checkAndRecord(request.getEmail(), clientIp);
+        
         User user = userRepository.findByPersonalInfoEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
         
@@ -108,27 +179,47 @@ public class UserService {
             throw new RuntimeException("Account is deactivated");
         }
         
+        loginThrottle.recordSuccess(request.getEmail());
+        
+        // Transparently move old hashes to the configured BCrypt cost
+        if (passwordEncoder.upgradeEncoding(user.getPersonalInfo().getPasswordHash())) {
+            String upgradedHash = passwordEncoder.encode(request.getPassword());
+            user.getPersonalInfo().setPasswordHash(upgradedHash);
+            userRepository.updatePasswordHash(user.getId(), upgradedHash);
+            Cache users = cacheManager.getCache("users");
+            if (users != null) {
+                users.evict(user.getId());
+            }
+        }
+        
+        // Persisted asynchronously by the write-behind buffer
         user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        lastLoginWriteBehind.record(user.getId(), user.getLastLogin());
         
         String storeId = user.isEmployee() ? user.getEmployeeDetails().getStoreId() : null;
-        String accessToken = jwtService.generateAccessToken(user.getId(), user.getType().name(), storeId);
+        String accessToken = jwtService.generateAccessToken(user.getId(), user.getType().name(), storeId,
+                permissionRegistry.claimsFor(user));
         String refreshToken = jwtService.generateRefreshToken(user.getId());
         
-        // Start working session for employees
+        // Working session starts asynchronously; progress is visible on the session status endpoint
         if (user.isEmployee()) {
             try {
-                sessionService.startSession(user.getId(), storeId);
+                sessionStartOutbox.enqueue(user.getId(), storeId);
             } catch (Exception e) {
                 // Log the error but don't fail the login
-                System.err.println("Failed to start working session: " + e.getMessage());
+                logger.warn("Failed to enqueue working session start for {}", user.getId(), e);
             }
         }
         
         return new LoginResponse(accessToken, refreshToken, mapToUserResponse(user));
     }
     
-    public void logout(String userId) {
+    public void logout(String userId, JwtPrincipal principal) {
+        // Kill the presented access token; other devices keep their sessions
+        if (principal != null) {
+            tokenRevocationService.revokeToken(principal);
+        }
+        
         User user = getUserById(userId);
         if (user.isEmployee()) {
             try {
@@ -140,7 +231,7 @@ public class UserService {
         }
     }
     
-    @Cacheable(value = "users", key = "#userId")
+    @Cacheable(value = "users", key = "#userId", sync = true)
     public User getUserById(String userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -151,24 +242,37 @@ public class UserService {
     }
     
     public List<UserResponse> getUsersByType(UserType type) {
-        return userRepository.findByType(type).stream()
+        return userRepository.findSummariesByType(type).stream()
                 .map(this::mapToUserResponse)
                 .toList();
     }
     
     public List<UserResponse> getStoreEmployees(String storeId) {
-        return userRepository.findByStoreId(storeId).stream()
+        return userRepository.findSummariesByStoreId(storeId).stream()
                 .map(this::mapToUserResponse)
                 .toList();
     }
     
     public List<UserResponse> getActiveManagers() {
-        return userRepository.findActiveManagersAndAssistants(UserType.MANAGER, UserType.ASSISTANT_MANAGER)
+        return userRepository.findActiveManagerSummaries(UserType.MANAGER, UserType.ASSISTANT_MANAGER)
                 .stream()
                 .map(this::mapToUserResponse)
                 .toList();
     }
     
+    public StreamingResponseBody streamUsersByType(UserType type, String resumeToken) {
+        return streamUsers(Criteria.where("type").is(type), resumeToken, "type", type);
+    }
+    
+    public StreamingResponseBody streamStoreEmployees(String storeId, String resumeToken) {
+        return streamUsers(Criteria.where("employeeDetails.storeId").is(storeId), resumeToken, "store", storeId);
+    }
+    
+    public StreamingResponseBody streamActiveManagers(String resumeToken) {
+        Criteria criteria = Criteria.where("type").in(UserType.MANAGER, UserType.ASSISTANT_MANAGER).and("isActive").is(true);
+        return streamUsers(criteria, resumeToken, "managers");
+    }
+    
     @CacheEvict(value = "users", key = "#userId")
     public UserResponse updateUser(String userId, UserCreateRequest request) {
         User user = getUserById(userId);
@@ -181,22 +285,50 @@ public class UserService {
             user.getPersonalInfo().setPasswordHash(passwordEncoder.encode(request.getPassword()));
         }
         
+        boolean permissionsChanged = false;
+        String previousStoreId = null;
         if (user.isEmployee() && request.getStoreId() != null) {
-            user.getEmployeeDetails().setStoreId(request.getStoreId());
-            user.getEmployeeDetails().setRole(request.getRole());
-            user.getEmployeeDetails().setPermissions(request.getPermissions());
-            user.getEmployeeDetails().setSchedule(request.getSchedule());
+            User.EmployeeDetails details = user.getEmployeeDetails();
+            previousStoreId = details.getStoreId();
+            permissionsChanged = !Objects.equals(details.getStoreId(), request.getStoreId())
+                    || !Objects.equals(details.getRole(), request.getRole())
+                    || permissionRegistry.toMask(details.getPermissions()) != permissionRegistry.toMask(request.getPermissions());
+            
+            details.setStoreId(request.getStoreId());
+            details.setRole(request.getRole());
+            details.setPermissions(request.getPermissions());
+            details.setSchedule(request.getSchedule());
+        }
+        
+        // A new version invalidates permission claims embedded in already issued tokens
+        if (permissionsChanged) {
+            user.setPermissionVersion(user.getPermissionVersion() + 1);
         }
         
-        User updatedUser = userRepository.save(user);
+        User updatedUser = saveUnique(user);
+        if (permissionsChanged) {
+            permissionVersionService.publish(userId, updatedUser.getPermissionVersion());
+        }
+        if (previousStoreId != null && !previousStoreId.equals(request.getStoreId())) {
+            employeeNameIndex.remove(previousStoreId, userId);
+        }
+        employeeNameIndex.upsert(updatedUser);
         return mapToUserResponse(updatedUser);
     }
     
     @CacheEvict(value = "users", key = "#userId")
     public void deactivateUser(String userId) {
         User user = getUserById(userId);
+        boolean wasActive = user.isActive();
         user.setActive(false);
         userRepository.save(user);
+        if (wasActive) {
+            userStatisticsService.recordDeactivated();
+        }
+        tokenRevocationService.revokeAllForUser(userId);
+        if (user.isEmployee() && user.getEmployeeDetails() != null) {
+            employeeNameIndex.remove(user.getEmployeeDetails().getStoreId(), userId);
+        }
         
         // End any active working session
         if (user.isEmployee()) {
@@ -209,20 +341,43 @@ public class UserService {
         }
     }
     
+    @CacheEvict(value = "users", key = "#userId")
+    public UserResponse reactivateUser(String userId) {
+        User user = getUserById(userId);
+        if (user.isActive()) {
+            return mapToUserResponse(user);
+        }
+        
+        // Tokens issued before the deactivation stay revoked
+        user.setActive(true);
+        User reactivated = userRepository.save(user);
+        userStatisticsService.recordReactivated();
+        employeeNameIndex.upsert(reactivated);
+        return mapToUserResponse(reactivated);
+    }
+    
     public boolean canUserTakeOrders(String userId) {
         User user = getUserById(userId);
         return user.canTakeOrders();
     }
     
     public String refreshAccessToken(String refreshToken) {
-        String userId = jwtService.extractUserId(refreshToken);
-        if (jwtService.isTokenExpired(refreshToken)) {
+        JwtPrincipal principal = jwtService.verifyToken(refreshToken);
+        if (principal.isExpired()) {
             throw new RuntimeException("Refresh token expired");
         }
+        if (tokenRevocationService.isRevoked(principal)) {
+            throw new RuntimeException("Refresh token revoked");
+        }
         
+        String userId = principal.getUserId();
         User user = getUserById(userId);
+        if (!user.isActive()) {
+            throw new RuntimeException("Account is deactivated");
+        }
+        
         String storeId = user.isEmployee() ? user.getEmployeeDetails().getStoreId() : null;
-        return jwtService.generateAccessToken(userId, user.getType().name(), storeId);
+        return jwtService.generateAccessToken(userId, user.getType().name(), storeId, permissionRegistry.claimsFor(user));
     }
     
     public void changePassword(String userId, String currentPassword, String newPassword) {
@@ -236,54 +391,57 @@ public class UserService {
         userRepository.save(user);
     }
     
-    public List<UserResponse> searchUsers(String name, String email, String phone, UserType type, String storeId) {
-        List<User> allUsers = userRepository.findAll();
-        
-        return allUsers.stream()
-                .filter(user -> name == null || user.getPersonalInfo().getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(user -> email == null || user.getPersonalInfo().getEmail().toLowerCase().contains(email.toLowerCase()))
-                .filter(user -> phone == null || user.getPersonalInfo().getPhone().contains(phone))
-                .filter(user -> type == null || user.getType() == type)
-                .filter(user -> storeId == null || (user.getEmployeeDetails() != null && storeId.equals(user.getEmployeeDetails().getStoreId())))
-                .map(this::mapToUserResponse)
-                .toList();
+    // Page size bounds both the Mongo work and the heap used per search
+    public UserSearchPage searchUsers(String name, String email, String phone, UserType type, String storeId,
+                                      int pageSize, String pageToken) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_SEARCH_PAGE_SIZE));
+        String fingerprint = ContinuationToken.fingerprint(name, email, phone, type, storeId);
+        String afterId = pageToken != null && !pageToken.isBlank()
+                ? ContinuationToken.decode(pageToken, fingerprint)
+                : null;
+        
+        // One extra row tells us whether another page exists
+        List<User> users = userRepository.searchPage(name, email, phone, type, storeId, afterId, limit + 1);
+        boolean hasMore = users.size() > limit;
+        List<User> page = hasMore ? users.subList(0, limit) : users;
+        
+        String nextPageToken = hasMore ? ContinuationToken.encode(page.get(limit - 1).getId(), fingerprint) : null;
+        return new UserSearchPage(page.stream().map(this::mapToUserResponse).toList(), limit, nextPageToken);
     }
     
     public Map<String, Object> getUserStatistics() {
-        List<User> allUsers = userRepository.findAll();
-        
-        Map<UserType, Long> usersByType = allUsers.stream()
-                .collect(Collectors.groupingBy(User::getType, Collectors.counting()));
-        
-        long activeUsers = allUsers.stream()
-                .filter(User::isActive)
-                .count();
-        
-        long inactiveUsers = allUsers.size() - activeUsers;
-        
-        long recentLogins = allUsers.stream()
-                .filter(user -> user.getLastLogin() != null && 
-                       user.getLastLogin().isAfter(LocalDateTime.now().minusDays(7)))
-                .count();
-        
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", allUsers.size());
-        stats.put("activeUsers", activeUsers);
-        stats.put("inactiveUsers", inactiveUsers);
-        stats.put("recentLogins", recentLogins);
-        stats.put("usersByType", usersByType);
-        
-        return stats;
+        return userStatisticsService.getStatistics();
+    }
+    
+    // NDJSON straight off a Mongo cursor: one user per line, so heap use does not grow with the result
+    private StreamingResponseBody streamUsers(Criteria criteria, String resumeToken, Object... filters) {
+        String fingerprint = ContinuationToken.fingerprint(filters);
+        // Decoded before the response starts so a bad token is still a 400
+        String afterId = resumeToken != null && !resumeToken.isBlank()
+                ? ContinuationToken.decode(resumeToken, fingerprint)
+                : null;
+        ObjectWriter writer = objectMapper.writerFor(UserStreamRow.class);
+        
+        return out -> {
+            int rows = 0;
+            try (Stream<User> users = userRepository.streamAfter(criteria, afterId, streamBatchSize)) {
+                for (User user : (Iterable<User>) users::iterator) {
+                    UserStreamRow row = new UserStreamRow(mapToUserResponse(user),
+                            ContinuationToken.encode(user.getId(), fingerprint));
+                    out.write(writer.writeValueAsBytes(row));
+                    out.write('\n');
+                    if (++rows % streamBatchSize == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+            logger.debug("Streamed {} users", rows);
+        };
     }
     
     private void validateUserCreation(UserCreateRequest request) {
-        if (userRepository.existsByPersonalInfoEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
-        
-        if (userRepository.existsByPersonalInfoPhone(request.getPhone())) {
-            throw new RuntimeException("Phone number already exists");
-        }
+        validateUniqueContact(request);
         
         // Relaxed validation for employee types - allow if store is provided
         if (request.getType() != UserType.CUSTOMER && 
@@ -293,18 +451,40 @@ public class UserService {
     }
     
     private void validateEmployeeCreation(UserCreateRequest request) {
-        if (userRepository.existsByPersonalInfoEmail(request.getEmail())) {
+        validateUniqueContact(request);
+        
+        // Relaxed store validation - allow employee creation with any valid store ID
+        if (request.getStoreId() == null || request.getStoreId().trim().isEmpty()) {
+            throw new RuntimeException("Store ID is required for employees");
+        }
+    }
+    
+    // Only values the filter may have seen cost a query; the unique indexes catch the rest on insert
+    private void validateUniqueContact(UserCreateRequest request) {
+        if (registrationFilter.mightContainEmail(request.getEmail())
+                && userRepository.existsByPersonalInfoEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
         
-        if (userRepository.existsByPersonalInfoPhone(request.getPhone())) {
+        if (registrationFilter.mightContainPhone(request.getPhone())
+                && userRepository.existsByPersonalInfoPhone(request.getPhone())) {
             throw new RuntimeException("Phone number already exists");
         }
-        
-        // Relaxed store validation - allow employee creation with any valid store ID
-        if (request.getStoreId() == null || request.getStoreId().trim().isEmpty()) {
-            throw new RuntimeException("Store ID is required for employees");
+    }
+    
+    // Reports unique index violations with the same errors as the prechecks
+    private User saveUnique(User user) {
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            String message = String.valueOf(e.getMessage());
+            throw new RuntimeException(message.contains("personalInfo.phone")
+                ? "Phone number already exists"
+                : "Email already exists");
         }
+        registrationFilter.record(saved.getPersonalInfo().getEmail(), saved.getPersonalInfo().getPhone());
+        return saved;
     }
     
     private UserResponse mapToUserResponse(User user) {
@@ -327,4 +507,27 @@ public class UserService {
         
         return response;
     }
+    
+    private UserResponse mapToUserResponse(UserSummary user) {
+        UserResponse response = new UserResponse();
+        response.setId(user.getId());
+        response.setType(user.getType());
+        if (user.getPersonalInfo() != null) {
+            response.setName(user.getPersonalInfo().getName());
+            response.setEmail(user.getPersonalInfo().getEmail());
+            response.setPhone(user.getPersonalInfo().getPhone());
+            response.setAddress(user.getPersonalInfo().getAddress());
+        }
+        response.setCreatedAt(user.getCreatedAt());
+        response.setLastLogin(user.getLastLogin());
+        response.setActive(user.isActive());
+        
+        if (user.isEmployee() && user.getEmployeeDetails() != null) {
+            response.setStoreId(user.getEmployeeDetails().getStoreId());
+            response.setRole(user.getEmployeeDetails().getRole());
+            response.setPermissions(user.getEmployeeDetails().getPermissions());
+        }
+        
+        return response;
+    }
 }
\ No newline at end of file
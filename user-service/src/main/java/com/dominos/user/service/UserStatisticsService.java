@@ -0,0 +1,247 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.entity.UserStatistics;
+import com.dominos.shared.enums.UserType;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Serves user statistics from a materialized counters document kept current with $inc on
+// create/deactivate/reactivate/login events. A single $facet aggregation recomputes it from the
+// users collection on a nightly schedule (and whenever the document is missing) to correct drift.
+@Service
+public class UserStatisticsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserStatisticsService.class);
+    
+    private static final int RECENT_LOGIN_DAYS = 7;
+    private static final int RECONCILE_ATTEMPTS = 3;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${users.statistics.login-day-retention:8}")
+    private int loginDayRetention;
+    
+    public void recordCreated(UserType type) {
+        recordCreated(type, 1);
+    }
+    
+    public void recordCreated(UserType type, long count) {
+        apply(new Update()
+            .inc("totalUsers", count)
+            .inc("activeUsers", count)
+            .inc("usersByType." + type.name(), count));
+    }
+    
+    public void recordDeactivated() {
+        apply(new Update().inc("activeUsers", -1));
+    }
+    
+    public void recordReactivated() {
+        apply(new Update().inc("activeUsers", 1));
+    }
+    
+    // Moves each user from the day bucket of their previous lastLogin to the new one
+    public void recordLogins(Map<String, LocalDateTime> previous, Map<String, LocalDateTime> current) {
+        Map<String, Long> deltas = new HashMap<>();
+        current.forEach((userId, loginTime) -> {
+            LocalDateTime before = previous.get(userId);
+            if (before != null && !loginTime.isAfter(before)) {
+                return;
+            }
+            String newDay = dayKey(loginTime);
+            String oldDay = before != null ? dayKey(before) : null;
+            if (newDay.equals(oldDay)) {
+                return;
+            }
+            deltas.merge(newDay, 1L, Long::sum);
+            if (oldDay != null) {
+                deltas.merge(oldDay, -1L, Long::sum);
+            }
+        });
+        
+        Update update = new Update();
+        deltas.forEach((day, delta) -> {
+            if (delta != 0) {
+                update.inc("loginDays." + day, delta);
+            }
+        });
+        if (!update.getUpdateObject().isEmpty()) {
+            apply(update);
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        UserStatistics statistics = mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class);
+        if (statistics == null) {
+            statistics = reconcile();
+        }
+        
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long recentLogins = 0;
+        for (int i = 0; i < RECENT_LOGIN_DAYS; i++) {
+            recentLogins += statistics.getLoginDays().getOrDefault(today.minusDays(i).toString(), 0L);
+        }
+        
+        Map<UserType, Long> usersByType = new EnumMap<>(UserType.class);
+        statistics.getUsersByType().forEach((type, count) -> usersByType.put(UserType.valueOf(type), count));
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalUsers", statistics.getTotalUsers());
+        stats.put("activeUsers", statistics.getActiveUsers());
+        stats.put("inactiveUsers", statistics.getTotalUsers() - statistics.getActiveUsers());
+        stats.put("recentLogins", recentLogins);
+        stats.put("usersByType", usersByType);
+        stats.put("updatedAt", statistics.getUpdatedAt());
+        stats.put("reconciledAt", statistics.getReconciledAt());
+        return stats;
+    }
+    
+    // Counts only: no user document leaves the database
+    public UserStatistics aggregate() {
+        LocalDate firstDay = LocalDate.now(ZoneOffset.UTC).minusDays(loginDayRetention - 1L);
+        Date cutoff = Date.from(firstDay.atStartOfDay(ZoneOffset.UTC).toInstant());
+        
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.facet(Aggregation.group("type").count().as("count")).as("byType")
+                .and(Aggregation.match(Criteria.where("isActive").is(true)), Aggregation.count().as("count")).as("active")
+                .and(
+                    Aggregation.match(Criteria.where("lastLogin").gte(cutoff)),
+                    Aggregation.project().and(DateOperators.DateToString.dateOf("lastLogin").toString("%Y-%m-%d")).as("day"),
+                    Aggregation.group("day").count().as("count")
+                ).as("loginDays")
+        );
+        
+        Document result = mongoTemplate.aggregate(aggregation, User.class, Document.class).getUniqueMappedResult();
+        
+        UserStatistics statistics = new UserStatistics();
+        if (result == null) {
+            return statistics;
+        }
+        
+        long total = 0;
+        for (Document row : result.getList("byType", Document.class)) {
+            long count = ((Number) row.get("count")).longValue();
+            if (row.get("_id") != null) {
+                statistics.getUsersByType().put(row.get("_id").toString(), count);
+            }
+            total += count;
+        }
+        statistics.setTotalUsers(total);
+        
+        List<Document> active = result.getList("active", Document.class);
+        statistics.setActiveUsers(active.isEmpty() ? 0 : ((Number) active.get(0).get("count")).longValue());
+        
+        for (Document row : result.getList("loginDays", Document.class)) {
+            statistics.getLoginDays().put(row.get("_id").toString(), ((Number) row.get("count")).longValue());
+        }
+        return statistics;
+    }
+    
+    @Scheduled(cron = "${users.statistics.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.warn("User statistics reconciliation failed", e);
+        }
+    }
+    
+    // The recomputed counters are written only if no $inc landed while the aggregation ran;
+    // otherwise the aggregation may have missed that event and is run again.
+    public UserStatistics reconcile() {
+        UserStatistics fresh = new UserStatistics();
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            UserStatistics current = mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class);
+            fresh = aggregate();
+            
+            LocalDateTime now = LocalDateTime.now();
+            fresh.setUpdatedAt(now);
+            fresh.setReconciledAt(now);
+            fresh.setVersion(current != null ? current.getVersion() + 1 : 1);
+            
+            if (replace(current, fresh)) {
+                if (current != null && (current.getTotalUsers() != fresh.getTotalUsers()
+                        || current.getActiveUsers() != fresh.getActiveUsers())) {
+                    logger.info("Reconciled user statistics drift: total {} -> {}, active {} -> {}",
+                        current.getTotalUsers(), fresh.getTotalUsers(), current.getActiveUsers(), fresh.getActiveUsers());
+                }
+                return fresh;
+            }
+            logger.debug("User statistics changed during reconciliation (attempt {}), retrying", attempt);
+        }
+        
+        logger.warn("User statistics kept changing during reconciliation, leaving counters as they are");
+        return fresh;
+    }
+    
+    private boolean replace(UserStatistics current, UserStatistics fresh) {
+        Criteria unchanged = Criteria.where("_id").is(UserStatistics.GLOBAL_ID);
+        if (current != null) {
+            unchanged.and("version").is(current.getVersion());
+        }
+        
+        // Setting the whole map also drops day buckets older than the retention
+        Update update = new Update()
+            .set("totalUsers", fresh.getTotalUsers())
+            .set("activeUsers", fresh.getActiveUsers())
+            .set("usersByType", fresh.getUsersByType())
+            .set("loginDays", fresh.getLoginDays())
+            .set("updatedAt", fresh.getUpdatedAt())
+            .set("reconciledAt", fresh.getReconciledAt())
+            .set("version", fresh.getVersion());
+        
+        if (current != null) {
+            return mongoTemplate.updateFirst(Query.query(unchanged), update, UserStatistics.class).getModifiedCount() > 0;
+        }
+        try {
+            mongoTemplate.insert(fresh);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // A counter update created the document first
+            return false;
+        }
+    }
+    
+    // Counter drift is repaired by reconciliation, so event updates never fail the caller
+    private void apply(Update update) {
+        try {
+            update.set("updatedAt", LocalDateTime.now()).inc("version", 1);
+            mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(UserStatistics.GLOBAL_ID)), update,
+                FindAndModifyOptions.options().upsert(true), UserStatistics.class);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to update user statistics counters", e);
+        }
+    }
+    
+    // Same day boundaries as $dateToString on the stored (UTC) lastLogin
+    static String dayKey(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDate().toString();
+    }
+}
@@ -1,34 +1,51 @@
 package com.dominos.user.service;
 
+import com.dominos.shared.entity.LabourRollup;
 import com.dominos.shared.entity.WorkingSession;
 import com.dominos.shared.entity.Shift;
+import com.dominos.shared.enums.RollupGranularity;
 import com.dominos.shared.enums.WorkingSessionStatus;
 import com.dominos.shared.model.Location;
 import com.dominos.shared.model.SessionViolation;
+import com.dominos.user.dto.SessionBoardEvent;
 import com.dominos.user.dto.WorkingSessionResponse;
 import com.dominos.user.dto.WorkingHoursReport;
+import com.dominos.user.repository.DailyHours;
 import com.dominos.user.repository.WorkingSessionRepository;
 import com.dominos.user.service.ShiftValidationService.ShiftValidationResult;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class WorkingSessionService {
     
+    private static final Logger logger = LoggerFactory.getLogger(WorkingSessionService.class);
+    
     @Autowired
     private WorkingSessionRepository sessionRepository;
     
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
     @Autowired
     private ShiftValidationService shiftValidationService;
     
@@ -38,6 +55,15 @@ public class WorkingSessionService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @Autowired
+    private SessionBoard sessionBoard;
+    
+    @Autowired
+    private LabourRollupService labourRollupService;
+    
     public WorkingSession startSession(String employeeId, String storeId) {
         return startSessionWithLocation(employeeId, storeId, null);
     }
@@ -73,12 +99,15 @@ public class WorkingSessionService {
             session.addViolation(new SessionViolation("UNSCHEDULED_SHIFT", validation.getMessage()));
         }
         
-        return sessionRepository.save(session);
+        WorkingSession saved = sessionRepository.save(session);
+        activeSessionRegistry.update(saved);
+        publish(SessionBoardEvent.Type.STARTED, saved);
+        return saved;
     }
     
     private void handleExistingActiveSessions(String employeeId, LocalDateTime currentTime) {
-        Optional<WorkingSession> existingSession = sessionRepository
-            .findActiveSessionByEmployeeId(employeeId);
+        // Write paths read Mongo: the registry can lag behind a lost announcement until the next reconcile
+        Optional<WorkingSession> existingSession = sessionRepository.findActiveSessionByEmployeeId(employeeId);
         
         if (existingSession.isPresent()) {
             WorkingSession existing = existingSession.get();
@@ -112,7 +141,10 @@ public class WorkingSessionService {
             
             existing.setActive(false);
             existing.calculateTotalHours();
-            sessionRepository.save(existing);
+            WorkingSession closed = sessionRepository.save(existing);
+            activeSessionRegistry.update(closed);
+            recordRollup(closed);
+            publish(SessionBoardEvent.Type.ENDED, closed);
         }
     }
     
@@ -169,7 +201,11 @@ public class WorkingSessionService {
             session.setStatus(WorkingSessionStatus.COMPLETED);
         }
         
-        return sessionRepository.save(session);
+        WorkingSession saved = sessionRepository.save(session);
+        activeSessionRegistry.update(saved);
+        recordRollup(saved);
+        publish(SessionBoardEvent.Type.ENDED, saved);
+        return saved;
     }
     
     private void validateSessionCompletion(WorkingSession session) {
@@ -201,7 +237,10 @@ public class WorkingSessionService {
         validateBreakRequest(session, breakMinutes);
         
         session.setBreakDurationMinutes(session.getBreakDurationMinutes() + breakMinutes);
-        return sessionRepository.save(session);
+        WorkingSession saved = sessionRepository.save(session);
+        activeSessionRegistry.update(saved);
+        publish(SessionBoardEvent.Type.BREAK, saved);
+        return saved;
     }
     
     private void validateBreakRequest(WorkingSession session, long breakMinutes) {
@@ -221,7 +260,7 @@ public class WorkingSessionService {
     }
     
     public WorkingSessionResponse getCurrentSession(String employeeId) {
-        return sessionRepository.findActiveSessionByEmployeeId(employeeId)
+        return activeSessionRegistry.find(employeeId)
                 .map(this::mapToResponse)
                 .orElse(null);
     }
@@ -240,81 +279,135 @@ public class WorkingSessionService {
                 .toList();
     }
     
+    // Read from the daily rollups once they are backfilled, otherwise summed per day in Mongo;
+    // totalDays keeps counting sessions, not distinct dates
     public WorkingHoursReport generateEmployeeReport(String employeeId, LocalDate startDate, LocalDate endDate) {
-        List<WorkingSession> sessions = sessionRepository.findByEmployeeIdAndDateBetween(employeeId, startDate, endDate);
-        
-        double totalHours = sessions.stream()
-                .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
-                .mapToDouble(WorkingSession::getTotalHours)
-                .sum();
-        
-        long totalDays = sessions.stream()
-                .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
-                .count();
+        List<DailyHours> days = labourRollupService.isBackfilled()
+            ? dailyRollups(employeeId, startDate, endDate)
+            : sessionRepository.sumHoursByDay(employeeId, startDate, endDate);
+        
+        double totalHours = 0;
+        int totalDays = 0;
+        Map<LocalDate, Double> dailyHours = new LinkedHashMap<>();
+        for (DailyHours day : days) {
+            totalHours += day.getHours();
+            totalDays += day.getSessions();
+            dailyHours.put(day.getDate(), day.getHours());
+        }
         
         double averageHours = totalDays > 0 ? totalHours / totalDays : 0;
         
-        Map<LocalDate, Double> dailyHours = sessions.stream()
-                .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
-                .collect(Collectors.toMap(
-                    WorkingSession::getDate,
-                    WorkingSession::getTotalHours,
-                    Double::sum
-                ));
-        
         WorkingHoursReport report = new WorkingHoursReport();
         report.setEmployeeId(employeeId);
         report.setStartDate(startDate);
         report.setEndDate(endDate);
         report.setTotalHours(totalHours);
-        report.setTotalDays((int) totalDays);
+        report.setTotalDays(totalDays);
         report.setAverageHoursPerDay(averageHours);
         report.setDailyHours(dailyHours);
         
         return report;
     }
     
+    public List<LabourRollup> getStoreLabour(String storeId, RollupGranularity granularity,
+                                             LocalDate startDate, LocalDate endDate) {
+        return labourRollupService.findPeriods(LabourRollup.Scope.STORE, storeId, granularity, startDate, endDate);
+    }
+    
+    // Report bounds are exclusive, like findByEmployeeIdAndDateBetween
+    private List<DailyHours> dailyRollups(String employeeId, LocalDate startDate, LocalDate endDate) {
+        return labourRollupService.findPeriods(LabourRollup.Scope.EMPLOYEE, employeeId, RollupGranularity.DAY,
+                startDate.plusDays(1), endDate.minusDays(1))
+            .stream()
+            .map(day -> new DailyHours(day.getPeriodStart(), day.getHours(), day.getSessions()))
+            .toList();
+    }
+    
     public List<WorkingSessionResponse> getActiveSessionsForStore(String storeId) {
-        return sessionRepository.findActiveSessionsByStoreId(storeId)
+        return activeSessionRegistry.findByStoreId(storeId)
                 .stream()
                 .map(this::mapToResponse)
                 .toList();
     }
     
+    // Snapshot comes from the registry, so a subscription never touches Mongo
+    public SseEmitter subscribeToStoreBoard(String storeId) {
+        return sessionBoard.subscribe(storeId, () -> getActiveSessionsForStore(storeId));
+    }
+    
     public boolean isEmployeeCurrentlyWorking(String employeeId) {
-        return sessionRepository.findActiveSessionByEmployeeId(employeeId).isPresent();
+        return activeSessionRegistry.isActive(employeeId);
     }
     
     public Duration getCurrentWorkingDuration(String employeeId) {
-        return sessionRepository.findActiveSessionByEmployeeId(employeeId)
+        return activeSessionRegistry.find(employeeId)
                 .map(WorkingSession::getWorkingDuration)
                 .orElse(Duration.ZERO);
     }
     
+    // Field-level updates, so a rolledUpHours written by the rollup sweep in between is not overwritten
     @Transactional
     public void approveSession(String sessionId, String managerId) {
-        WorkingSession session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Session not found"));
-        
-        session.setStatus(WorkingSessionStatus.APPROVED);
-        session.setApprovedBy(managerId);
-        session.setApprovalTime(LocalDateTime.now());
-        session.setRequiresApproval(false);
-        
-        sessionRepository.save(session);
+        WorkingSession saved = updateSession(sessionId, new Update()
+                .set("status", WorkingSessionStatus.APPROVED)
+                .set("approvedBy", managerId)
+                .set("approvalTime", LocalDateTime.now())
+                .set("requiresApproval", false)
+                .set("lastModified", LocalDateTime.now()));
+        recordRollup(saved);
+        publish(SessionBoardEvent.Type.APPROVED, saved);
     }
     
     @Transactional
     public void rejectSession(String sessionId, String managerId, String reason) {
-        WorkingSession session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Session not found"));
-        
-        session.setStatus(WorkingSessionStatus.REJECTED);
-        session.setApprovedBy(managerId);
-        session.setApprovalTime(LocalDateTime.now());
-        session.addViolation(new SessionViolation("MANAGER_REJECTION", reason));
-        
-        sessionRepository.save(session);
+        // Like addViolation, a session carries at most one rejection violation
+        WorkingSession saved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(sessionId).and("violations.violationType").ne("MANAGER_REJECTION")),
+                rejection(managerId).push("violations", new SessionViolation("MANAGER_REJECTION", reason)),
+                FindAndModifyOptions.options().returnNew(true), WorkingSession.class);
+        if (saved == null) {
+            saved = updateSession(sessionId, rejection(managerId));
+        }
+        recordRollup(saved);
+        publish(SessionBoardEvent.Type.REJECTED, saved);
+    }
+    
+    private static Update rejection(String managerId) {
+        return new Update()
+                .set("status", WorkingSessionStatus.REJECTED)
+                .set("approvedBy", managerId)
+                .set("approvalTime", LocalDateTime.now())
+                .set("requiresApproval", true)
+                .set("lastModified", LocalDateTime.now());
+    }
+    
+    private WorkingSession updateSession(String sessionId, Update update) {
+        WorkingSession updated = mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(sessionId)), update,
+                FindAndModifyOptions.options().returnNew(true), WorkingSession.class);
+        if (updated == null) {
+            throw new RuntimeException("Session not found");
+        }
+        return updated;
+    }
+    
+    // The session change is already saved; a missed rollup is repaired by the rollup sweep
+    private void recordRollup(WorkingSession session) {
+        try {
+            labourRollupService.record(session);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to update labour rollups for session {}, the sweep will retry", session.getId(), e);
+        }
+    }
+    
+    // Violations raised by a start or end are announced as a separate event after it
+    private void publish(SessionBoardEvent.Type type, WorkingSession session) {
+        WorkingSessionResponse response = mapToResponse(session);
+        sessionBoard.publish(new SessionBoardEvent(type, session.getStoreId(), response, session.getStatus(), null));
+        boolean raisesViolations = type == SessionBoardEvent.Type.STARTED || type == SessionBoardEvent.Type.ENDED;
+        if (raisesViolations && session.getViolations() != null && !session.getViolations().isEmpty()) {
+            sessionBoard.publish(new SessionBoardEvent(SessionBoardEvent.Type.VIOLATION, session.getStoreId(), response,
+                session.getStatus(), session.getViolations()));
+        }
     }
     
     private WorkingSessionResponse mapToResponse(WorkingSession session) {
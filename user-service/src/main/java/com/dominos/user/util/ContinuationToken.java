@@ -0,0 +1,52 @@
+package com.dominos.user.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Objects;
+
+// Opaque keyset pagination token: the last key of the previous page, bound to a fingerprint of
+// the filters so a token cannot be replayed against a different search.
+public final class ContinuationToken {
+    
+    private static final String VERSION = "1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    
+    private ContinuationToken() {}
+    
+    public static String fingerprint(Object... filters) {
+        String joined = String.join("\u0000", Arrays.stream(filters).map(f -> Objects.toString(f, "")).toList());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(joined.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public static String encode(String lastKey, String fingerprint) {
+        return ENCODER.encodeToString((VERSION + ":" + fingerprint + ":" + lastKey).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static String decode(String token, String fingerprint) {
+        String decoded;
+        try {
+            decoded = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        
+        String[] parts = decoded.split(":", 3);
+        if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[2].isEmpty()) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+        if (!parts[1].equals(fingerprint)) {
+            throw new IllegalArgumentException("Page token does not match the search filters");
+        }
+        return parts[2];
+    }
+}
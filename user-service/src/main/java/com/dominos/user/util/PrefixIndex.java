@@ -0,0 +1,157 @@
+package com.dominos.user.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Immutable prefix index over the words of a text field: a sorted array of normalized tokens,
+// each pointing back at its value. A lookup is one binary search plus a scan of the matching run.
+// Updates rebuild a new instance, which is cheap at store scale (hundreds of values).
+public final class PrefixIndex<T> {
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    
+    // Rough JVM sizes used for the memory budget
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE = 4;
+    
+    private final List<T> values;
+    private final String[][] valueTokens;
+    private final String[] tokens;
+    private final int[] owners;
+    private final long estimatedBytes;
+    
+    private PrefixIndex(List<T> values, String[][] valueTokens, String[] tokens, int[] owners, long valueBytes) {
+        this.values = values;
+        this.valueTokens = valueTokens;
+        this.tokens = tokens;
+        this.owners = owners;
+        
+        long bytes = valueBytes + 3L * OBJECT_OVERHEAD + (long) values.size() * REFERENCE * 2 + (long) owners.length * (4 + REFERENCE);
+        for (String token : tokens) {
+            bytes += OBJECT_OVERHEAD * 2 + token.length();
+        }
+        this.estimatedBytes = bytes;
+    }
+    
+    public static <T> PrefixIndex<T> build(Collection<T> values, Function<T, String> text, long bytesPerValue) {
+        List<T> list = List.copyOf(values);
+        String[][] valueTokens = new String[list.size()][];
+        
+        List<String> allTokens = new ArrayList<>();
+        List<Integer> allOwners = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            valueTokens[i] = tokenize(text.apply(list.get(i)));
+            for (String token : valueTokens[i]) {
+                allTokens.add(token);
+                allOwners.add(i);
+            }
+        }
+        
+        // Sort token positions, then lay tokens and owners out in that order
+        Integer[] positions = new Integer[allTokens.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, (a, b) -> allTokens.get(a).compareTo(allTokens.get(b)));
+        
+        String[] tokens = new String[positions.length];
+        int[] owners = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            tokens[i] = allTokens.get(positions[i]);
+            owners[i] = allOwners.get(positions[i]);
+        }
+        return new PrefixIndex<>(list, valueTokens, tokens, owners, bytesPerValue * list.size());
+    }
+    
+    // Every query word must prefix some word of the value; results follow token order
+    public List<T> search(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        
+        String first = queryTokens[0];
+        int[] seen = new int[Math.min(limit, values.size())];
+        List<T> results = new ArrayList<>(seen.length);
+        
+        for (int i = lowerBound(first); i < tokens.length && tokens[i].startsWith(first); i++) {
+            int owner = owners[i];
+            if (contains(seen, results.size(), owner) || !matchesRest(valueTokens[owner], queryTokens)) {
+                continue;
+            }
+            seen[results.size()] = owner;
+            results.add(values.get(owner));
+            if (results.size() == seen.length) {
+                break;
+            }
+        }
+        return results;
+    }
+    
+    public List<T> values() {
+        return values;
+    }
+    
+    public int size() {
+        return values.size();
+    }
+    
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    public static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(normalized)).filter(token -> !token.isEmpty()).toArray(String[]::new);
+    }
+    
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static boolean matchesRest(String[] candidate, String[] queryTokens) {
+        for (int q = 1; q < queryTokens.length; q++) {
+            boolean matched = false;
+            for (String token : candidate) {
+                if (token.startsWith(queryTokens[q])) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean contains(int[] seen, int count, int owner) {
+        for (int i = 0; i < count; i++) {
+            if (seen[i] == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
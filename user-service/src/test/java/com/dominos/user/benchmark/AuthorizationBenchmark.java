@@ -0,0 +1,117 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.security.PermissionClaims;
+import com.dominos.user.security.PermissionRegistry;
+import com.dominos.user.security.RequiresRole;
+import com.dominos.user.security.RoleMaskAuthorizationManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Compares the SpEL @PreAuthorize expressions the controllers used with @RequiresRole bit masks.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.AuthorizationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+    
+    private PreAuthorizeAuthorizationManager spel;
+    private RoleMaskAuthorizationManager bitmask;
+    private Supplier<Authentication> driver;
+    
+    private SimpleMethodInvocation spelAnyEmployee;
+    private SimpleMethodInvocation spelSelfOrManager;
+    private SimpleMethodInvocation maskAnyEmployee;
+    private SimpleMethodInvocation maskSelfOrManager;
+    
+    @Setup
+    public void setup() throws Exception {
+        PermissionRegistry registry = new PermissionRegistry(List.of("TAKE_ORDERS", "VIEW_REPORTS"));
+        spel = new PreAuthorizeAuthorizationManager();
+        bitmask = new RoleMaskAuthorizationManager(() -> registry);
+        
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "driver-1", null, List.of(new SimpleGrantedAuthority("ROLE_DRIVER")));
+        authentication.setDetails(new JwtPrincipal("driver-1", "DRIVER", "store-1", "jti", Instant.now(),
+            Instant.now().plusSeconds(3600), new PermissionClaims(0, UserType.DRIVER, "store-1", 0L)));
+        driver = () -> authentication;
+        
+        SpelEndpoints spelTarget = new SpelEndpoints();
+        MaskEndpoints maskTarget = new MaskEndpoints();
+        spelAnyEmployee = new SimpleMethodInvocation(spelTarget, SpelEndpoints.class.getMethod("startSession"));
+        spelSelfOrManager = new SimpleMethodInvocation(spelTarget,
+            SpelEndpoints.class.getMethod("getReport", String.class), "driver-1");
+        maskAnyEmployee = new SimpleMethodInvocation(maskTarget, MaskEndpoints.class.getMethod("startSession"));
+        maskSelfOrManager = new SimpleMethodInvocation(maskTarget,
+            MaskEndpoints.class.getMethod("getReport", String.class), "driver-1");
+    }
+    
+    @Benchmark
+    public boolean spelAnyEmployeeRole() {
+        return spel.check(driver, spelAnyEmployee).isGranted();
+    }
+    
+    @Benchmark
+    public boolean bitmaskAnyEmployeeRole() {
+        return bitmask.check(driver, maskAnyEmployee).isGranted();
+    }
+    
+    @Benchmark
+    public boolean spelSelfOrManager() {
+        return spel.check(driver, spelSelfOrManager).isGranted();
+    }
+    
+    @Benchmark
+    public boolean bitmaskSelfOrManager() {
+        return bitmask.check(driver, maskSelfOrManager).isGranted();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(AuthorizationBenchmark.class.getSimpleName()).build()).run();
+    }
+    
+    public static class SpelEndpoints {
+        
+        @PreAuthorize("hasRole('STAFF') or hasRole('DRIVER') or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+        public void startSession() {}
+        
+        @PreAuthorize("#employeeId == authentication.name or hasRole('MANAGER') or hasRole('ASSISTANT_MANAGER')")
+        public void getReport(@PathVariable String employeeId) {}
+    }
+    
+    public static class MaskEndpoints {
+        
+        @RequiresRole({UserType.STAFF, UserType.DRIVER, UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+        public void startSession() {}
+        
+        @RequiresRole(value = {UserType.MANAGER, UserType.ASSISTANT_MANAGER}, self = "employeeId")
+        public void getReport(@PathVariable String employeeId) {}
+    }
+}
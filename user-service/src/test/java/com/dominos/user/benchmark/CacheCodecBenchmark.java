@@ -0,0 +1,158 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.shared.entity.Store;
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.shared.model.Address;
+import com.dominos.shared.model.SpecialHours;
+import com.dominos.shared.model.TimeSlot;
+import com.dominos.shared.model.WorkSchedule;
+import com.dominos.user.cache.CacheValueCodec;
+import com.dominos.user.config.CacheConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Redis payload size and encode/decode cost per cached entity: plain JSON (what a Jackson serializer
+// writes) vs Smile vs Smile deflated above 1 KiB. Byte counts are printed during setup.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.CacheCodecBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+    
+    private static final String[] DAYS = { "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY" };
+    
+    @Param({ "USER", "STORE" })
+    public String entity;
+    
+    @Param({ "JSON", "SMILE", "SMILE_DEFLATE" })
+    public String codec;
+    
+    private CacheValueCodec<Object> valueCodec;
+    private Object value;
+    private byte[] encoded;
+    
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        value = entity.equals("USER") ? user() : store();
+        CacheValueCodec.Format format = codec.equals("JSON") ? CacheValueCodec.Format.JSON : CacheValueCodec.Format.SMILE;
+        int threshold = codec.equals("SMILE_DEFLATE") ? 1024 : 0;
+        valueCodec = new CacheValueCodec<>((Class<Object>) value.getClass(), format, 1, threshold,
+            CacheConfig.cacheObjectMapper(), CacheConfig.smileCacheObjectMapper());
+        encoded = valueCodec.serialize(value);
+        System.out.printf("%n%s as %s: %,d bytes%n", entity, codec, encoded.length);
+    }
+    
+    @Benchmark
+    public byte[] encode() {
+        return valueCodec.serialize(value);
+    }
+    
+    @Benchmark
+    public Object decode() {
+        return valueCodec.deserialize(encoded);
+    }
+    
+    private static User user() {
+        User.PersonalInfo info = new User.PersonalInfo();
+        info.setName("Asha Raman");
+        info.setEmail("asha.raman@example.com");
+        info.setPhone("9876500001");
+        info.setPasswordHash("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        info.setAddress(address());
+        
+        User user = new User(UserType.STAFF, info);
+        user.setId("65a1f0c2e4b0a1b2c3d4e5f6");
+        user.setLastLogin(LocalDateTime.now());
+        User.EmployeeDetails details = new User.EmployeeDetails();
+        details.setStoreId("store-1");
+        details.setRole("Crew Member");
+        details.setPermissions(List.of("TAKE_ORDERS", "VIEW_MENU", "UPDATE_ORDER_STATUS"));
+        WorkSchedule schedule = new WorkSchedule();
+        Map<String, WorkSchedule.ShiftTime> weekly = new LinkedHashMap<>();
+        for (String day : DAYS) {
+            WorkSchedule.ShiftTime shift = new WorkSchedule.ShiftTime();
+            shift.setStartTime(LocalTime.of(9, 0));
+            shift.setEndTime(LocalTime.of(17, 0));
+            shift.setWorkingDay(!day.equals("SUNDAY"));
+            weekly.put(day, shift);
+        }
+        schedule.setWeeklySchedule(weekly);
+        schedule.setMaxHoursPerWeek(48);
+        details.setSchedule(schedule);
+        user.setEmployeeDetails(details);
+        return user;
+    }
+    
+    // A store with a year of weekly special hours, the largest graph the stores cache holds
+    private static Store store() {
+        Store store = new Store("MG Road", "DOM001", address(), "9876543210");
+        store.setId("65a1f0c2e4b0a1b2c3d4e5f7");
+        store.setRegionId("south");
+        store.setAreaManagerId("65a1f0c2e4b0a1b2c3d4e5f8");
+        store.setOpeningDate(LocalDateTime.of(2019, 6, 1, 10, 0));
+        store.setConfiguration(new Store.StoreConfiguration());
+        
+        Map<DayOfWeek, TimeSlot> weekly = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            weekly.put(day, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(23, 0)));
+        }
+        List<SpecialHours> special = new ArrayList<>();
+        for (int i = 0; i < 52; i++) {
+            SpecialHours hours = new SpecialHours();
+            hours.setDate(LocalDate.of(2024, 1, 1).plusWeeks(i));
+            hours.setReason(i % 4 == 0 ? "Public holiday" : "Extended hours");
+            hours.setDescription("Adjusted schedule for week " + (i + 1));
+            hours.setClosed(i % 4 == 0);
+            hours.setTimeSlot(new TimeSlot(LocalTime.of(11, 0), LocalTime.of(1, 0)));
+            special.add(hours);
+        }
+        Store.OperatingHours operatingHours = new Store.OperatingHours();
+        operatingHours.setWeeklySchedule(weekly);
+        operatingHours.setSpecialHours(special);
+        store.setOperatingHours(operatingHours);
+        return store;
+    }
+    
+    private static Address address() {
+        Address address = new Address();
+        address.setStreet("12 MG Road");
+        address.setCity("Bengaluru");
+        address.setState("Karnataka");
+        address.setPincode("560001");
+        address.setLatitude(12.97);
+        address.setLongitude(77.59);
+        return address;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(CacheCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.user.util.PrefixIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Autocomplete over a 500-employee store: prefix index lookup vs the linear contains() scan
+// searchUsers used to do. Run with: mvn -pl user-service test-compile exec:java
+//   -Dexec.classpathScope=test -Dexec.mainClass=com.dominos.user.benchmark.EmployeeNameIndexBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeNameIndexBenchmark {
+    
+    private static final String[] FIRST = { "Aarav", "Priya", "Rahul", "Sneha", "Vikram", "Ananya", "Rohan", "Kavya",
+        "Arjun", "Meera", "John", "Maria", "Ahmed", "Fatima", "Li", "Sofia", "Diego", "Amélie", "Noah", "Zara" };
+    private static final String[] LAST = { "Sharma", "Patel", "Reddy", "Iyer", "Khan", "Singh", "Nair", "Gupta",
+        "Smith", "Garcia", "Chen", "Hassan", "Kumar", "Das", "Joshi", "Mehta", "Rao", "Bose", "Pillai", "Verma" };
+    
+    @Param({ "500" })
+    public int employees;
+    
+    @Param({ "r", "ra", "rah" })
+    public String query;
+    
+    private PrefixIndex<String> index;
+    private List<String> names;
+    
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        names = new ArrayList<>();
+        for (int i = 0; i < employees; i++) {
+            names.add(FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)] + " " + i);
+        }
+        index = PrefixIndex.build(names, name -> name, 256);
+    }
+    
+    @Benchmark
+    public List<String> prefixIndex() {
+        return index.search(query, 10);
+    }
+    
+    @Benchmark
+    public List<String> linearScan() {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<String> results = new ArrayList<>();
+        for (String name : names) {
+            if (name.toLowerCase(Locale.ROOT).contains(needle)) {
+                results.add(name);
+                if (results.size() == 10) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+    
+    @Benchmark
+    public PrefixIndex<String> rebuild() {
+        return PrefixIndex.build(names, name -> name, 256);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(EmployeeNameIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.user.export.PayrollExportFormat;
+import com.dominos.user.export.PayrollRowWriter;
+import com.dominos.user.service.PayrollExportService;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Export throughput in rows per second: decoding the projected BSON the cursor returns, mapping it to a
+// PayrollRow and writing CSV or columnar blocks to a byte-counting sink. Rows cycle over a fixed pool of
+// documents larger than a block, so the benchmark itself runs in constant heap (try -jvmArgs -Xmx64m)
+// without flattering the compression. Bytes per row are printed at teardown.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.PayrollExportBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollExportBenchmark {
+    
+    private static final int ROWS = 100_000;
+    private static final int POOL = 10_000;
+    private static final DocumentCodec CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+    
+    @Param({ "CSV", "COLUMNAR" })
+    public PayrollExportFormat format;
+    
+    private byte[][] documents;
+    private long bytes;
+    private long rows;
+    
+    @Setup
+    public void setup() {
+        documents = new byte[POOL][];
+        LocalDateTime day = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < POOL; i++) {
+            LocalDateTime login = day.plusDays(i / 400).plusMinutes(i % 60);
+            Document session = new Document("_id", new ObjectId())
+                .append("employeeId", new ObjectId().toHexString())
+                .append("storeId", "store-" + (i % 40))
+                .append("date", toDate(login.toLocalDate().atStartOfDay()))
+                .append("loginTime", toDate(login))
+                .append("logoutTime", toDate(login.plusHours(6 + i % 4)))
+                .append("totalHours", 6.0 + i % 4 - 0.25)
+                .append("breakDurationMinutes", 15L)
+                .append("status", i % 20 == 0 ? "PENDING_APPROVAL" : "COMPLETED")
+                .append("requiresApproval", i % 20 == 0)
+                .append("violationCount", i % 20 == 0 ? 1 : 0);
+            if (i % 20 != 0) {
+                session.append("approvedBy", "manager-" + (i % 40));
+            }
+            RawBsonDocument raw = new RawBsonDocument(session, CODEC);
+            documents[i] = new byte[raw.getByteBuffer().remaining()];
+            raw.getByteBuffer().get(documents[i]);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long export() throws IOException {
+        CountingSink sink = new CountingSink();
+        PayrollRowWriter writer = format.writer(sink, 5_000, true);
+        for (int i = 0; i < ROWS; i++) {
+            try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(documents[i % POOL]))) {
+                writer.write(PayrollExportService.toRow(CODEC.decode(reader, DecoderContext.builder().build())));
+            }
+        }
+        writer.finish();
+        bytes += sink.count;
+        rows += ROWS;
+        return sink.count;
+    }
+    
+    @TearDown
+    public void report() {
+        if (rows > 0) {
+            System.out.printf("%n%s: %.1f bytes per row%n", format, (double) bytes / rows);
+        }
+    }
+    
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+    
+    private static class CountingSink extends OutputStream {
+        
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(PayrollExportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
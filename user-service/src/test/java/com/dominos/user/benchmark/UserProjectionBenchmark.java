@@ -0,0 +1,211 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.shared.model.Address;
+import com.dominos.shared.model.WorkSchedule;
+import com.dominos.user.repository.UserSummary;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// BSON bytes and decode cost per listing request: full User documents (what findByType/findByStoreId
+// returned) vs the UserSummary.LIST_FIELDS projection. Byte counts are printed during setup.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.UserProjectionBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserProjectionBenchmark {
+    
+    private static final DocumentCodec CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+    private static final String[] DAYS = { "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY" };
+    
+    @Param({ "CUSTOMER", "STAFF" })
+    public UserType type;
+    
+    @Param({ "200" })
+    public int rows;
+    
+    private MappingMongoConverter converter;
+    private List<byte[]> full;
+    private List<byte[]> projected;
+    
+    @Setup
+    public void setup() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        
+        Document fields = Document.parse(UserSummary.LIST_FIELDS);
+        full = new ArrayList<>();
+        projected = new ArrayList<>();
+        long fullBytes = 0;
+        long projectedBytes = 0;
+        for (int i = 0; i < rows; i++) {
+            Document document = new Document();
+            converter.write(user(i), document);
+            byte[] fullEncoded = encode(document);
+            byte[] projectedEncoded = encode(project(document, fields));
+            full.add(fullEncoded);
+            projected.add(projectedEncoded);
+            fullBytes += fullEncoded.length;
+            projectedBytes += projectedEncoded.length;
+        }
+        System.out.printf("%n%s listing of %d rows: full %,d bytes, projected %,d bytes (%.0f%%)%n",
+            type, rows, fullBytes, projectedBytes, 100.0 * projectedBytes / fullBytes);
+    }
+    
+    @Benchmark
+    public List<User> decodeFullUsers() {
+        List<User> users = new ArrayList<>(rows);
+        for (byte[] bytes : full) {
+            users.add(converter.read(User.class, decode(bytes)));
+        }
+        return users;
+    }
+    
+    @Benchmark
+    public List<UserSummary> decodeSummaries() {
+        List<UserSummary> users = new ArrayList<>(rows);
+        for (byte[] bytes : projected) {
+            users.add(converter.read(UserSummary.class, decode(bytes)));
+        }
+        return users;
+    }
+    
+    private User user(int i) {
+        User.PersonalInfo info = new User.PersonalInfo();
+        info.setName("Employee Number " + i);
+        info.setEmail("user" + i + "@example.com");
+        info.setPhone("98765" + String.format("%05d", i));
+        info.setPasswordHash("$2a$10$" + "N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy".substring(i % 7));
+        Address address = new Address();
+        address.setStreet(i + " MG Road");
+        address.setCity("Bengaluru");
+        address.setState("Karnataka");
+        address.setPincode("560001");
+        address.setLatitude(12.97);
+        address.setLongitude(77.59);
+        info.setAddress(address);
+        
+        User user = new User(type, info);
+        user.setId(new ObjectId().toHexString());
+        user.setLastLogin(LocalDateTime.now().minusHours(i));
+        
+        if (type == UserType.CUSTOMER) {
+            User.CustomerPreferences preferences = new User.CustomerPreferences();
+            List<String> orders = new ArrayList<>();
+            for (int o = 0; o < 20; o++) {
+                orders.add(new ObjectId().toHexString());
+            }
+            preferences.setFavoriteOrders(orders);
+            preferences.setPaymentMethods(List.of("UPI", "CARD", "CASH"));
+            Map<String, Object> dietary = new LinkedHashMap<>();
+            dietary.put("vegetarian", i % 2 == 0);
+            dietary.put("allergies", List.of("peanuts", "gluten"));
+            dietary.put("spiceLevel", "medium");
+            preferences.setDietaryRestrictions(dietary);
+            user.setPreferences(preferences);
+        } else {
+            User.EmployeeDetails details = new User.EmployeeDetails();
+            details.setStoreId("store-" + (i % 10));
+            details.setRole("Crew Member");
+            details.setPermissions(List.of("TAKE_ORDERS", "VIEW_MENU"));
+            WorkSchedule schedule = new WorkSchedule();
+            Map<String, WorkSchedule.ShiftTime> weekly = new LinkedHashMap<>();
+            for (String day : DAYS) {
+                WorkSchedule.ShiftTime shift = new WorkSchedule.ShiftTime();
+                shift.setStartTime(LocalTime.of(9, 0));
+                shift.setEndTime(LocalTime.of(17, 0));
+                shift.setWorkingDay(!day.equals("SUNDAY"));
+                weekly.put(day, shift);
+            }
+            schedule.setWeeklySchedule(weekly);
+            schedule.setMaxHoursPerWeek(48);
+            details.setSchedule(schedule);
+            user.setEmployeeDetails(details);
+        }
+        return user;
+    }
+    
+    // What the server returns for an inclusion projection on dotted paths
+    private static Document project(Document source, Document fields) {
+        Document result = new Document("_id", source.get("_id"));
+        for (String path : fields.keySet()) {
+            String[] parts = path.split("\\.");
+            Object value = source;
+            for (String part : parts) {
+                value = value instanceof Document document ? document.get(part) : null;
+            }
+            if (value == null) {
+                continue;
+            }
+            Document target = result;
+            for (int p = 0; p < parts.length - 1; p++) {
+                Object child = target.get(parts[p]);
+                if (!(child instanceof Document)) {
+                    child = new Document();
+                    target.put(parts[p], child);
+                }
+                target = (Document) child;
+            }
+            target.put(parts[parts.length - 1], value);
+        }
+        return result;
+    }
+    
+    private static byte[] encode(Document document) {
+        RawBsonDocument raw = new RawBsonDocument(document, CODEC);
+        byte[] bytes = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bytes);
+        return bytes;
+    }
+    
+    private static Document decode(byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return CODEC.decode(reader, DecoderContext.builder().build());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(UserProjectionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.user.bulkhead.BulkheadRegistry;
+import com.dominos.user.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Simulated load comparing the 200-thread platform pool with virtual threads. Each request does
+// one Redis round trip and one or more Mongo calls through the real BulkheadRegistry; the Mongo
+// driver pool (maxPoolSize 100) is modelled as a semaphore. One request in five is a report pull.
+// Latencies are sleeps, so results only compare how the two thread models queue and shed under
+// the same modelled I/O; they are not service throughput figures, which need a load test against
+// a running instance with real Mongo and Redis.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.VirtualThreadLoadBenchmark
+public class VirtualThreadLoadBenchmark {
+    
+    private static final int REQUESTS = 40_000;
+    private static final int CLIENTS = 2_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int MONGO_POOL = 100;
+    private static final long REDIS_MILLIS = 2;
+    private static final long MONGO_MILLIS = 5;
+    private static final int REPORT_MONGO_CALLS = 8;
+    
+    public static void main(String[] args) throws Exception {
+        for (boolean virtual : new boolean[] { false, true, false, true }) {
+            run(virtual);
+        }
+    }
+    
+    private static void run(boolean virtual) throws Exception {
+        BulkheadRegistry registry = registry();
+        Semaphore mongoPool = new Semaphore(MONGO_POOL, true);
+        Semaphore clients = new Semaphore(CLIENTS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger rejected = new AtomicInteger();
+        long[] sessionLatencies = new long[REQUESTS];
+        AtomicInteger sessionCount = new AtomicInteger();
+        
+        ExecutorService server = virtual
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            clients.acquire();
+            boolean report = i % 5 == 0;
+            long submitted = System.nanoTime();
+            server.execute(() -> {
+                registry.enter(report ? "reports" : "sessions");
+                try {
+                    try (BulkheadRegistry.Permit permit = registry.acquire(BulkheadRegistry.Resource.REDIS)) {
+                        Thread.sleep(REDIS_MILLIS);
+                    }
+                    for (int call = 0; call < (report ? REPORT_MONGO_CALLS : 1); call++) {
+                        try (BulkheadRegistry.Permit permit = registry.acquire(BulkheadRegistry.Resource.MONGO)) {
+                            mongoPool.acquire();
+                            try {
+                                Thread.sleep(MONGO_MILLIS);
+                            } finally {
+                                mongoPool.release();
+                            }
+                        }
+                    }
+                    if (!report) {
+                        sessionLatencies[sessionCount.getAndIncrement()] = System.nanoTime() - submitted;
+                    }
+                } catch (TooManyRequestsException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    registry.exit();
+                    clients.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        server.shutdown();
+        
+        long[] latencies = Arrays.copyOf(sessionLatencies, sessionCount.get());
+        Arrays.sort(latencies);
+        // Rejected requests fail fast with 429 and are not counted as throughput
+        System.out.printf("%-9s completed=%8.0f req/s  session p50=%6.1f ms  p99=%7.1f ms  rejected=%d%n",
+            virtual ? "virtual" : "platform", (REQUESTS - rejected.get()) / seconds,
+            percentile(latencies, 0.50), percentile(latencies, 0.99), rejected.get());
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1e6;
+    }
+    
+    private static BulkheadRegistry registry() {
+        BulkheadRegistry registry = new BulkheadRegistry();
+        ReflectionTestUtils.setField(registry, "environment", new MockEnvironment()
+            .withProperty("bulkheads.sessions.mongo", "48")
+            .withProperty("bulkheads.reports.mongo", "16"));
+        ReflectionTestUtils.setField(registry, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "enabled", true);
+        ReflectionTestUtils.setField(registry, "maxWaitMillis", 250L);
+        ReflectionTestUtils.setField(registry, "defaultMongoLimit", 64);
+        ReflectionTestUtils.setField(registry, "defaultRedisLimit", 64);
+        ReflectionTestUtils.setField(registry, "retryAfterSeconds", 1L);
+        return registry;
+    }
+}
@@ -0,0 +1,197 @@
+package com.dominos.user.benchmark;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.shared.model.Location;
+import com.dominos.shared.model.SessionViolation;
+import com.dominos.user.repository.DailyHours;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Client side of a working-hours report over a synthetic multi-year history: decoding every
+// WorkingSession and reducing it three times (the previous generateEmployeeReport) vs decoding the
+// per-day rows of the $match/$group pipeline. Byte counts are printed during setup; the server still
+// reads the matched documents for the $group, but none of them is sent or mapped.
+// Run with: mvn -pl user-service test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.dominos.user.benchmark.WorkingHoursReportBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkingHoursReportBenchmark {
+    
+    private static final DocumentCodec CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+    
+    @Param({ "5" })
+    public int years;
+    
+    private MappingMongoConverter converter;
+    private List<byte[]> sessions;
+    private List<byte[]> days;
+    
+    @Setup
+    public void setup() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        
+        Random random = new Random(42);
+        List<WorkingSession> history = new ArrayList<>();
+        LocalDate end = LocalDate.of(2024, 1, 1);
+        for (LocalDate date = end.minusYears(years); date.isBefore(end); date = date.plusDays(1)) {
+            // Six days a week, with an occasional split shift
+            if (random.nextInt(7) == 0) {
+                continue;
+            }
+            history.add(session(date, 9, 4 + random.nextInt(5), random));
+            if (random.nextInt(10) == 0) {
+                history.add(session(date, 18, 2 + random.nextInt(3), random));
+            }
+        }
+        
+        sessions = new ArrayList<>();
+        long sessionBytes = 0;
+        for (WorkingSession session : history) {
+            Document document = new Document();
+            converter.write(session, document);
+            byte[] encoded = encode(document);
+            sessions.add(encoded);
+            sessionBytes += encoded.length;
+        }
+        
+        // What the pipeline returns: { _id: date, hours, sessions } per day
+        Map<LocalDate, List<WorkingSession>> byDay = history.stream()
+            .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
+            .collect(Collectors.groupingBy(WorkingSession::getDate, TreeMap::new, Collectors.toList()));
+        days = new ArrayList<>();
+        long dayBytes = 0;
+        for (Map.Entry<LocalDate, List<WorkingSession>> day : byDay.entrySet()) {
+            Document row = new Document("_id", Date.from(day.getKey().atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .append("hours", day.getValue().stream().mapToDouble(WorkingSession::getTotalHours).sum())
+                .append("sessions", day.getValue().size());
+            byte[] encoded = encode(row);
+            days.add(encoded);
+            dayBytes += encoded.length;
+        }
+        
+        Report before = fromSessions();
+        Report after = fromDays();
+        if (before.totalDays != after.totalDays || Math.abs(before.totalHours - after.totalHours) > 1e-6
+                || !before.dailyHours.keySet().equals(after.dailyHours.keySet())) {
+            throw new IllegalStateException("Aggregated report differs from the in-memory report");
+        }
+        System.out.printf("%n%d-year history: %,d sessions, %,d bytes vs %,d day rows, %,d bytes (%.1f%%)%n",
+            years, sessions.size(), sessionBytes, days.size(), dayBytes, 100.0 * dayBytes / sessionBytes);
+    }
+    
+    @Benchmark
+    public Report fromSessions() {
+        List<WorkingSession> loaded = new ArrayList<>(sessions.size());
+        for (byte[] bytes : sessions) {
+            loaded.add(converter.read(WorkingSession.class, decode(bytes)));
+        }
+        double totalHours = loaded.stream()
+            .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
+            .mapToDouble(WorkingSession::getTotalHours)
+            .sum();
+        long totalDays = loaded.stream()
+            .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
+            .count();
+        Map<LocalDate, Double> dailyHours = loaded.stream()
+            .filter(s -> s.getTotalHours() != null && s.getStatus() != WorkingSessionStatus.REJECTED)
+            .collect(Collectors.toMap(WorkingSession::getDate, WorkingSession::getTotalHours, Double::sum));
+        return new Report(totalHours, (int) totalDays, dailyHours);
+    }
+    
+    @Benchmark
+    public Report fromDays() {
+        double totalHours = 0;
+        int totalDays = 0;
+        Map<LocalDate, Double> dailyHours = new LinkedHashMap<>();
+        for (byte[] bytes : days) {
+            DailyHours day = converter.read(DailyHours.class, decode(bytes));
+            totalHours += day.getHours();
+            totalDays += day.getSessions();
+            dailyHours.put(day.getDate(), day.getHours());
+        }
+        return new Report(totalHours, totalDays, dailyHours);
+    }
+    
+    public record Report(double totalHours, int totalDays, Map<LocalDate, Double> dailyHours) {}
+    
+    private static WorkingSession session(LocalDate date, int startHour, int hours, Random random) {
+        LocalDateTime login = date.atTime(startHour, random.nextInt(30));
+        WorkingSession session = new WorkingSession("employee-1", "store-1", login);
+        session.setId(new ObjectId().toHexString());
+        session.setLogoutTime(login.plusHours(hours).plusMinutes(random.nextInt(45)));
+        session.setBreakDurationMinutes((long) random.nextInt(3) * 15);
+        session.setActive(false);
+        session.calculateTotalHours();
+        session.setStatus(random.nextInt(50) == 0 ? WorkingSessionStatus.REJECTED : WorkingSessionStatus.COMPLETED);
+        session.setClockInLocation(new Location(12.9716 + random.nextDouble() / 1000, 77.5946));
+        session.setClockOutLocation(new Location(12.9716, 77.5946 + random.nextDouble() / 1000));
+        if (random.nextInt(5) == 0) {
+            session.addViolation(new SessionViolation("LATE_CLOCK_IN", "Clocked in after the scheduled shift start"));
+        }
+        return session;
+    }
+    
+    private static byte[] encode(Document document) {
+        RawBsonDocument raw = new RawBsonDocument(document, CODEC);
+        byte[] bytes = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bytes);
+        return bytes;
+    }
+    
+    private static Document decode(byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return CODEC.decode(reader, DecoderContext.builder().build());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(WorkingHoursReportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.dominos.user.bulkhead;
+
+import com.dominos.user.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkheadRegistryTest {
+    
+    private BulkheadRegistry registry;
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new BulkheadRegistry();
+        ReflectionTestUtils.setField(registry, "environment", new MockEnvironment().withProperty("bulkheads.reports.mongo", "1"));
+        ReflectionTestUtils.setField(registry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(registry, "enabled", true);
+        ReflectionTestUtils.setField(registry, "maxWaitMillis", 10L);
+        ReflectionTestUtils.setField(registry, "defaultMongoLimit", 4);
+        ReflectionTestUtils.setField(registry, "defaultRedisLimit", 4);
+        ReflectionTestUtils.setField(registry, "retryAfterSeconds", 1L);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        registry.exit();
+    }
+    
+    @Test
+    void acquire_ShouldRejectWhenCompartmentIsFull() throws Exception {
+        registry.enter("reports");
+        try (BulkheadRegistry.Permit held = registry.acquire(BulkheadRegistry.Resource.MONGO)) {
+            CompletableFuture<Void> other = CompletableFuture.runAsync(() -> {
+                registry.enter("reports");
+                try {
+                    registry.acquire(BulkheadRegistry.Resource.MONGO).close();
+                } finally {
+                    registry.exit();
+                }
+            });
+            
+            Exception e = assertThrows(Exception.class, other::join);
+            assertInstanceOf(TooManyRequestsException.class, e.getCause());
+            assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("bulkhead", "reports").tag("resource", "mongo").counter().count());
+            
+            // Other compartments and resources are unaffected
+            registry.acquire(BulkheadRegistry.Resource.REDIS).close();
+        }
+        assertEquals(1.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+    }
+    
+    @Test
+    void acquire_ShouldNotTakeSecondPermitForNestedCalls() {
+        registry.enter("reports");
+        try (BulkheadRegistry.Permit outer = registry.acquire(BulkheadRegistry.Resource.MONGO);
+             BulkheadRegistry.Permit inner = registry.acquire(BulkheadRegistry.Resource.MONGO)) {
+            assertEquals(0.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+        }
+    }
+    
+    @Test
+    void acquire_ShouldNotLimitWorkOutsideRequests() {
+        for (int i = 0; i < 10; i++) {
+            registry.acquire(BulkheadRegistry.Resource.MONGO);
+        }
+        assertTrue(meterRegistry.find("bulkhead.available").gauges().isEmpty());
+    }
+    
+    @Test
+    void wrap_ShouldBindBulkheadWhileWritingOnAnotherThread() throws Exception {
+        StreamingResponseBody body = out -> {
+            try (BulkheadRegistry.Permit permit = registry.acquire(BulkheadRegistry.Resource.MONGO)) {
+                out.write((int) meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+            }
+        };
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture.runAsync(() -> {
+            try {
+                registry.wrap("reports", body).writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).get();
+        
+        assertArrayEquals(new byte[] { 0 }, out.toByteArray());
+        assertEquals(1.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+    }
+    
+    @Test
+    void mongoProxy_ShouldHoldPermitUntilStreamIsClosed() {
+        MongoTemplate target = mock(MongoTemplate.class);
+        when(target.stream(any(Query.class), eq(Document.class))).thenReturn(Stream.of(new Document()));
+        when(target.count(any(Query.class), eq(Document.class))).thenReturn(1L);
+        MongoTemplate proxied = (MongoTemplate) new BulkheadBeanPostProcessor(provider())
+            .postProcessAfterInitialization(target, "mongoTemplate");
+        
+        registry.enter("reports");
+        Stream<Document> stream = proxied.stream(new Query(), Document.class);
+        registry.exit();
+        assertEquals(0.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+        
+        stream.close();
+        stream.close();
+        assertEquals(1.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+        
+        // Non-streaming calls release as soon as they return
+        registry.enter("reports");
+        proxied.count(new Query(), Document.class);
+        assertEquals(1.0, meterRegistry.get("bulkhead.available").tag("bulkhead", "reports").tag("resource", "mongo").gauge().value());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<BulkheadRegistry> provider() {
+        ObjectProvider<BulkheadRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(registry);
+        return provider;
+    }
+}
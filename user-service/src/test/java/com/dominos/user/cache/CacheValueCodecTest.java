@@ -0,0 +1,83 @@
+package com.dominos.user.cache;
+
+import com.dominos.shared.entity.Store;
+import com.dominos.shared.model.Address;
+import com.dominos.shared.model.SpecialHours;
+import com.dominos.shared.model.TimeSlot;
+import com.dominos.user.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheValueCodecTest {
+    
+    @Test
+    void serialize_ShouldRoundTripStoreThroughCompressedSmile() {
+        CacheValueCodec<Store> codec = codec(CacheValueCodec.Format.SMILE, 1, 256);
+        Store store = store();
+        
+        byte[] bytes = codec.serialize(store);
+        Store copy = codec.deserialize(bytes);
+        
+        assertEquals(CacheValueCodec.MAGIC, bytes[0]);
+        assertEquals(1, bytes[4] & 1, "value above the threshold should be deflated");
+        assertEquals(store.getCode(), copy.getCode());
+        assertEquals(LocalTime.of(23, 0), copy.getOperatingHours().getWeeklySchedule().get(DayOfWeek.FRIDAY).getEndTime());
+        assertEquals(30, copy.getOperatingHours().getSpecialHours().size());
+        assertTrue(copy.getOperatingHours().getSpecialHours().get(0).isClosed());
+    }
+    
+    @Test
+    void deserialize_ShouldTreatOtherSchemaVersionsAsMiss() {
+        byte[] written = codec(CacheValueCodec.Format.SMILE, 1, 0).serialize(store());
+        
+        assertNull(codec(CacheValueCodec.Format.SMILE, 2, 0).deserialize(written));
+        assertNull(codec(CacheValueCodec.Format.SMILE, 1, 0).deserialize("{\"code\":\"DOM001\"}".getBytes()));
+    }
+    
+    @Test
+    void deserialize_ShouldReadValuesWrittenInTheOtherFormat() {
+        byte[] json = codec(CacheValueCodec.Format.JSON, 1, 0).serialize(store());
+        
+        assertEquals("DOM001", codec(CacheValueCodec.Format.SMILE, 1, 0).deserialize(json).getCode());
+    }
+    
+    private static CacheValueCodec<Store> codec(CacheValueCodec.Format format, int schemaVersion, int threshold) {
+        return new CacheValueCodec<>(Store.class, format, schemaVersion, threshold,
+            CacheConfig.cacheObjectMapper(), CacheConfig.smileCacheObjectMapper());
+    }
+    
+    private static Store store() {
+        Address address = new Address();
+        address.setStreet("12 MG Road");
+        address.setCity("Bengaluru");
+        Store store = new Store("MG Road", "DOM001", address, "9876543210");
+        store.setId("store-1");
+        
+        Map<DayOfWeek, TimeSlot> weekly = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            weekly.put(day, new TimeSlot(LocalTime.of(10, 0), LocalTime.of(23, 0)));
+        }
+        List<SpecialHours> special = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            SpecialHours hours = new SpecialHours();
+            hours.setDate(LocalDate.of(2024, 1, 1).plusDays(i * 7L));
+            hours.setReason("Holiday " + i);
+            hours.setClosed(i % 3 == 0);
+            special.add(hours);
+        }
+        Store.OperatingHours operatingHours = new Store.OperatingHours();
+        operatingHours.setWeeklySchedule(weekly);
+        operatingHours.setSpecialHours(special);
+        store.setOperatingHours(operatingHours);
+        return store;
+    }
+}
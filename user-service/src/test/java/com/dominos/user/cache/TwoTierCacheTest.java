@@ -0,0 +1,177 @@
+package com.dominos.user.cache;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.config.CacheConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TwoTierCacheTest {
+    
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("users", false);
+    private final List<String> published = new ArrayList<>();
+    private final TwoTierCache cache = new TwoTierCache("users", Caffeine.newBuilder().build(), remote,
+        (name, key) -> published.add(name + ":" + key), Duration.ofHours(1), 0, Runnable::run);
+    
+    @Test
+    void get_ShouldPromoteRemoteHitsIntoLocalTier() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        remote.put("user1", entry("value"));
+        
+        assertEquals("value", cache.get("user1", String.class));
+        remote.evict("user1");
+        assertEquals("value", cache.get("user1", String.class));
+        
+        assertEquals(0.5, registry.get("cache.tier.hit.ratio").tags("tier", "l1").gauge().value());
+        assertEquals(1.0, registry.get("cache.tier.hit.ratio").tags("tier", "l2").gauge().value());
+    }
+    
+    @Test
+    void evict_ShouldDropBothTiersAndAnnounceIt() {
+        cache.put("user1", "value");
+        cache.evict("user1");
+        
+        assertNull(cache.get("user1"));
+        assertNull(remote.get("user1"));
+        assertEquals(List.of("users:user1", "users:user1"), published);
+        
+        // Another instance's announcement only touches L1
+        remote.put("user2", entry("shared"));
+        cache.get("user2");
+        cache.invalidateLocal("user2");
+        assertEquals("shared", cache.get("user2", String.class));
+    }
+    
+    @Test
+    void get_ShouldFallBackToLoaderWhenRemoteTierFails() {
+        Cache failing = mock(Cache.class);
+        when(failing.get("user1")).thenThrow(new IllegalStateException("redis down"));
+        TwoTierCache degraded = new TwoTierCache("users", Caffeine.newBuilder().build(), failing, (name, key) -> {},
+            Duration.ofHours(1), 0, Runnable::run);
+        
+        assertEquals("loaded", degraded.get("user1", () -> "loaded"));
+        assertEquals("loaded", degraded.get("user1", String.class));
+    }
+    
+    @Test
+    void get_ShouldCoalesceConcurrentMissesIntoOneLoad() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(callers.submit(() -> cache.get("user1", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return "loaded";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(callers.submit(() -> cache.get("user1", () -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            while (registry.get("cache.loads.coalesced").functionCounter().count() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1.0, registry.get("cache.loads").functionCounter().count());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void get_ShouldRefreshEntryAheadOfExpiry() {
+        // A slow load close to expiry is always refreshed: the expiry is within any XFetch gap
+        remote.put("user1", new CacheEntry("stale", 60_000, System.currentTimeMillis() + 1));
+        TwoTierCache refreshing = new TwoTierCache("users", Caffeine.newBuilder().build(), remote, (name, key) -> {},
+            Duration.ofHours(1), 1.0, Runnable::run);
+        
+        assertEquals("stale", refreshing.get("user1", () -> "fresh"));
+        assertEquals("fresh", refreshing.get("user1", String.class));
+        assertEquals("fresh", ((CacheEntry) remote.get("user1").get()).value());
+    }
+    
+    @Test
+    void get_ShouldSkipRefreshWhenExecutorIsSaturated() {
+        remote.put("user1", new CacheEntry("stale", 60_000, System.currentTimeMillis() + 1));
+        AtomicInteger submitted = new AtomicInteger();
+        TwoTierCache refreshing = new TwoTierCache("users", Caffeine.newBuilder().build(), remote, (name, key) -> {},
+            Duration.ofHours(1), 1.0, task -> {
+                if (submitted.incrementAndGet() == 1) {
+                    throw new RejectedExecutionException("queue full");
+                }
+                task.run();
+            });
+        
+        // The rejected refresh is dropped and does not leave the key marked as in flight
+        assertEquals("stale", refreshing.get("user1", () -> "fresh"));
+        refreshing.invalidateLocal("user1");
+        assertEquals("stale", refreshing.get("user1", () -> "fresh"));
+        assertEquals(2, submitted.get());
+        assertEquals("fresh", ((CacheEntry) remote.get("user1").get()).value());
+    }
+    
+    @Test
+    void cacheEntrySerializer_ShouldKeepExpiryAndLoadTime() {
+        CacheEntrySerializer serializer = new CacheEntrySerializer(
+            new Jackson2JsonRedisSerializer<>(CacheConfig.cacheObjectMapper(), String.class));
+        
+        CacheEntry copy = serializer.deserialize(serializer.serialize(new CacheEntry("value", 42, 1_700_000_000_000L)));
+        
+        assertEquals(new CacheEntry("value", 42, 1_700_000_000_000L), copy);
+    }
+    
+    @Test
+    void cacheObjectMapper_ShouldRoundTripUserWithPasswordHash() throws Exception {
+        User user = new User();
+        user.setId("user1");
+        user.setType(UserType.MANAGER);
+        user.setLastLogin(LocalDateTime.of(2024, 1, 2, 3, 4));
+        user.setPersonalInfo(new User.PersonalInfo());
+        user.getPersonalInfo().setName("Asha");
+        user.getPersonalInfo().setPasswordHash("$2a$10$hash");
+        
+        Jackson2JsonRedisSerializer<User> serializer = new Jackson2JsonRedisSerializer<>(CacheConfig.cacheObjectMapper(), User.class);
+        User copy = serializer.deserialize(serializer.serialize(user));
+        
+        assertEquals("$2a$10$hash", copy.getPersonalInfo().getPasswordHash());
+        assertEquals(user.getLastLogin(), copy.getLastLogin());
+        assertTrue(copy.isEmployee());
+    }
+    
+    private static CacheEntry entry(Object value) {
+        return new CacheEntry(value, 0, Long.MAX_VALUE);
+    }
+}
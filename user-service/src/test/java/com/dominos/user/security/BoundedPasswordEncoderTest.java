@@ -0,0 +1,126 @@
+package com.dominos.user.security;
+
+import com.dominos.user.exception.GlobalExceptionHandler;
+import com.dominos.user.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+    
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final AtomicInteger completed = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    
+    // Stands in for BCrypt: blocks until released and, like BCrypt, ignores interrupts
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hash";
+        }
+        
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            completed.incrementAndGet();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    };
+    
+    private BoundedPasswordEncoder encoder;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+    
+    @Test
+    void matches_ShouldRefuseWithoutQueuingWhenPoolIsSaturated() throws Exception {
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 5000, 3, meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        awaitQueueDepth(1);
+        
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+            () -> encoder.matches("c", "hash"));
+        
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter("password.hashing.rejected").count());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, completed.get());
+    }
+    
+    @Test
+    void matches_ShouldReturn429OnTimeoutWhileRunningHashFinishes() throws Exception {
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 50, 2, meterRegistry);
+        
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+            () -> encoder.matches("a", "hash"));
+        
+        assertEquals("Password hashing timed out, please retry", exception.getMessage());
+        assertEquals(0, completed.get());
+        release.countDown();
+        // The hash is not cancelled by the timeout: it completes and frees the worker
+        long deadline = System.currentTimeMillis() + 5000;
+        while (completed.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, completed.get());
+    }
+    
+    @Test
+    void handler_ShouldMapRefusalTo429WithRetryAfter() {
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 50, 2, meterRegistry);
+        
+        ResponseEntity<?> response = new GlobalExceptionHandler()
+            .handleTooManyRequestsException(new TooManyRequestsException("busy", 7));
+        
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+    
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < depth) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Task was never queued");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+    
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    
+    @InjectMocks
+    private PermissionVersionService permissionVersionService;
+    
+    private JwtAuthenticationFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(permissionVersionService, "refreshTokenExpiration", 604800000L);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        filter = new JwtAuthenticationFilter(verifiedTokenCache, tokenRevocationService, permissionVersionService);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void doFilter_ShouldRejectTokenWithOutdatedPermissionVersion() throws Exception {
+        // Arrange
+        when(verifiedTokenCache.verify("stale")).thenReturn(principal(2L));
+        permissionVersionService.publish("manager1", 3L);
+        
+        // Act
+        MockFilterChain chain = filter("stale");
+        
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+    
+    @Test
+    void doFilter_ShouldAuthenticateTokenWithCurrentPermissionVersion() throws Exception {
+        // Arrange
+        when(verifiedTokenCache.verify("current")).thenReturn(principal(3L));
+        permissionVersionService.publish("manager1", 3L);
+        
+        // Act
+        filter("current");
+        
+        // Assert
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals("manager1", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals(3L, ((JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getDetails())
+            .getPermissions().getVersion());
+    }
+    
+    @Test
+    void doFilter_ShouldAuthenticateWhenNoVersionWasPublished() throws Exception {
+        // Arrange
+        when(verifiedTokenCache.verify("fresh")).thenReturn(principal(1L));
+        
+        // Act
+        filter("fresh");
+        
+        // Assert
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectRevokedTokenBeforeCheckingPermissions() throws Exception {
+        // Arrange
+        when(verifiedTokenCache.verify("revoked")).thenReturn(principal(3L));
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+        
+        // Act
+        filter("revoked");
+        
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+    
+    private MockFilterChain filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/manager1");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+    
+    private JwtPrincipal principal(long permissionVersion) {
+        return new JwtPrincipal("manager1", "MANAGER", "store1", "token-1", Instant.now(),
+            Instant.now().plusSeconds(900),
+            new PermissionClaims(permissionVersion, UserType.MANAGER, "store1", UserType.MANAGER.mask()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.dominos.user.security;
+
+import com.dominos.user.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private LoginThrottle throttle;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        throttle = throttle(60000);
+    }
+    
+    @Test
+    void checkAndRecord_ShouldLockOutEmailAfterMaxAttempts() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAndRecord("test@example.com", "10.0.0." + i);
+        }
+        
+        // Act
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+            () -> throttle.checkAndRecord("Test@Example.com ", "10.0.0.9"));
+        
+        // Assert
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.counter("auth.login.throttled", "dimension", "email").count());
+    }
+    
+    @Test
+    void checkAndRecord_ShouldLockOutIpAcrossDifferentEmails() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAndRecord("user" + i + "@example.com", "10.0.0.1");
+        }
+        
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class,
+            () -> throttle.checkAndRecord("fresh@example.com", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.counter("auth.login.throttled", "dimension", "ip").count());
+        // Budgets are keyed separately: another address and another email are unaffected
+        assertDoesNotThrow(() -> throttle.checkAndRecord("fresh@example.com", "10.0.0.2"));
+    }
+    
+    @Test
+    void recordSuccess_ShouldResetEmailBudgetButNotIpBudget() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAndRecord("test@example.com", "10.0.0.1");
+        }
+        
+        // Act
+        throttle.recordSuccess("test@example.com");
+        
+        // Assert
+        assertDoesNotThrow(() -> throttle.checkAndRecord("test@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkAndRecord("other@example.com", "10.0.0.1"));
+        assertThrows(TooManyRequestsException.class,
+            () -> throttle.checkAndRecord("third@example.com", "10.0.0.1"));
+    }
+    
+    @Test
+    void checkAndRecord_ShouldAllowAttemptsAgainAfterWindowExpires() throws InterruptedException {
+        // Arrange
+        throttle = throttle(200);
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAndRecord("test@example.com", null);
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAndRecord("test@example.com", null));
+        
+        // Act
+        Thread.sleep(300);
+        
+        // Assert
+        assertDoesNotThrow(() -> throttle.checkAndRecord("test@example.com", null));
+    }
+    
+    private LoginThrottle throttle(long windowMillis) {
+        return new LoginThrottle(mock(StringRedisTemplate.class), meterRegistry, 3, 5, windowMillis, 2, 1000, false);
+    }
+}
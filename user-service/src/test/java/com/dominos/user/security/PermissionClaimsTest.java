@@ -0,0 +1,42 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionClaimsTest {
+    
+    private final PermissionRegistry registry = new PermissionRegistry(
+        List.of("TAKE_ORDERS", "MANAGE_EMPLOYEES", "APPROVE_SESSIONS", "VIEW_REPORTS"));
+    
+    @Test
+    void encode_ShouldRoundTripThroughDecode() {
+        User user = new User();
+        user.setType(UserType.MANAGER);
+        user.setPermissionVersion(7);
+        User.EmployeeDetails details = new User.EmployeeDetails();
+        details.setStoreId("store1");
+        details.setPermissions(List.of("take_orders", "VIEW_REPORTS", "UNKNOWN"));
+        user.setEmployeeDetails(details);
+        
+        PermissionClaims decoded = PermissionClaims.decode(registry.claimsFor(user).encode());
+        
+        assertNotNull(decoded);
+        assertEquals(7, decoded.getVersion());
+        assertEquals(UserType.MANAGER, decoded.getRole());
+        assertTrue(decoded.isAssignedTo("store1"));
+        assertFalse(decoded.isAssignedTo("store2"));
+        assertEquals(List.of("TAKE_ORDERS", "VIEW_REPORTS"), registry.fromMask(decoded.getMask()));
+    }
+    
+    @Test
+    void decode_ShouldReturnNullForUnknownFormat() {
+        assertNull(PermissionClaims.decode(null));
+        assertNull(PermissionClaims.decode("2|1|MANAGER||0"));
+        assertNull(PermissionClaims.decode("1|1|NOT_A_ROLE||0"));
+    }
+}
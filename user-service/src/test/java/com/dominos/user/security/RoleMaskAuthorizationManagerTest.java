@@ -0,0 +1,69 @@
+package com.dominos.user.security;
+
+import com.dominos.shared.enums.UserType;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleMaskAuthorizationManagerTest {
+    
+    private final PermissionRegistry registry = new PermissionRegistry(List.of("TAKE_ORDERS", "VIEW_REPORTS"));
+    private final RoleMaskAuthorizationManager manager = new RoleMaskAuthorizationManager(() -> registry);
+    private final Endpoints endpoints = new Endpoints();
+    
+    @Test
+    void check_ShouldGrantListedRolesOnly() throws Exception {
+        Method method = Endpoints.class.getMethod("managersOnly");
+        
+        assertTrue(decide(token("m1", UserType.MANAGER, 0L), method));
+        assertTrue(decide(token("a1", UserType.ASSISTANT_MANAGER, 0L), method));
+        assertFalse(decide(token("s1", UserType.STAFF, 0L), method));
+    }
+    
+    @Test
+    void check_ShouldGrantSelfAndPermissionHolders() throws Exception {
+        Method method = Endpoints.class.getMethod("employeeReport", String.class);
+        
+        assertTrue(decide(token("s1", UserType.STAFF, 0L), method, "s1"));
+        assertFalse(decide(token("s1", UserType.STAFF, 0L), method, "s2"));
+        assertTrue(decide(token("s1", UserType.STAFF, registry.maskOf("VIEW_REPORTS")), method, "s2"));
+    }
+    
+    @Test
+    void check_ShouldFallBackToAuthoritiesWithoutTokenDetails() throws Exception {
+        Method method = Endpoints.class.getMethod("managersOnly");
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "m1", null, List.of(new SimpleGrantedAuthority("ROLE_MANAGER")));
+        
+        assertTrue(manager.check(() -> authentication, new SimpleMethodInvocation(endpoints, method)).isGranted());
+    }
+    
+    private boolean decide(UsernamePasswordAuthenticationToken authentication, Method method, Object... args) {
+        return manager.check(() -> authentication, new SimpleMethodInvocation(endpoints, method, args)).isGranted();
+    }
+    
+    private static UsernamePasswordAuthenticationToken token(String userId, UserType type, long permissionMask) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            userId, null, List.of(new SimpleGrantedAuthority("ROLE_" + type.name())));
+        authentication.setDetails(new JwtPrincipal(userId, type.name(), "store1", "jti", Instant.now(),
+            Instant.now().plusSeconds(60), new PermissionClaims(0, type, "store1", permissionMask)));
+        return authentication;
+    }
+    
+    static class Endpoints {
+        
+        @RequiresRole({UserType.MANAGER, UserType.ASSISTANT_MANAGER})
+        public void managersOnly() {}
+        
+        @RequiresRole(value = UserType.MANAGER, permissions = "VIEW_REPORTS", self = "employeeId")
+        public void employeeReport(@PathVariable("employeeId") String employeeId) {}
+    }
+}
@@ -0,0 +1,200 @@
+package com.dominos.user.security;
+
+import com.dominos.user.util.BloomFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+    
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    
+    @Mock
+    private Cursor<String> emptyCursor;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private TokenRevocationService revocationService;
+    
+    private MessageListener listener;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocationService, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(emptyCursor);
+        
+        revocationService.init();
+        
+        ArgumentCaptor<MessageListener> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listenerCaptor.capture(), any(Topic.class));
+        listener = listenerCaptor.getValue();
+    }
+    
+    @Test
+    void isRevoked_ShouldShortCircuitOnBloomNegative() {
+        // Arrange
+        JwtPrincipal principal = principal("user1", "token1", Instant.now());
+        
+        // Act & Assert
+        assertFalse(revocationService.isRevoked(principal));
+    }
+    
+    @Test
+    void isRevoked_ShouldConfirmBloomHitAgainstExactEntries() {
+        // Arrange
+        JwtPrincipal principal = principal("user1", "token1", Instant.now());
+        
+        // Act
+        revocationService.revokeToken(principal);
+        
+        // Assert
+        assertTrue(revocationService.isRevoked(principal));
+        verify(valueOperations).set(eq("revoked:token:token1"), anyString(), any(Duration.class));
+        verify(redisTemplate).convertAndSend(eq("token-revocations"), startsWith("T|token1|"));
+    }
+    
+    @Test
+    void isRevoked_ShouldRejectBloomFalsePositive() {
+        // Arrange
+        // A single-word filter saturates quickly, so an unrevoked id is guaranteed to collide
+        ReflectionTestUtils.setField(revocationService, "revokedTokenFilter", BloomFilter.create(1, 0.5));
+        for (int i = 0; i < 500; i++) {
+            revocationService.revokeToken(principal("user1", "revoked-" + i, Instant.now()));
+        }
+        BloomFilter filter = (BloomFilter) ReflectionTestUtils.getField(revocationService, "revokedTokenFilter");
+        String collision = null;
+        for (int i = 0; collision == null && i < 10_000; i++) {
+            if (filter.mightContain("live-" + i)) {
+                collision = "live-" + i;
+            }
+        }
+        assertNotNull(collision);
+        
+        // Act & Assert
+        assertFalse(revocationService.isRevoked(principal("user1", collision, Instant.now())));
+    }
+    
+    @Test
+    void isRevoked_ShouldRevokeTokensIssuedBeforeUserCutoff() {
+        // Arrange
+        JwtPrincipal before = principal("user1", "token1", Instant.now().minusSeconds(60));
+        JwtPrincipal other = principal("user2", "token2", Instant.now().minusSeconds(60));
+        
+        // Act
+        revocationService.revokeAllForUser("user1");
+        JwtPrincipal after = principal("user1", "token3", Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        
+        // Assert
+        assertTrue(revocationService.isRevoked(before));
+        assertFalse(revocationService.isRevoked(after));
+        assertFalse(revocationService.isRevoked(other));
+        verify(redisTemplate).convertAndSend(eq("token-revocations"), startsWith("U|user1|"));
+    }
+    
+    @Test
+    void isRevoked_ShouldAcceptTokenIssuedInSameSecondAsCutoff() {
+        // Arrange
+        long second = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+        publish("U|user1|" + second);
+        
+        // Act & Assert
+        assertFalse(revocationService.isRevoked(principal("user1", "login", Instant.ofEpochMilli(second))));
+        assertTrue(revocationService.isRevoked(principal("user1", "old", Instant.ofEpochMilli(second - 1000))));
+    }
+    
+    @Test
+    void revokeAllForUser_ShouldStoreCutoffInWholeSeconds() {
+        // Act
+        revocationService.revokeAllForUser("user1");
+        
+        // Assert
+        ArgumentCaptor<String> cutoff = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq("revoked:user:user1"), cutoff.capture(), any(Duration.class));
+        assertEquals(0, Long.parseLong(cutoff.getValue()) % 1000);
+    }
+    
+    @Test
+    void sweep_ShouldDropExpiredEntriesAndRebuildFilter() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        publish("T|expired|" + (now - 1000));
+        publish("T|live|" + (now + 60_000));
+        publish("U|user1|" + (now - 604800000L - 1000));
+        
+        // Act
+        revocationService.sweep();
+        
+        // Assert
+        assertEquals(1.0, meterRegistry.get("jwt.revocation.entries").gauge().value());
+        BloomFilter filter = (BloomFilter) ReflectionTestUtils.getField(revocationService, "revokedTokenFilter");
+        assertFalse(filter.mightContain("expired"));
+        assertTrue(revocationService.isRevoked(principal("user2", "live", Instant.now())));
+        assertFalse(revocationService.isRevoked(principal("user1", "other", Instant.ofEpochMilli(now - 604800000L - 2000))));
+    }
+    
+    @Test
+    void apply_ShouldReplicateRevocationsFromOtherInstances() {
+        // Arrange
+        long cutoff = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+        
+        // Act
+        publish("T|remote-token|" + (cutoff + 60_000));
+        publish("U|user1|" + cutoff);
+        publish("U|user1|" + (cutoff - 10_000));
+        publish("garbage");
+        
+        // Assert
+        assertTrue(revocationService.isRevoked(principal("user2", "remote-token", Instant.now())));
+        // An older cutoff arriving late does not move the newer one back
+        assertTrue(revocationService.isRevoked(principal("user1", "t", Instant.ofEpochMilli(cutoff - 1000))));
+        assertFalse(revocationService.isRevoked(principal("user1", "t", Instant.ofEpochMilli(cutoff))));
+    }
+    
+    private void publish(String body) {
+        listener.onMessage(new DefaultMessage("token-revocations".getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+    
+    private JwtPrincipal principal(String userId, String tokenId, Instant issuedAt) {
+        return new JwtPrincipal(userId, "EMPLOYEE", "store1", tokenId, issuedAt, Instant.now().plusSeconds(900));
+    }
+}
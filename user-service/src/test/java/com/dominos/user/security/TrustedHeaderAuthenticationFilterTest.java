@@ -0,0 +1,203 @@
+package com.dominos.user.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrustedHeaderAuthenticationFilterTest {
+    
+    private static final String SECRET = "test-identity-secret";
+    private static final long MAX_SKEW = 30000L;
+    
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
+    @Mock
+    private PermissionVersionService permissionVersionService;
+    
+    private TrustedHeaderAuthenticationFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        filter = new TrustedHeaderAuthenticationFilter(SECRET, MAX_SKEW, tokenRevocationService, permissionVersionService);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void doFilter_ShouldAuthenticateValidSignature() throws Exception {
+        // Arrange
+        long now = System.currentTimeMillis();
+        MockHttpServletRequest request = signedRequest("PUT", "/api/users/u1/activate", "notify=true", now,
+            sign("PUT", "/api/users/u1/activate", "notify=true", now));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("u1", authentication.getName());
+        assertEquals("ROLE_EMPLOYEE", authentication.getAuthorities().iterator().next().getAuthority());
+        assertEquals("token-1", ((JwtPrincipal) authentication.getDetails()).getTokenId());
+        assertSame(request, chain.getRequest());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectTamperedIdentity() throws Exception {
+        // Arrange
+        long now = System.currentTimeMillis();
+        MockHttpServletRequest request = signedRequest("GET", "/api/users/u1", null, now,
+            sign("GET", "/api/users/u1", null, now));
+        request.removeHeader("X-User-Type");
+        request.addHeader("X-User-Type", "ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectMalformedSignature() throws Exception {
+        // Arrange
+        long now = System.currentTimeMillis();
+        MockHttpServletRequest request = signedRequest("GET", "/api/users/u1", null, now, "not base64 !");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectExpiredHeaders() throws Exception {
+        // Arrange
+        long stale = System.currentTimeMillis() - MAX_SKEW - 1000;
+        MockHttpServletRequest request = signedRequest("GET", "/api/users/u1", null, stale,
+            sign("GET", "/api/users/u1", null, stale));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        verify(tokenRevocationService, never()).isRevoked(any());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectHeadersReplayedAgainstAnotherTarget() throws Exception {
+        // Arrange
+        long now = System.currentTimeMillis();
+        String signature = sign("GET", "/api/users/u1", null, now);
+        MockHttpServletRequest otherMethod = signedRequest("DELETE", "/api/users/u1", null, now, signature);
+        MockHttpServletRequest otherPath = signedRequest("GET", "/api/users/u2", null, now, signature);
+        MockHttpServletRequest otherQuery = signedRequest("GET", "/api/users/u1", "page=2", now, signature);
+        
+        for (MockHttpServletRequest request : new MockHttpServletRequest[] {otherMethod, otherPath, otherQuery}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            
+            // Act
+            filter.doFilter(request, response, chain);
+            
+            // Assert
+            assertEquals(401, response.getStatus());
+            assertNull(chain.getRequest());
+        }
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+    
+    @Test
+    void doFilter_ShouldRejectRevokedToken() throws Exception {
+        // Arrange
+        long now = System.currentTimeMillis();
+        MockHttpServletRequest request = signedRequest("GET", "/api/users/u1", null, now,
+            sign("GET", "/api/users/u1", null, now));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+    
+    @Test
+    void doFilter_ShouldPassThroughUnsignedRequests() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/u1");
+        request.addHeader("X-User-Id", "admin");
+        request.addHeader("X-User-Type", "ADMIN");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertSame(request, chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+    
+    private MockHttpServletRequest signedRequest(String method, String path, String query, long timestamp,
+                                                 String signature) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setQueryString(query);
+        request.addHeader("X-User-Id", "u1");
+        request.addHeader("X-User-Type", "EMPLOYEE");
+        request.addHeader("X-Store-Id", "store1");
+        request.addHeader("X-Token-Id", "token-1");
+        request.addHeader("X-Token-Issued-At", Long.toString(timestamp - 1000));
+        request.addHeader("X-Identity-Timestamp", Long.toString(timestamp));
+        request.addHeader("X-Identity-Signature", signature);
+        return request;
+    }
+    
+    // Mirrors IdentityHeaderSigner in api-gateway
+    private String sign(String method, String path, String query, long timestamp) throws Exception {
+        String payload = method + "\n" + path + "\n" + (query != null ? query : "") + "\n"
+            + "u1\nEMPLOYEE\nstore1\ntoken-1\n" + (timestamp - 1000) + "\n\n" + timestamp;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
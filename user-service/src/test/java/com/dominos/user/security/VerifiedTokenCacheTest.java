@@ -0,0 +1,67 @@
+package com.dominos.user.security;
+
+import com.dominos.user.service.JwtService;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+    
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+    
+    @BeforeEach
+    void setUp() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", "test-secret-key-for-jwt-token-generation-at-least-256-bits-long");
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        
+        jwtService = spy(service);
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, meterRegistry, 100);
+    }
+    
+    @Test
+    void verify_ShouldReturnPrincipalWithAllClaims() {
+        String token = jwtService.generateAccessToken("user123", "MANAGER", "store1");
+        
+        JwtPrincipal principal = verifiedTokenCache.verify(token);
+        
+        assertNotNull(principal);
+        assertEquals("user123", principal.getUserId());
+        assertEquals("MANAGER", principal.getUserType());
+        assertEquals("store1", principal.getStoreId());
+        assertFalse(principal.isExpired());
+    }
+    
+    @Test
+    void verify_ShouldParseTokenOnlyOnce_WhenCalledRepeatedly() {
+        String token = jwtService.generateAccessToken("user123", "STAFF", "store1");
+        
+        for (int i = 0; i < 5; i++) {
+            verifiedTokenCache.verify(token);
+        }
+        
+        verify(jwtService, times(1)).verifyToken(anyString());
+        assertEquals(4.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+    
+    @Test
+    void verify_ShouldRejectTamperedToken() {
+        String token = jwtService.generateAccessToken("user123", "STAFF", "store1");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        
+        assertThrows(JwtException.class, () -> verifiedTokenCache.verify(tampered));
+    }
+}
@@ -0,0 +1,135 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.security.JwtPrincipal;
+import com.dominos.user.security.PermissionClaims;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessControlServiceTest {
+    
+    @Mock
+    private UserService userService;
+    
+    @InjectMocks
+    private AccessControlService accessControlService;
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void validateOrderTakingAccess_ShouldDecideFromCallerClaimsWithoutLoadingUser() {
+        // Arrange
+        authenticate("manager1", new PermissionClaims(1L, UserType.MANAGER, "store1", UserType.MANAGER.mask()));
+        
+        // Act
+        AccessControlService.OrderTakingPermission ownStore = accessControlService.validateOrderTakingAccess("manager1", "store1");
+        AccessControlService.OrderTakingPermission otherStore = accessControlService.validateOrderTakingAccess("manager1", "store2");
+        
+        // Assert
+        assertTrue(ownStore.isAllowed());
+        assertFalse(otherStore.isAllowed());
+        assertEquals("Not assigned to this store", otherStore.getReason());
+        assertTrue(accessControlService.canAccessStore("manager1", "store1"));
+        assertTrue(accessControlService.canManageEmployees("manager1"));
+        verify(userService, never()).getUserById(anyString());
+    }
+    
+    @Test
+    void validateOrderTakingAccess_ShouldDenyFromClaimsWhenRoleCannotTakeOrders() {
+        // Arrange
+        authenticate("staff1", new PermissionClaims(1L, UserType.STAFF, "store1", UserType.STAFF.mask()));
+        
+        // Act
+        AccessControlService.OrderTakingPermission permission = accessControlService.validateOrderTakingAccess("staff1", "store1");
+        
+        // Assert
+        assertFalse(permission.isAllowed());
+        assertFalse(accessControlService.canManageEmployees("staff1"));
+        verify(userService, never()).getUserById(anyString());
+    }
+    
+    @Test
+    void canAccessStore_ShouldLoadUserWhenCheckingAnotherUser() {
+        // Arrange
+        authenticate("manager1", new PermissionClaims(1L, UserType.MANAGER, "store1", UserType.MANAGER.mask()));
+        when(userService.getUserById("staff2")).thenReturn(employee("staff2", UserType.STAFF, "store2"));
+        
+        // Act
+        boolean ownStore = accessControlService.canAccessStore("staff2", "store2");
+        boolean callerStore = accessControlService.canAccessStore("staff2", "store1");
+        
+        // Assert
+        assertTrue(ownStore);
+        assertFalse(callerStore);
+        verify(userService, times(2)).getUserById("staff2");
+    }
+    
+    @Test
+    void validateOrderTakingAccess_ShouldLoadUserWhenTokenHasNoClaims() {
+        // Arrange
+        authenticate("manager1", null);
+        User manager = employee("manager1", UserType.MANAGER, "store1");
+        manager.setActive(false);
+        when(userService.getUserById("manager1")).thenReturn(manager);
+        
+        // Act
+        AccessControlService.OrderTakingPermission permission = accessControlService.validateOrderTakingAccess("manager1", "store1");
+        
+        // Assert
+        assertFalse(permission.isAllowed());
+        assertEquals("User account is deactivated", permission.getReason());
+    }
+    
+    @Test
+    void canManageEmployees_ShouldLoadUserWhenUnauthenticated() {
+        // Arrange
+        when(userService.getUserById("manager1")).thenReturn(employee("manager1", UserType.ASSISTANT_MANAGER, "store1"));
+        
+        // Act
+        boolean result = accessControlService.canManageEmployees("manager1");
+        
+        // Assert
+        assertTrue(result);
+        verify(userService).getUserById("manager1");
+    }
+    
+    private void authenticate(String userId, PermissionClaims claims) {
+        String userType = claims != null ? claims.getRole().name() : "MANAGER";
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            userId, null, List.of(new SimpleGrantedAuthority("ROLE_" + userType)));
+        authentication.setDetails(new JwtPrincipal(userId, userType, "store1", "token-1",
+            Instant.now(), Instant.now().plusSeconds(900), claims));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+    
+    private User employee(String userId, UserType type, String storeId) {
+        User user = new User();
+        user.setId(userId);
+        user.setType(type);
+        user.setActive(true);
+        User.EmployeeDetails details = new User.EmployeeDetails();
+        details.setStoreId(storeId);
+        user.setEmployeeDetails(details);
+        return user;
+    }
+}
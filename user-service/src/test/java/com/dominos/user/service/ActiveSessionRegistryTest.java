@@ -0,0 +1,131 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.user.repository.WorkingSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionRegistryTest {
+    
+    @Mock
+    private WorkingSessionRepository sessionRepository;
+    
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private ActiveSessionRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+    
+    @Test
+    void init_ShouldLoadActiveSessionsFromMongo() {
+        // Arrange
+        when(sessionRepository.findAllActiveSessions()).thenReturn(List.of(session("s1", "emp1", "store1")));
+        
+        // Act
+        registry.init();
+        
+        // Assert
+        assertTrue(registry.isActive("emp1"));
+        assertEquals(1, registry.findByStoreId("store1").size());
+        verify(hashOperations).putAll(eq(ActiveSessionRegistry.HASH_KEY), argThat(fields -> fields.containsKey("emp1")));
+    }
+    
+    @Test
+    void update_ShouldKeepNewerSessionWhenOlderOneCloses() {
+        // Arrange
+        registry.init();
+        WorkingSession older = session("s1", "emp1", "store1");
+        WorkingSession newer = session("s2", "emp1", "store1");
+        registry.update(newer);
+        
+        // Act
+        older.setActive(false);
+        registry.update(older);
+        
+        // Assert
+        assertEquals("s2", registry.find("emp1").orElseThrow().getId());
+        
+        newer.setActive(false);
+        registry.update(newer);
+        assertFalse(registry.isActive("emp1"));
+        verify(hashOperations).delete(ActiveSessionRegistry.HASH_KEY, "emp1");
+    }
+    
+    @Test
+    void update_ShouldStoreDetachedCopy() {
+        // Arrange
+        registry.init();
+        WorkingSession saved = session("s1", "emp1", "store1");
+        
+        // Act
+        registry.update(saved);
+        saved.setBreakDurationMinutes(45L);
+        
+        // Assert
+        assertEquals(0L, registry.find("emp1").orElseThrow().getBreakDurationMinutes());
+    }
+    
+    @Test
+    void onMessage_ShouldReloadEntryChangedByAnotherInstance() throws Exception {
+        // Arrange
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        registry.init();
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        registry.update(session("s1", "emp1", "store1"));
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(hashOperations).put(eq(ActiveSessionRegistry.HASH_KEY), eq("emp1"), json.capture());
+        String updated = json.getValue().replace("\"breakDurationMinutes\":0", "\"breakDurationMinutes\":15");
+        when(hashOperations.get(ActiveSessionRegistry.HASH_KEY, "emp1")).thenReturn(updated);
+        
+        // Act
+        listener.getValue().onMessage(new DefaultMessage(ActiveSessionRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            "other-instance|emp1".getBytes(StandardCharsets.UTF_8)), null);
+        
+        // Assert
+        assertEquals(15L, registry.find("emp1").orElseThrow().getBreakDurationMinutes());
+    }
+    
+    private static WorkingSession session(String id, String employeeId, String storeId) {
+        WorkingSession session = new WorkingSession(employeeId, storeId, LocalDateTime.now().minusHours(3));
+        session.setId(id);
+        return session;
+    }
+}
@@ -0,0 +1,144 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.enums.UserType;
+import com.dominos.user.dto.EmployeeImportReport;
+import com.dominos.user.dto.EmployeeImportReport.RowResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeImportServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @Mock
+    private UserStatisticsService userStatisticsService;
+    
+    @Mock
+    private EmployeeNameIndex employeeNameIndex;
+    
+    @Mock
+    private RegistrationFilter registrationFilter;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    
+    @InjectMocks
+    private EmployeeImportService importService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "bcryptStrength", 4);
+        ReflectionTestUtils.setField(importService, "hashThreads", 2);
+        ReflectionTestUtils.setField(importService, "chunkSize", 500);
+        ReflectionTestUtils.setField(importService, "maxRows", 100);
+        lenient().when(registrationFilter.mightContainEmail(any())).thenReturn(true);
+        importService.init();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+    
+    @Test
+    void importEmployees_ShouldInsertValidRowsAndReportEveryRow() throws Exception {
+        // Arrange
+        User existing = new User();
+        existing.setPersonalInfo(new User.PersonalInfo());
+        existing.getPersonalInfo().setEmail("taken@example.com");
+        existing.getPersonalInfo().setPhone("9000000000");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(existing));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        
+        String csv = String.join("\n",
+            "type,name,email,phone,password,storeId,role,permissions",
+            "STAFF,Asha Rao,asha@example.com,9876543210,secret123,store1,Crew,\"TAKE_ORDERS;VIEW_MENU\"",
+            "DRIVER,Ravi Kumar,asha@example.com,9876543211,secret123,store1,Driver,",
+            "STAFF,Old Hand,taken@example.com,9876543212,secret123,store1,Crew,",
+            "CUSTOMER,Not Staff,cust@example.com,9876543213,secret123,store1,,",
+            "CHEF,Bad Type,chef@example.com,9876543214,secret123,store1,,",
+            "MANAGER,Meera Iyer,meera@example.com,9876543215,secret123,store2,Manager,");
+        
+        // Act
+        EmployeeImportReport report = importService.importEmployees(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+        
+        // Assert
+        assertEquals(6, report.getTotal());
+        assertEquals(2, report.getCreated());
+        List<RowResult> rows = report.getRows();
+        assertEquals(RowResult.CREATED, rows.get(0).getStatus());
+        assertNotNull(rows.get(0).getUserId());
+        assertEquals("Duplicate email in import", rows.get(1).getError());
+        assertEquals("Email already exists", rows.get(2).getError());
+        assertEquals("Only employee types can be imported", rows.get(3).getError());
+        assertEquals("Unknown user type 'CHEF'", rows.get(4).getError());
+        assertEquals(7, rows.get(5).getRow());
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        User asha = inserted.getValue().get(0);
+        assertEquals(List.of("TAKE_ORDERS", "VIEW_MENU"), asha.getEmployeeDetails().getPermissions());
+        assertTrue(asha.getPersonalInfo().getPasswordHash().startsWith("$2a$04$"));
+        verify(userStatisticsService).recordCreated(UserType.STAFF, 1L);
+        verify(userStatisticsService).recordCreated(UserType.MANAGER, 1L);
+        verify(employeeNameIndex).invalidate("store1");
+        verify(employeeNameIndex).invalidate("store2");
+    }
+    
+    @Test
+    void importEmployees_ShouldReportMalformedNdjsonLines() throws Exception {
+        String ndjson = "{\"type\":\"STAFF\",\"name\":\"A\"\n\n{not json}\n";
+        
+        EmployeeImportReport report = importService.importEmployees(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false);
+        
+        assertEquals(2, report.getTotal());
+        assertEquals(0, report.getCreated());
+        assertEquals(3, report.getRows().get(1).getRow());
+        assertTrue(report.getRows().get(1).getError().startsWith("Invalid JSON"));
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    @Test
+    void importEmployees_ShouldRejectCsvWithoutRequiredColumns() {
+        byte[] csv = "name,email\nA,a@example.com\n".getBytes(StandardCharsets.UTF_8);
+        
+        assertThrows(IllegalArgumentException.class,
+            () -> importService.importEmployees(new ByteArrayInputStream(csv), true));
+    }
+}
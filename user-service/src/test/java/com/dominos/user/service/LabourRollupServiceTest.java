@@ -0,0 +1,239 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.LabourRollup;
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.shared.model.RollupChange;
+import com.dominos.user.repository.LabourRollupRepository;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LabourRollupServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private LabourRollupRepository rollupRepository;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private LabourRollupService rollupService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rollupService, "appliedChangeHistory", 1000);
+        rollupService.init();
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, LabourRollup.class)).thenReturn(bulkOperations);
+    }
+    
+    @Test
+    void record_ShouldClaimChangeThenIncrementEveryRollupOnce() {
+        // Arrange
+        WorkingSession session = finalized(8.0, WorkingSessionStatus.COMPLETED, null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        rollupService.record(session);
+        
+        // Assert
+        ArgumentCaptor<Query> sessionQueries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> sessionUpdates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(sessionQueries.capture(), sessionUpdates.capture(), eq(WorkingSession.class));
+        
+        // 1. the change is claimed on the session
+        Document claim = sessionQueries.getAllValues().get(0).getQueryObject();
+        assertTrue(claim.containsKey("pendingRollup"));
+        assertNull(claim.get("pendingRollup"));
+        RollupChange change = (RollupChange) sessionUpdates.getAllValues().get(0).getUpdateObject()
+            .get("$set", Document.class).get("pendingRollup");
+        assertEquals(8.0, change.getToHours());
+        
+        // 2. every rollup is created if missing and incremented unless it already lists the change
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> increments = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(6)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(6)).updateOne(guards.capture(), increments.capture());
+        verify(bulkOperations).execute();
+        assertEquals("EMPLOYEE:emp1:DAY:2024-01-03", guards.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals("STORE:store1:WEEK:2024-01-01", guards.getAllValues().get(3).getQueryObject().get("id"));
+        assertEquals(new Document("$ne", change.getId()), guards.getValue().getQueryObject().get("appliedChanges"));
+        assertEquals(new Document("hours", 8.0).append("sessions", 1), increments.getValue().getUpdateObject().get("$inc"));
+        
+        // the change id is kept on the rollup, capped to the most recent ids
+        Update.Modifiers push = (Update.Modifiers) increments.getValue().getUpdateObject()
+            .get("$push", Document.class).get("appliedChanges");
+        Map<String, Object> modifiers = push.getModifiers().stream()
+            .collect(Collectors.toMap(Update.Modifier::getKey, Update.Modifier::getValue));
+        assertArrayEquals(new Object[] {change.getId()}, (Object[]) modifiers.get("$each"));
+        assertEquals(-1000, modifiers.get("$slice"));
+        
+        // 3. the session moves to the new contribution
+        assertEquals(change.getId(), sessionQueries.getAllValues().get(1).getQueryObject().get("pendingRollup.id"));
+        assertEquals(8.0, sessionUpdates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("rolledUpHours"));
+        verify(mongoTemplate, never()).bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(LabourRollup.class));
+        assertEquals(8.0, session.getRolledUpHours());
+        assertEquals(1.0, meterRegistry.counter("sessions.rollups.applied").count());
+    }
+    
+    @Test
+    void record_ShouldWithdrawContributionWhenSessionIsRejected() {
+        // Arrange
+        WorkingSession session = finalized(8.0, WorkingSessionStatus.REJECTED, 8.0);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        rollupService.record(session);
+        
+        // Assert
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(6)).updateOne(any(Query.class), updates.capture());
+        assertEquals(new Document("hours", -8.0).append("sessions", -1), updates.getValue().getUpdateObject().get("$inc"));
+        assertNull(session.getRolledUpHours());
+    }
+    
+    @Test
+    void record_ShouldSkipWhenContributionIsUnchangedOrAlreadyApplied() {
+        // Arrange
+        WorkingSession unchanged = finalized(8.0, WorkingSessionStatus.COMPLETED, 8.0);
+        WorkingSession raced = finalized(6.0, WorkingSessionStatus.COMPLETED, null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.findById("s1", WorkingSession.class))
+            .thenReturn(finalized(6.0, WorkingSessionStatus.COMPLETED, 6.0));
+        
+        // Act
+        rollupService.record(unchanged);
+        rollupService.record(raced);
+        
+        // Assert
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class));
+        verifyNoInteractions(bulkOperations);
+        assertEquals(6.0, raced.getRolledUpHours());
+    }
+    
+    @Test
+    void record_ShouldReplayUnfinishedChangeBeforeClaimingNext() {
+        // Arrange
+        // An earlier instance claimed +8 and failed before finishing; the session has since been rejected
+        WorkingSession session = finalized(8.0, WorkingSessionStatus.REJECTED, null);
+        session.setPendingRollup(new RollupChange("c1", null, 8.0));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.exists(any(Query.class), eq(WorkingSession.class))).thenReturn(true);
+        when(mongoTemplate.findById("s1", WorkingSession.class))
+            .thenReturn(finalized(8.0, WorkingSessionStatus.REJECTED, 8.0));
+        
+        // Act
+        rollupService.record(session);
+        
+        // Assert
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> increments = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(12)).updateOne(guards.capture(), increments.capture());
+        verify(bulkOperations, times(2)).execute();
+        assertEquals(new Document("$ne", "c1"), guards.getAllValues().get(0).getQueryObject().get("appliedChanges"));
+        assertEquals(new Document("hours", 8.0).append("sessions", 1), increments.getAllValues().get(0).getUpdateObject().get("$inc"));
+        assertEquals(new Document("hours", -8.0).append("sessions", -1), increments.getAllValues().get(6).getUpdateObject().get("$inc"));
+        assertNull(session.getRolledUpHours());
+    }
+    
+    @Test
+    void record_ShouldNotReplayChangeTheOwnerHasAlreadyFinished() {
+        // Arrange
+        // A sweep cursor still holds the copy with pending c1, but the owner has since applied and finalized it
+        WorkingSession stale = finalized(8.0, WorkingSessionStatus.COMPLETED, null);
+        stale.setPendingRollup(new RollupChange("c1", null, 8.0));
+        when(mongoTemplate.exists(any(Query.class), eq(WorkingSession.class))).thenReturn(false);
+        when(mongoTemplate.findById("s1", WorkingSession.class))
+            .thenReturn(finalized(8.0, WorkingSessionStatus.COMPLETED, 8.0));
+        
+        // Act
+        rollupService.record(stale);
+        
+        // Assert
+        ArgumentCaptor<Query> claimCheck = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(claimCheck.capture(), eq(WorkingSession.class));
+        assertEquals("c1", claimCheck.getValue().getQueryObject().get("pendingRollup.id"));
+        verifyNoInteractions(bulkOperations);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class));
+        assertEquals(8.0, stale.getRolledUpHours());
+        assertEquals(0.0, meterRegistry.counter("sessions.rollups.applied").count());
+    }
+    
+    @Test
+    void record_ShouldLeaveClaimForSweepWhenRollupWriteFails() {
+        // Arrange
+        WorkingSession session = finalized(8.0, WorkingSessionStatus.COMPLETED, null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+        
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> rollupService.record(session));
+        // Only the claim was written: the session still shows a pending change for the sweep to replay
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(WorkingSession.class));
+    }
+    
+    @Test
+    void sweep_ShouldIncludeUnfinishedChanges() {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(WorkingSession.class))).thenReturn(Stream.empty());
+        
+        // Act
+        rollupService.sweep();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(WorkingSession.class));
+        @SuppressWarnings("unchecked")
+        List<Document> branches = (List<Document>) query.getValue().getQueryObject().get("$or");
+        assertEquals(new Document("$ne", null), branches.get(0).get("pendingRollup"));
+        assertTrue(rollupService.isBackfilled());
+    }
+    
+    private static WorkingSession finalized(double hours, WorkingSessionStatus status, Double rolledUpHours) {
+        WorkingSession session = new WorkingSession("emp1", "store1", LocalDateTime.of(2024, 1, 3, 9, 0));
+        session.setId("s1");
+        session.setActive(false);
+        session.setTotalHours(hours);
+        session.setStatus(status);
+        session.setRolledUpHours(rolledUpHours);
+        return session;
+    }
+}
@@ -0,0 +1,136 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginWriteBehindTest {
+    
+    private static final LocalDateTime EARLY = LocalDateTime.of(2024, 1, 3, 9, 0);
+    private static final LocalDateTime LATE = LocalDateTime.of(2024, 1, 3, 17, 0);
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private CacheManager cacheManager;
+    
+    @Mock
+    private UserStatisticsService userStatisticsService;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @Mock
+    private Cache usersCache;
+    
+    @InjectMocks
+    private LastLoginWriteBehind writeBehind;
+    
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+        lenient().when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+        lenient().when(cacheManager.getCache("users")).thenReturn(usersCache);
+    }
+    
+    @Test
+    void flush_ShouldWriteOneUpdatePerUserWithLatestLogin() {
+        // Arrange
+        writeBehind.record("user1", LATE);
+        writeBehind.record("user1", EARLY);
+        writeBehind.record("user2", EARLY);
+        
+        // Act
+        writeBehind.flush();
+        
+        // Assert
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+        verify(bulkOperations).execute();
+        int user1 = queries.getAllValues().get(0).getQueryObject().get("_id").equals("user1") ? 0 : 1;
+        assertEquals(LATE, updates.getAllValues().get(user1).getUpdateObject().get("$max", Document.class).get("lastLogin"));
+        verify(userStatisticsService).recordLogins(Map.of(), Map.of("user1", LATE, "user2", EARLY));
+        verify(usersCache).evict("user1");
+        verify(usersCache).evict("user2");
+        
+        // A second flush with nothing buffered does not touch Mongo
+        writeBehind.flush();
+        verify(mongoTemplate, times(1)).bulkOps(any(BulkOperations.BulkMode.class), eq(User.class));
+    }
+    
+    @Test
+    void flush_ShouldRequeueBatchWhenBulkWriteFails() {
+        // Arrange
+        writeBehind.record("user1", EARLY);
+        when(bulkOperations.execute())
+            .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+            .thenReturn(null);
+        
+        // Act
+        writeBehind.flush();
+        writeBehind.record("user1", LATE);
+        writeBehind.flush();
+        
+        // Assert
+        verify(bulkOperations, times(2)).execute();
+        verify(userStatisticsService, times(1)).recordLogins(Map.of(), Map.of("user1", LATE));
+        verify(usersCache, times(1)).evict("user1");
+    }
+    
+    @Test
+    void stop_ShouldRetryFlushBeforeShutdown() {
+        // Arrange
+        writeBehind.start();
+        writeBehind.record("user1", EARLY);
+        when(bulkOperations.execute())
+            .thenThrow(new DataAccessResourceFailureException("primary stepped down"))
+            .thenReturn(null);
+        
+        // Act
+        writeBehind.stop();
+        
+        // Assert
+        verify(bulkOperations, times(2)).execute();
+        verify(userStatisticsService).recordLogins(Map.of(), Map.of("user1", EARLY));
+        assertFalse(writeBehind.isRunning());
+    }
+    
+    @Test
+    void stop_ShouldGiveUpAfterBoundedAttempts() {
+        // Arrange
+        writeBehind.record("user1", EARLY);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("mongo down"));
+        
+        // Act
+        writeBehind.stop();
+        
+        // Assert
+        verify(bulkOperations, times(3)).execute();
+        verify(userStatisticsService, never()).recordLogins(any(), any());
+    }
+}
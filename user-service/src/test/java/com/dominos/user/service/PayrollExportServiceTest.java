@@ -0,0 +1,160 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.user.dto.PayrollExportResult;
+import com.dominos.user.export.PayrollExportFormat;
+import com.dominos.user.repository.WorkingSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PayrollExportServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 1, 31);
+    private static final String HEADER = "sessionId,employeeId,storeId,date,loginTime,logoutTime,totalHours,"
+        + "breakMinutes,status,requiresApproval,approvedBy,violations";
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private WorkingSessionRepository sessionRepository;
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private PayrollExportService exportService;
+    
+    @TempDir
+    Path directory;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exportService, "directory", directory.toString());
+        ReflectionTestUtils.setField(exportService, "batchSize", 100);
+        ReflectionTestUtils.setField(exportService, "checkpointInterval", 2);
+        when(mongoTemplate.getCollectionName(WorkingSession.class)).thenReturn("working_sessions");
+    }
+    
+    @Test
+    void exportToFile_ShouldWriteCsvAndRemoveCheckpointWhenDone() throws IOException {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("working_sessions"))).thenReturn(Stream.of(
+            session("emp1", "store1", 2), session("emp2", "store1", 2), session("emp1, \"jr\"", "store2", 3)));
+        
+        // Act
+        PayrollExportResult result = exportService.exportToFile(START, END, PayrollExportFormat.CSV);
+        
+        // Assert
+        List<String> lines = Files.readAllLines(Path.of(result.getFile()));
+        assertEquals(4, lines.size());
+        assertEquals(HEADER, lines.get(0));
+        assertTrue(lines.get(1).contains(",emp1,store1,2024-01-02,2024-01-02T09:00,2024-01-02T17:00,8.0,30,COMPLETED,false,,1"));
+        assertTrue(lines.get(3).contains(",\"emp1, \"\"jr\"\"\",store2,2024-01-03,"));
+        assertEquals(3, result.getRows());
+        assertFalse(Files.exists(Path.of(result.getFile() + ".checkpoint")));
+    }
+    
+    @Test
+    void exportToFile_ShouldResumeAfterCheckpointAndDropUnfinishedOutput() throws IOException {
+        // Arrange
+        Path file = directory.resolve("payroll-2024-01-01_2024-01-31.csv");
+        String committed = HEADER + "\r\nrow1\r\nrow2\r\n";
+        Files.writeString(file, committed + "half a ro", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve(file.getFileName() + ".checkpoint"),
+            "date=2024-01-02\nstoreId=store1\nsessionId=" + new ObjectId().toHexString()
+                + "\nrows=2\nbytes=" + committed.length() + "\n");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("working_sessions")))
+            .thenReturn(Stream.of(session("emp3", "store2", 2)));
+        
+        // Act
+        PayrollExportResult result = exportService.exportToFile(START, END, PayrollExportFormat.CSV);
+        
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(4, lines.size());
+        assertEquals("row2", lines.get(2));
+        assertTrue(lines.get(3).contains(",emp3,store2,"));
+        assertEquals(3, result.getRows());
+        assertEquals(2, result.getResumedRows());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("working_sessions"));
+        assertTrue(query.getValue().getQueryObject().containsKey("$and"));
+    }
+    
+    @Test
+    void exportToFile_ShouldWriteOneGzipMemberPerColumnarBlock() throws IOException {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("working_sessions"))).thenReturn(Stream.of(
+            session("emp1", "store1", 2), session("emp2", "store1", 2), session("emp3", "store2", 3)));
+        
+        // Act
+        PayrollExportResult result = exportService.exportToFile(START, END, PayrollExportFormat.COLUMNAR);
+        
+        // Assert: multi-member gzip reads back as consecutive blocks of 2 and 1 rows
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(Path.of(result.getFile()))))) {
+            assertEquals(0x44434231, in.readInt());
+            assertEquals(2, in.readInt());
+            in.readUTF();
+            in.readUTF();
+            in.readUTF();
+            assertEquals(2, in.readInt());
+            assertEquals("emp1", in.readUTF());
+            assertEquals("emp2", in.readUTF());
+        }
+        assertEquals(3, result.getRows());
+    }
+    
+    private static Document session(String employeeId, String storeId, int day) {
+        LocalDateTime login = LocalDateTime.of(2024, 1, day, 9, 0);
+        return new Document("_id", new ObjectId())
+            .append("employeeId", employeeId)
+            .append("storeId", storeId)
+            .append("date", toDate(login.toLocalDate().atStartOfDay()))
+            .append("loginTime", toDate(login))
+            .append("logoutTime", toDate(login.plusHours(8)))
+            .append("totalHours", 8.0)
+            .append("breakDurationMinutes", 30L)
+            .append("status", "COMPLETED")
+            .append("requiresApproval", false)
+            .append("violationCount", 1);
+    }
+    
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,141 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.user.dto.SessionBoardEvent;
+import com.dominos.user.dto.WorkingSessionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionBoardTest {
+    
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @InjectMocks
+    private SessionBoard board;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(board, "bufferSize", 2);
+        board.init();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        board.shutdown();
+    }
+    
+    @Test
+    void publish_ShouldSendSnapshotThenDeltasToEverySubscriberOfTheStore() throws Exception {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter(3, null);
+        RecordingEmitter second = new RecordingEmitter(3, null);
+        RecordingEmitter otherStore = new RecordingEmitter(1, null);
+        board.register("store1", first, List::of);
+        board.register("store1", second, List::of);
+        board.register("store2", otherStore, List::of);
+        
+        // Act
+        board.publish(event("store1", SessionBoardEvent.Type.STARTED));
+        board.publish(event("store1", SessionBoardEvent.Type.BREAK));
+        
+        // Assert
+        assertTrue(first.received.await(5, TimeUnit.SECONDS));
+        assertTrue(second.received.await(5, TimeUnit.SECONDS));
+        assertTrue(otherStore.received.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("SNAPSHOT", "STARTED", "BREAK"), first.names);
+        assertEquals(List.of("SNAPSHOT", "STARTED", "BREAK"), second.names);
+        assertEquals(List.of("SNAPSHOT"), otherStore.names);
+        verify(redisTemplate, times(2)).convertAndSend(eq(SessionBoard.CHANNEL), anyString());
+    }
+    
+    @Test
+    void publish_ShouldDisconnectSlowSubscriberWithoutHoldingBackOthers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(1, release);
+        RecordingEmitter fast = new RecordingEmitter(6, null);
+        board.register("store1", slow, List::of);
+        board.register("store1", fast, List::of);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        
+        // Act: the slow client is stuck sending the snapshot while five deltas arrive
+        for (int i = 0; i < 5; i++) {
+            board.publish(event("store1", SessionBoardEvent.Type.STARTED));
+        }
+        
+        // Assert
+        assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+        assertEquals(6, fast.names.size());
+        assertEquals(1, board.subscriberCount("store1"));
+        assertEquals(1.0, meterRegistry.counter("sessions.board.evictions").count());
+        release.countDown();
+    }
+    
+    private static SessionBoardEvent event(String storeId, SessionBoardEvent.Type type) {
+        return new SessionBoardEvent(type, storeId, new WorkingSessionResponse(), WorkingSessionStatus.ACTIVE, null);
+    }
+    
+    // Records event names; optionally blocks the first send until released, like a stalled client
+    private static class RecordingEmitter extends SseEmitter {
+        
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        
+        RecordingEmitter(int expected, CountDownLatch release) {
+            this.received = new CountDownLatch(expected);
+            this.release = release;
+        }
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String raw = builder.build().iterator().next().getData().toString();
+            names.add(raw.substring("event:".length(), raw.indexOf('\n')));
+            received.countDown();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.SessionStartTask;
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.SessionStartStatus;
+import com.dominos.user.exception.ShiftViolationException;
+import com.dominos.user.repository.SessionStartTaskRepository;
+import com.dominos.user.repository.WorkingSessionRepository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionStartOutboxTest {
+    
+    @Mock
+    private SessionStartTaskRepository taskRepository;
+    
+    @Mock
+    private WorkingSessionRepository sessionRepository;
+    
+    @Mock
+    private WorkingSessionService sessionService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private TaskExecutor taskExecutor;
+    
+    @InjectMocks
+    private SessionStartOutbox outbox;
+    
+    private SessionStartTask task;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outbox, "retryBackoffMillis", 1000L);
+        ReflectionTestUtils.setField(outbox, "leaseMillis", 30000L);
+        ReflectionTestUtils.setField(outbox, "batchSize", 50);
+        
+        task = new SessionStartTask("emp1", "store1");
+        task.setId("task1");
+        task.setStatus(SessionStartStatus.PROCESSING);
+    }
+    
+    @Test
+    void drain_ShouldClaimPendingAndExpiredLeases() {
+        // Arrange
+        task.setAttempts(1);
+        claims(task);
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.empty());
+        when(sessionService.startSession("emp1", "store1")).thenReturn(session("session1", LocalDateTime.now()));
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), update.capture(),
+            any(FindAndModifyOptions.class), eq(SessionStartTask.class));
+        
+        @SuppressWarnings("unchecked")
+        List<Document> branches = (List<Document>) query.getValue().getQueryObject().get("$or");
+        assertEquals(SessionStartStatus.PENDING, branches.get(0).get("status"));
+        assertTrue(branches.get(0).get("nextAttemptAt", Document.class).containsKey("$lte"));
+        // A task whose worker died mid-lease is claimable again once the lease runs out
+        assertEquals(SessionStartStatus.PROCESSING, branches.get(1).get("status"));
+        assertTrue(branches.get(1).get("lockedUntil", Document.class).containsKey("$lt"));
+        
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(SessionStartStatus.PROCESSING, set.get("status"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("attempts"));
+        
+        assertEquals(SessionStartStatus.COMPLETED, task.getStatus());
+        assertEquals("session1", task.getSessionId());
+        assertNull(task.getLockedUntil());
+    }
+    
+    @Test
+    void drain_ShouldBackOffExponentiallyOnTransientFailure() {
+        // Arrange
+        task.setAttempts(2);
+        claims(task);
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.empty());
+        when(sessionService.startSession("emp1", "store1")).thenThrow(new RuntimeException("mongo timeout"));
+        LocalDateTime before = LocalDateTime.now();
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        assertEquals(SessionStartStatus.PENDING, task.getStatus());
+        assertEquals("mongo timeout", task.getLastError());
+        assertNull(task.getLockedUntil());
+        // Second attempt waits twice the base backoff
+        Duration delay = Duration.between(before, task.getNextAttemptAt());
+        assertTrue(delay.toMillis() >= 2000 && delay.toMillis() < 3000, "delay was " + delay);
+        verify(taskRepository).save(task);
+        verifyNoInteractions(notificationService);
+    }
+    
+    @Test
+    void drain_ShouldFailTaskAfterMaxAttempts() {
+        // Arrange
+        task.setAttempts(3);
+        claims(task);
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.empty());
+        when(sessionService.startSession("emp1", "store1")).thenThrow(new RuntimeException("mongo timeout"));
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        assertEquals(SessionStartStatus.FAILED, task.getStatus());
+        assertEquals("mongo timeout", task.getLastError());
+        assertNotNull(task.getCompletedAt());
+        verify(notificationService).notifyEmployee(eq("emp1"), contains("mongo timeout"));
+    }
+    
+    @Test
+    void drain_ShouldFailImmediatelyOnShiftViolation() {
+        // Arrange
+        task.setAttempts(1);
+        claims(task);
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.empty());
+        when(sessionService.startSession("emp1", "store1"))
+            .thenThrow(new ShiftViolationException("No scheduled shift"));
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        assertEquals(SessionStartStatus.FAILED, task.getStatus());
+        assertEquals("No scheduled shift", task.getLastError());
+        assertNotNull(task.getCompletedAt());
+        verify(notificationService).notifyEmployee(eq("emp1"), contains("No scheduled shift"));
+    }
+    
+    @Test
+    void drain_ShouldReuseSessionCreatedByEarlierAttempt() {
+        // Arrange
+        task.setAttempts(2);
+        claims(task);
+        WorkingSession existing = session("session1", task.getCreatedAt().plusSeconds(1));
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.of(existing));
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        verify(sessionService, never()).startSession(anyString(), anyString());
+        assertEquals(SessionStartStatus.COMPLETED, task.getStatus());
+        assertEquals("session1", task.getSessionId());
+    }
+    
+    @Test
+    void drain_ShouldNotReuseSessionThatPredatesTask() {
+        // Arrange
+        task.setAttempts(1);
+        claims(task);
+        WorkingSession stale = session("old", task.getCreatedAt().minusHours(9));
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.of(stale));
+        when(sessionService.startSession("emp1", "store1")).thenReturn(session("session2", LocalDateTime.now()));
+        
+        // Act
+        outbox.drain();
+        
+        // Assert
+        assertEquals("session2", task.getSessionId());
+    }
+    
+    private void claims(SessionStartTask claimed) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(SessionStartTask.class))).thenReturn(claimed).thenReturn(null);
+    }
+    
+    private WorkingSession session(String id, LocalDateTime loginTime) {
+        WorkingSession session = new WorkingSession("emp1", "store1", loginTime);
+        session.setId(id);
+        return session;
+    }
+}
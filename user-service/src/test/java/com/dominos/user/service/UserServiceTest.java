@@ -6,19 +6,36 @@ import com.dominos.user.dto.LoginRequest;
 import com.dominos.user.dto.LoginResponse;
 import com.dominos.user.dto.UserCreateRequest;
 import com.dominos.user.dto.UserResponse;
+import com.dominos.user.dto.UserSearchPage;
 import com.dominos.user.repository.UserRepository;
 import com.dominos.user.repository.WorkingSessionRepository;
+import com.dominos.user.security.LoginThrottle;
+import com.dominos.user.security.PermissionRegistry;
+import com.dominos.user.security.PermissionVersionService;
+import com.dominos.user.security.TokenRevocationService;
+import com.dominos.user.util.ContinuationToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -42,6 +59,39 @@ class UserServiceTest {
     @Mock
     private WorkingSessionService sessionService;
     
+    @Mock
+    private LastLoginWriteBehind lastLoginWriteBehind;
+    
+    @Mock
+    private SessionStartOutbox sessionStartOutbox;
+    
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
+    @Mock
+    private LoginThrottle loginThrottle;
+    
+    @Mock
+    private PermissionRegistry permissionRegistry;
+    
+    @Mock
+    private PermissionVersionService permissionVersionService;
+    
+    @Mock
+    private EmployeeNameIndex employeeNameIndex;
+    
+    @Mock
+    private CacheManager cacheManager;
+    
+    @Mock
+    private UserStatisticsService userStatisticsService;
+    
+    @Mock
+    private RegistrationFilter registrationFilter;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    
     @InjectMocks
     private UserService userService;
     
@@ -74,6 +124,8 @@ class UserServiceTest {
     @Test
     void createUser_ShouldCreateCustomerSuccessfully() {
         // Arrange
+        when(registrationFilter.mightContainEmail(anyString())).thenReturn(true);
+        when(registrationFilter.mightContainPhone(anyString())).thenReturn(true);
         when(userRepository.existsByPersonalInfoEmail(anyString())).thenReturn(false);
         when(userRepository.existsByPersonalInfoPhone(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
@@ -88,11 +140,41 @@ class UserServiceTest {
         assertEquals("test@example.com", result.getEmail());
         assertEquals(UserType.CUSTOMER, result.getType());
         verify(userRepository).save(any(User.class));
+        verify(registrationFilter).record("test@example.com", "9876543210");
+    }
+    
+    @Test
+    void createUser_ShouldSkipExistsQueries_WhenFilterRulesValuesOut() {
+        // Arrange
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        
+        // Act
+        userService.createUser(userCreateRequest);
+        
+        // Assert
+        verify(userRepository, never()).existsByPersonalInfoEmail(anyString());
+        verify(userRepository, never()).existsByPersonalInfoPhone(anyString());
+    }
+    
+    @Test
+    void createUser_ShouldTranslateDuplicateKeyError() {
+        // Arrange
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DuplicateKeyException(
+            "E11000 duplicate key error collection: dominos.users index: personalInfo.phone dup key: { personalInfo.phone: \"9876543210\" }"));
+        
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> userService.createUser(userCreateRequest));
+        assertEquals("Phone number already exists", exception.getMessage());
+        verify(registrationFilter, never()).record(anyString(), anyString());
     }
     
     @Test
     void createUser_ShouldThrowException_WhenEmailExists() {
         // Arrange
+        when(registrationFilter.mightContainEmail(anyString())).thenReturn(true);
         when(userRepository.existsByPersonalInfoEmail(anyString())).thenReturn(true);
         
         // Act & Assert
@@ -110,9 +192,8 @@ class UserServiceTest {
         
         when(userRepository.findByPersonalInfoEmail(anyString())).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtService.generateAccessToken(anyString(), anyString(), any())).thenReturn("accessToken");
+        when(jwtService.generateAccessToken(anyString(), anyString(), any(), any())).thenReturn("accessToken");
         when(jwtService.generateRefreshToken(anyString())).thenReturn("refreshToken");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
         
         // Act
         LoginResponse result = userService.authenticate(loginRequest);
@@ -122,7 +203,32 @@ class UserServiceTest {
         assertEquals("accessToken", result.getAccessToken());
         assertEquals("refreshToken", result.getRefreshToken());
         assertNotNull(result.getUser());
-        verify(userRepository).save(any(User.class));
+        assertNotNull(result.getUser().getLastLogin());
+        verify(lastLoginWriteBehind).record(eq("user123"), any(LocalDateTime.class));
+        verify(userRepository, never()).save(any(User.class));
+    }
+    
+    @Test
+    void authenticate_ShouldRehashPasswordWithOutdatedCost() {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("test@example.com");
+        loginRequest.setPassword("password123");
+        
+        when(userRepository.findByPersonalInfoEmail(anyString())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("password123", "hashedPassword")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("strongerHash");
+        Cache usersCache = mock(Cache.class);
+        when(cacheManager.getCache("users")).thenReturn(usersCache);
+        
+        // Act
+        userService.authenticate(loginRequest);
+        
+        // Assert
+        verify(userRepository).updatePasswordHash("user123", "strongerHash");
+        verify(usersCache).evict("user123");
+        assertEquals("strongerHash", testUser.getPersonalInfo().getPasswordHash());
     }
     
     @Test
@@ -230,5 +336,100 @@ class UserServiceTest {
         
         // Assert
         verify(userRepository).save(argThat(user -> !user.isActive()));
+        verify(tokenRevocationService).revokeAllForUser("user123");
+        verify(userStatisticsService).recordDeactivated();
+    }
+    
+    @Test
+    void reactivateUser_ShouldSetUserActiveAndCountIt() {
+        // Arrange
+        testUser.setActive(false);
+        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        
+        // Act
+        UserResponse response = userService.reactivateUser("user123");
+        
+        // Assert
+        assertTrue(response.isActive());
+        verify(userStatisticsService).recordReactivated();
+        verify(employeeNameIndex).upsert(testUser);
+    }
+    
+    @Test
+    void reactivateUser_ShouldNotCountAlreadyActiveUser() {
+        // Arrange
+        when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
+        
+        // Act
+        userService.reactivateUser("user123");
+        
+        // Assert
+        verify(userRepository, never()).save(any(User.class));
+        verify(userStatisticsService, never()).recordReactivated();
+    }
+    
+    @Test
+    void streamUsersByType_ShouldWriteOneLinePerUserWithResumeToken() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "streamBatchSize", 1);
+        String fingerprint = ContinuationToken.fingerprint("type", UserType.CUSTOMER);
+        when(userRepository.streamAfter(any(), eq("user100"), eq(1))).thenReturn(Stream.of(testUser));
+        
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.streamUsersByType(UserType.CUSTOMER, ContinuationToken.encode("user100", fingerprint)).writeTo(out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals("user123", row.get("user").get("id").asText());
+        assertEquals("user123", ContinuationToken.decode(row.get("resumeToken").asText(), fingerprint));
+    }
+    
+    @Test
+    void streamUsersByType_ShouldRejectTokenFromAnotherListing() {
+        String token = ContinuationToken.encode("user100", ContinuationToken.fingerprint("managers"));
+        
+        assertThrows(IllegalArgumentException.class, () -> userService.streamUsersByType(UserType.CUSTOMER, token));
+        verify(userRepository, never()).streamAfter(any(), any(), anyInt());
+    }
+    
+    @Test
+    void searchUsers_ShouldReturnNextPageToken_WhenMoreResultsExist() {
+        // Arrange
+        User second = new User();
+        second.setId("user456");
+        second.setType(UserType.CUSTOMER);
+        second.setPersonalInfo(testUser.getPersonalInfo());
+        when(userRepository.searchPage("Test", null, null, UserType.CUSTOMER, null, null, 2))
+            .thenReturn(List.of(testUser, second));
+        
+        // Act
+        UserSearchPage page = userService.searchUsers("Test", null, null, UserType.CUSTOMER, null, 1, null);
+        
+        // Assert
+        assertEquals(1, page.getUsers().size());
+        assertEquals("user123", page.getUsers().get(0).getId());
+        assertNotNull(page.getNextPageToken());
+        
+        when(userRepository.searchPage("Test", null, null, UserType.CUSTOMER, null, "user123", 2))
+            .thenReturn(List.of(second));
+        UserSearchPage next = userService.searchUsers("Test", null, null, UserType.CUSTOMER, null, 1, page.getNextPageToken());
+        assertEquals("user456", next.getUsers().get(0).getId());
+        assertNull(next.getNextPageToken());
+    }
+    
+    @Test
+    void searchUsers_ShouldRejectTokenFromDifferentSearch() {
+        // Arrange
+        when(userRepository.searchPage(any(), any(), any(), any(), any(), any(), anyInt()))
+            .thenReturn(List.of(testUser, testUser));
+        String token = userService.searchUsers("Test", null, null, null, null, 1, null).getNextPageToken();
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> userService.searchUsers("Other", null, null, null, null, 1, token));
     }
-}
\ No newline at end of file
+}
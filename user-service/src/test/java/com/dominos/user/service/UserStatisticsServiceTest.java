@@ -0,0 +1,177 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.User;
+import com.dominos.shared.entity.UserStatistics;
+import com.dominos.shared.enums.UserType;
+import com.mongodb.client.result.UpdateResult;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatisticsServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private UserStatisticsService statisticsService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statisticsService, "loginDayRetention", 8);
+    }
+    
+    @Test
+    void recordReactivated_ShouldIncrementActiveUsersAndVersion() {
+        // Act
+        statisticsService.recordReactivated();
+        
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+            eq(UserStatistics.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("activeUsers"));
+        assertEquals(1, inc.get("version"));
+    }
+    
+    @Test
+    void recordLogins_ShouldMoveUsersBetweenDayBuckets() {
+        // Arrange
+        LocalDateTime monday = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime tuesday = monday.plusDays(1);
+        
+        // Act
+        statisticsService.recordLogins(Map.of("user1", monday, "user2", tuesday.minusHours(1)),
+            Map.of("user1", tuesday, "user2", tuesday));
+        
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+            eq(UserStatistics.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1L, inc.get("loginDays." + UserStatisticsService.dayKey(tuesday)));
+        assertEquals(-1L, inc.get("loginDays." + UserStatisticsService.dayKey(monday)));
+    }
+    
+    @Test
+    void reconcile_ShouldSetRecomputedCountersOnlyIfVersionIsUnchanged() {
+        // Arrange
+        when(mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class)).thenReturn(stored(7, 10, 9));
+        aggregates(12, 11);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserStatistics.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        UserStatistics result = statisticsService.reconcile();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(UserStatistics.class));
+        verify(mongoTemplate, never()).save(any());
+        assertEquals(7L, query.getValue().getQueryObject().get("version"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(12L, set.get("totalUsers"));
+        assertEquals(11L, set.get("activeUsers"));
+        assertEquals(8L, set.get("version"));
+        assertEquals(12L, result.getTotalUsers());
+    }
+    
+    @Test
+    void reconcile_ShouldRetryWhenCountersChangedDuringAggregation() {
+        // Arrange
+        when(mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class))
+            .thenReturn(stored(7, 10, 9))
+            .thenReturn(stored(8, 11, 10));
+        aggregates(11, 10);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserStatistics.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        statisticsService.reconcile();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), any(Update.class), eq(UserStatistics.class));
+        assertEquals(8L, query.getAllValues().get(1).getQueryObject().get("version"));
+    }
+    
+    @Test
+    void reconcile_ShouldGiveUpWithoutOverwritingAfterRepeatedConflicts() {
+        // Arrange
+        when(mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class)).thenReturn(stored(7, 10, 9));
+        aggregates(11, 10);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserStatistics.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        
+        // Act
+        statisticsService.reconcile();
+        
+        // Assert
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(Update.class), eq(UserStatistics.class));
+        verify(mongoTemplate, never()).save(any());
+    }
+    
+    @Test
+    void reconcile_ShouldInsertWhenDocumentIsMissingAndRetryOnRace() {
+        // Arrange
+        when(mongoTemplate.findById(UserStatistics.GLOBAL_ID, UserStatistics.class))
+            .thenReturn(null)
+            .thenReturn(stored(1, 1, 1));
+        aggregates(5, 4);
+        when(mongoTemplate.insert(any(UserStatistics.class))).thenThrow(new DuplicateKeyException("global"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UserStatistics.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        
+        // Act
+        UserStatistics result = statisticsService.reconcile();
+        
+        // Assert
+        verify(mongoTemplate).insert(any(UserStatistics.class));
+        assertEquals(5L, result.getTotalUsers());
+        assertEquals(2L, result.getVersion());
+    }
+    
+    private UserStatistics stored(long version, long total, long active) {
+        UserStatistics statistics = new UserStatistics();
+        statistics.setVersion(version);
+        statistics.setTotalUsers(total);
+        statistics.setActiveUsers(active);
+        return statistics;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void aggregates(long total, long active) {
+        Document facets = new Document("byType", List.of(new Document("_id", UserType.CUSTOMER.name()).append("count", total)))
+            .append("active", List.of(new Document("count", active)))
+            .append("loginDays", List.of());
+        AggregationResults<Document> results = mock(AggregationResults.class);
+        when(results.getUniqueMappedResult()).thenReturn(facets);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class))).thenReturn(results);
+    }
+}
@@ -0,0 +1,192 @@
+package com.dominos.user.service;
+
+import com.dominos.shared.entity.LabourRollup;
+import com.dominos.shared.entity.WorkingSession;
+import com.dominos.shared.enums.RollupGranularity;
+import com.dominos.shared.enums.WorkingSessionStatus;
+import com.dominos.user.dto.SessionBoardEvent;
+import com.dominos.user.dto.WorkingHoursReport;
+import com.dominos.user.repository.DailyHours;
+import com.dominos.user.repository.WorkingSessionRepository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkingSessionServiceTest {
+    
+    @Mock
+    private WorkingSessionRepository sessionRepository;
+    
+    @Mock
+    private LabourRollupService labourRollupService;
+    
+    @Mock
+    private ActiveSessionRegistry activeSessionRegistry;
+    
+    @Mock
+    private ShiftValidationService shiftValidationService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private SessionBoard sessionBoard;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private WorkingSessionService sessionService;
+    
+    @Test
+    void generateEmployeeReport_ShouldBuildTotalsFromDailyRows() {
+        // Arrange
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        when(sessionRepository.sumHoursByDay("emp1", start, end)).thenReturn(List.of(
+            new DailyHours(LocalDate.of(2024, 1, 2), 8.0, 1),
+            new DailyHours(LocalDate.of(2024, 1, 3), 10.0, 2)));
+        
+        // Act
+        WorkingHoursReport report = sessionService.generateEmployeeReport("emp1", start, end);
+        
+        // Assert
+        assertEquals(18.0, report.getTotalHours());
+        assertEquals(3, report.getTotalDays());
+        assertEquals(6.0, report.getAverageHoursPerDay());
+        assertEquals(List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3)), List.copyOf(report.getDailyHours().keySet()));
+        assertEquals(10.0, report.getDailyHours().get(LocalDate.of(2024, 1, 3)));
+        verify(sessionRepository, never()).findByEmployeeIdAndDateBetween(any(), any(), any());
+    }
+    
+    @Test
+    void generateEmployeeReport_ShouldReadDailyRollupsOnceBackfilled() {
+        // Arrange
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        LabourRollup day = new LabourRollup();
+        day.setPeriodStart(LocalDate.of(2024, 1, 2));
+        day.setHours(7.5);
+        day.setSessions(1);
+        when(labourRollupService.isBackfilled()).thenReturn(true);
+        when(labourRollupService.findPeriods(LabourRollup.Scope.EMPLOYEE, "emp1", RollupGranularity.DAY,
+            LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 30))).thenReturn(List.of(day));
+        
+        // Act
+        WorkingHoursReport report = sessionService.generateEmployeeReport("emp1", start, end);
+        
+        // Assert
+        assertEquals(7.5, report.getTotalHours());
+        assertEquals(1, report.getTotalDays());
+        assertEquals(7.5, report.getDailyHours().get(LocalDate.of(2024, 1, 2)));
+        verify(sessionRepository, never()).sumHoursByDay(any(), any(), any());
+    }
+    
+    @Test
+    void endSession_ShouldLoadActiveSessionFromMongoEvenIfRegistryMissesIt() {
+        // Arrange
+        WorkingSession active = activeSession(LocalDateTime.now().minusHours(4));
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.of(active));
+        when(sessionRepository.save(any(WorkingSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        WorkingSession ended = sessionService.endSession("emp1");
+        
+        // Assert
+        assertFalse(ended.isActive());
+        assertEquals(WorkingSessionStatus.COMPLETED, ended.getStatus());
+        verify(activeSessionRegistry).update(ended);
+        verify(activeSessionRegistry, never()).find(anyString());
+    }
+    
+    @Test
+    void addBreakTime_ShouldApplyBreakToPersistedState() {
+        // Arrange
+        WorkingSession active = activeSession(LocalDateTime.now().minusHours(4));
+        active.setBreakDurationMinutes(15L);
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.of(active));
+        when(sessionRepository.save(any(WorkingSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        WorkingSession saved = sessionService.addBreakTime("emp1", 15L);
+        
+        // Assert
+        assertEquals(30L, saved.getBreakDurationMinutes());
+        verify(activeSessionRegistry, never()).find(anyString());
+    }
+    
+    @Test
+    void endSession_ShouldFailWhenMongoHasNoActiveSession() {
+        // Arrange
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> sessionService.endSession("emp1"));
+        verify(sessionRepository, never()).save(any(WorkingSession.class));
+    }
+    
+    @Test
+    void approveSession_ShouldSetFieldsWithoutReplacingDocument() {
+        // Arrange
+        WorkingSession approved = activeSession(LocalDateTime.now().minusHours(9));
+        approved.setActive(false);
+        approved.setStatus(WorkingSessionStatus.APPROVED);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(WorkingSession.class))).thenReturn(approved);
+        
+        // Act
+        sessionService.approveSession("session1", "manager1");
+        
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+            eq(WorkingSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(WorkingSessionStatus.APPROVED, set.get("status"));
+        assertFalse(set.containsKey("rolledUpHours"));
+        verify(sessionRepository, never()).save(any(WorkingSession.class));
+        verify(labourRollupService).record(approved);
+    }
+    
+    @Test
+    void endSession_ShouldSucceedAndPublishWhenRollupFails() {
+        // Arrange
+        WorkingSession active = activeSession(LocalDateTime.now().minusHours(4));
+        when(sessionRepository.findActiveSessionByEmployeeId("emp1")).thenReturn(Optional.of(active));
+        when(sessionRepository.save(any(WorkingSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new DataAccessResourceFailureException("primary stepped down")).when(labourRollupService).record(any());
+        
+        // Act
+        WorkingSession ended = sessionService.endSession("emp1");
+        
+        // Assert
+        assertFalse(ended.isActive());
+        verify(sessionBoard).publish(argThat(event -> event.getType() == SessionBoardEvent.Type.ENDED));
+    }
+    
+    private WorkingSession activeSession(LocalDateTime loginTime) {
+        WorkingSession session = new WorkingSession("emp1", "store1", loginTime);
+        session.setId("session1");
+        return session;
+    }
+}
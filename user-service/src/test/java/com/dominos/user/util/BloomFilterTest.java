@@ -0,0 +1,47 @@
+package com.dominos.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+    
+    @Test
+    void mightContain_ShouldNeverReturnFalseForInsertedValues() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("token-" + i);
+        }
+        
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("token-" + i));
+        }
+    }
+    
+    @Test
+    void mightContain_ShouldStayNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("token-" + i);
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        
+        assertTrue(falsePositives / 100_000.0 < 0.02, "false positive rate too high: " + falsePositives);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+    }
+    
+    @Test
+    void expectedFalsePositiveRate_ShouldBeZeroWhenEmpty() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+        assertFalse(filter.mightContain("anything"));
+    }
+}
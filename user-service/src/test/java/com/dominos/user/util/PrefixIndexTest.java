@@ -0,0 +1,36 @@
+package com.dominos.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+    
+    private final PrefixIndex<String> index = PrefixIndex.build(
+        List.of("John Smith", "Johanna Stone", "Amélie Jonas", "Ravi Kumar", "Priya Johnson"),
+        name -> name, 64);
+    
+    @Test
+    void search_ShouldMatchPrefixOfAnyWordIgnoringCaseAndAccents() {
+        assertEquals(List.of("Johanna Stone", "John Smith", "Priya Johnson"), index.search("JOH", 10));
+        assertEquals(List.of("Amélie Jonas"), index.search("ameli", 10));
+        assertEquals(List.of("Ravi Kumar"), index.search("ku", 10));
+    }
+    
+    @Test
+    void search_ShouldRequireEveryQueryWordAndHonourLimit() {
+        assertEquals(List.of("John Smith"), index.search("smi jo", 10));
+        assertEquals(1, index.search("jo", 1).size());
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("zed", 10).isEmpty());
+    }
+    
+    @Test
+    void search_ShouldReturnEachValueOnce() {
+        PrefixIndex<String> repeated = PrefixIndex.build(List.of("Jo Jones"), name -> name, 64);
+        assertEquals(List.of("Jo Jones"), repeated.search("jo", 10));
+        assertTrue(repeated.estimatedBytes() > 64);
+    }
+}